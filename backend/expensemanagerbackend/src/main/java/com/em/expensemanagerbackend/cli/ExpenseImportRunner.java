@@ -0,0 +1,72 @@
+package com.em.expensemanagerbackend.cli;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.em.expensemanagerbackend.dto.ImportRejectDto;
+import com.em.expensemanagerbackend.dto.ImportReportDto;
+import com.em.expensemanagerbackend.service.ExpenseImportService;
+
+/**
+ * Command-line expense import: when started with --import-expenses=FILE the
+ * application imports the CSV file, prints the report and exits (status 0
+ * when every row was imported, 2 when some were rejected, 1 on failure).
+ * Add --spring.main.web-application-type=none to skip the web server.
+ */
+@Component
+public class ExpenseImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportRunner.class);
+
+    static final String OPTION = "import-expenses";
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> files = args.getOptionValues(OPTION);
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+
+        int exitCode = 0;
+        for (String file : files) {
+            try (BufferedReader csv = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                ImportReportDto report = expenseImportService.importExpenses(csv);
+                System.out.println(file + ": " + report.getRowsRead() + " row(s) read, " + report.getRowsImported()
+                        + " imported, " + report.getRowsRejected() + " rejected in " + report.getDurationMs() + " ms");
+                for (ImportRejectDto reject : report.getRejects()) {
+                    System.out.println("  line " + reject.getLine() + ": " + reject.getReason());
+                }
+                if (report.isRejectsTruncated()) {
+                    System.out.println("  ... more rejects not listed");
+                }
+                if (report.getRowsRejected() > 0) {
+                    exitCode = Math.max(exitCode, 2);
+                }
+            } catch (Exception e) {
+                log.error("Import of {} failed", file, e);
+                exitCode = 1;
+            }
+        }
+
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,29 @@
+package com.em.expensemanagerbackend.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.em.expensemanagerbackend.service.EmailSender;
+import com.em.expensemanagerbackend.service.LoggingEmailSender;
+import com.em.expensemanagerbackend.service.SmtpEmailSender;
+
+@Configuration
+public class EmailConfig {
+
+    /**
+     * Use SMTP when Spring Boot configured a JavaMailSender (spring.mail.host
+     * is set), otherwise just log outgoing digests
+     */
+    @Bean
+    public EmailSender emailSender(ObjectProvider<JavaMailSender> mailSender,
+            @Value("${app.email.from:no-reply@expensemanager.local}") String from) {
+        JavaMailSender javaMailSender = mailSender.getIfAvailable();
+        if (javaMailSender != null) {
+            return new SmtpEmailSender(javaMailSender, from);
+        }
+        return new LoggingEmailSender();
+    }
+}
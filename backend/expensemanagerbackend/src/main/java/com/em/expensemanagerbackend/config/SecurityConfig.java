@@ -29,6 +29,7 @@ public class SecurityConfig {
             corsConfiguration.setAllowedOriginPatterns(java.util.List.of("*"));
             corsConfiguration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
             corsConfiguration.setAllowedHeaders(java.util.List.of("*"));
+            corsConfiguration.setExposedHeaders(java.util.List.of("ETag", "Idempotent-Replayed", "Accept-Ranges", "Content-Range", "Retry-After"));
             corsConfiguration.setAllowCredentials(true);
             return corsConfiguration;
         }))
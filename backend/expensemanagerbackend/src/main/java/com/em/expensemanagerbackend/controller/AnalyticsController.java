@@ -0,0 +1,94 @@
+package com.em.expensemanagerbackend.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.em.expensemanagerbackend.dto.ExpenseScanRowDto;
+import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.dto.SpendCubeRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.service.ClosedExpenseScanService;
+import com.em.expensemanagerbackend.service.SpendCubeService;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private SpendCubeService spendCubeService;
+
+    @Autowired
+    private ClosedExpenseScanService closedExpenseScanService;
+
+    /**
+     * Get spend totals from the in-memory cube (Finance only), grouped by any
+     * of employee, month, status and bucket and filtered by the others
+     */
+    @GetMapping("/spend")
+    public ResponseEntity<?> getSpend(@RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(required = false) ExpenseStatus status,
+            @RequestParam(required = false) String amountBucket) {
+        try {
+            List<SpendCubeRowDto> rows = spendCubeService.query(groupBy, employeeId, from, to, status, amountBucket);
+            return ResponseEntity.ok(rows);
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().contains("still loading")) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error retrieving spend analytics: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Filter and aggregate closed (paid or rejected) expenses from the
+     * columnar store (Finance only); groupBy is none, status, employee or
+     * month
+     */
+    @GetMapping("/closed-expenses")
+    public ResponseEntity<?> scanClosedExpenses(@RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) ExpenseStatus status,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate closedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate closedTo,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount) {
+        try {
+            List<ExpenseScanRowDto> rows = closedExpenseScanService.scan(groupBy, status, employeeId, closedFrom,
+                    closedTo, minAmount, maxAmount);
+            return ResponseEntity.ok(rows);
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().contains("still loading")) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error scanning closed expenses: " + e.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.em.expensemanagerbackend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.em.expensemanagerbackend.dto.DashboardResponseDto;
+import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.service.DashboardService;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * Get everything the current user's dashboard shows on load in one
+     * response
+     */
+    @GetMapping
+    public ResponseEntity<?> getDashboard() {
+        try {
+            DashboardResponseDto dashboard = dashboardService.getCurrentUserDashboard();
+            return ResponseEntity.ok(dashboard);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving dashboard: " + e.getMessage()));
+        }
+    }
+}
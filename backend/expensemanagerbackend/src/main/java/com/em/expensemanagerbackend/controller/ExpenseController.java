@@ -1,9 +1,22 @@
 package com.em.expensemanagerbackend.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.catalina.Globals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,16 +26,34 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.em.expensemanagerbackend.dto.BatchExpenseResponseDto;
 import com.em.expensemanagerbackend.dto.CreateExpenseRequestDto;
+import com.em.expensemanagerbackend.dto.ExpenseChangesResponseDto;
 import com.em.expensemanagerbackend.dto.ExpenseRequestResponseDto;
+import com.em.expensemanagerbackend.dto.ExpenseSummaryDto;
 import com.em.expensemanagerbackend.dto.FinanceActionRequestDto;
 import com.em.expensemanagerbackend.dto.FinanceRejectionRequestDto;
 import com.em.expensemanagerbackend.dto.ManagerActionRequestDto;
 import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ReceiptBlob;
+import com.em.expensemanagerbackend.service.ExpenseCountService;
 import com.em.expensemanagerbackend.service.ExpenseService;
+import com.em.expensemanagerbackend.service.ExpenseSummaryService;
+import com.em.expensemanagerbackend.service.ExpenseVersionService;
+import com.em.expensemanagerbackend.service.ExpenseWorkflow;
+import com.em.expensemanagerbackend.service.OptimisticRetryService;
+import com.em.expensemanagerbackend.service.ReceiptPreviewService;
+import com.em.expensemanagerbackend.service.ReceiptStorageService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -30,9 +61,32 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/expenses")
 public class ExpenseController {
 
+    private static final Logger log = LoggerFactory.getLogger(ExpenseController.class);
+
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseVersionService expenseVersionService;
+
+    @Autowired
+    private ExpenseWorkflow expenseWorkflow;
+
+    @Autowired
+    private ExpenseCountService expenseCountService;
+
+    @Autowired
+    private ExpenseSummaryService expenseSummaryService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private ReceiptStorageService receiptStorageService;
+
+    @Autowired
+    private ReceiptPreviewService receiptPreviewService;
+
     /**
      * Create a new expense request
      */
@@ -47,14 +101,37 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * Create several expenses at once (offline upload). Returns 201 when all
+     * were created, 207 with per-item results when only some were, and 400
+     * when none were.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createExpenseRequests(@RequestBody List<CreateExpenseRequestDto> createDtos) {
+        try {
+            BatchExpenseResponseDto responseDto = expenseService.createExpenseRequests(createDtos);
+            HttpStatus status = responseDto.getFailedCount() == 0 ? HttpStatus.CREATED
+                    : responseDto.getCreatedCount() > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(responseDto);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error creating expenses: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get all expenses for the current user
      */
     @GetMapping("/my-expenses")
-    public ResponseEntity<?> getCurrentUserExpenses() {
+    public ResponseEntity<?> getCurrentUserExpenses(WebRequest webRequest) {
+        // Version is read before the data, so the tag is never newer than the body
+        String etag = expenseVersionService.etagForOwnList("my-expenses");
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         try {
             List<ExpenseRequestResponseDto> expenses = expenseService.getCurrentUserExpenses();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error retrieving expenses: " + e.getMessage()));
@@ -65,10 +142,14 @@ public class ExpenseController {
      * Get pending expenses for the current user
      */
     @GetMapping("/my-pending")
-    public ResponseEntity<?> getCurrentUserPendingExpenses() {
+    public ResponseEntity<?> getCurrentUserPendingExpenses(WebRequest webRequest) {
+        String etag = expenseVersionService.etagForOwnList("my-pending");
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         try {
             List<ExpenseRequestResponseDto> expenses = expenseService.getCurrentUserPendingExpenses();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error retrieving pending expenses: " + e.getMessage()));
@@ -79,24 +160,100 @@ public class ExpenseController {
      * Get rejected expenses for the current user
      */
     @GetMapping("/my-rejected")
-    public ResponseEntity<?> getCurrentUserRejectedExpenses() {
+    public ResponseEntity<?> getCurrentUserRejectedExpenses(WebRequest webRequest) {
+        String etag = expenseVersionService.etagForOwnList("my-rejected");
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         try {
             List<ExpenseRequestResponseDto> expenses = expenseService.getCurrentUserRejectedExpenses();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error retrieving rejected expenses: " + e.getMessage()));
         }
     }
 
+    /**
+     * Get dashboard badge counts per status (own expenses for employees, all
+     * expenses for managers and finance)
+     */
+    @GetMapping("/counts")
+    public ResponseEntity<?> getStatusCounts() {
+        try {
+            Map<ExpenseStatus, Long> counts = expenseCountService.getCurrentUserStatusCounts();
+            return ResponseEntity.ok(counts);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving expense counts: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the current user's spend totals per status and month (from/to as
+     * yyyy-MM, default the last twelve months)
+     */
+    @GetMapping("/summary/mine")
+    public ResponseEntity<?> getMySummary(@RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to) {
+        try {
+            List<ExpenseSummaryDto> summary = expenseSummaryService.getCurrentUserSummary(from, to);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving expense totals: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get team spend totals per employee, status and month (Manager only)
+     */
+    @GetMapping("/summary/team")
+    public ResponseEntity<?> getTeamSummary(@RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to) {
+        try {
+            List<ExpenseSummaryDto> summary = expenseSummaryService.getTeamSummary(from, to);
+            return ResponseEntity.ok(summary);
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error retrieving team totals: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Get expenses changed or deleted since a change-feed cursor (0 for a
+     * full sync)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getExpenseChanges(@RequestParam(defaultValue = "0") String since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            ExpenseChangesResponseDto changes = expenseService.getChangesSince(since, limit);
+            return ResponseEntity.ok(changes);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving expense changes: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get expense by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getExpenseById(@PathVariable Long id) {
+    public ResponseEntity<?> getExpenseById(@PathVariable Long id, WebRequest webRequest) {
+        // Version is read before the data; a 304 is only answered once the access check passed
+        String etag = expenseVersionService.etagForExpense(id);
         try {
             ExpenseRequestResponseDto expense = expenseService.getExpenseById(id);
-            return ResponseEntity.ok(expense);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).body(expense);
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
@@ -117,8 +274,11 @@ public class ExpenseController {
     public ResponseEntity<?> updatePendingExpense(@PathVariable Long id,
             @Valid @RequestBody CreateExpenseRequestDto updateDto) {
         try {
-            ExpenseRequestResponseDto responseDto = expenseService.updatePendingExpense(id, updateDto);
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.once("update",
+                    () -> expenseService.updatePendingExpense(id, updateDto));
             return ResponseEntity.ok(responseDto);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
@@ -141,8 +301,13 @@ public class ExpenseController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deletePendingExpense(@PathVariable Long id) {
         try {
-            expenseService.deletePendingExpense(id);
+            optimisticRetryService.once("delete", () -> {
+                expenseService.deletePendingExpense(id);
+                return null;
+            });
             return ResponseEntity.ok(new MessageResponse("Expense deleted successfully"));
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
@@ -159,15 +324,217 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * Upload the receipt of a pending expense (multipart field "file"); the
+     * file is streamed to disk and stored once per distinct content
+     */
+    @PostMapping(value = "/{id}/receipt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadReceipt(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        try (InputStream upload = file.getInputStream()) {
+            // Ownership and status first: a rejected upload must not leave a blob in storage
+            expenseService.checkCanAttachReceipt(id);
+            ReceiptStorageService.StoredReceipt receipt = receiptStorageService.store(upload);
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.once("receipt_upload",
+                    () -> expenseService.attachReceipt(id, receipt));
+            return ResponseEntity.ok(responseDto);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error uploading receipt: " + e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
+        } catch (RuntimeException e) {
+            if (e.getMessage().equals("Expense not found")) {
+                return ResponseEntity.notFound().build();
+            } else if (e.getMessage().equals("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse("Access denied"));
+            } else if (e.getMessage().startsWith("Unsupported receipt type")) {
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().startsWith("Receipt exceeds")) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error uploading receipt: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Download the receipt of an expense, visible to whoever may view the
+     * expense. Supports single byte ranges and If-None-Match; the body is
+     * sent without copying it onto the heap (see sendStoredFile). The URL in
+     * receiptUrl carries the content hash (?v=) and is cached as immutable;
+     * the bare URL must be revalidated because a new upload replaces the
+     * receipt.
+     */
+    @GetMapping("/{id}/receipt")
+    public ResponseEntity<?> downloadReceipt(@PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version,
+            HttpServletRequest request, HttpServletResponse response) {
+        ReceiptBlob receipt;
+        try {
+            receipt = expenseService.getReceipt(id);
+        } catch (RuntimeException e) {
+            if (e.getMessage().equals("Expense not found") || e.getMessage().equals("Receipt not found")) {
+                return ResponseEntity.notFound().build();
+            } else if (e.getMessage().equals("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse("Access denied"));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error retrieving receipt: " + e.getMessage()));
+            }
+        }
+
+        String hash = receipt.getContentHash();
+        Path file = receiptStorageService.blobPath(hash);
+        if (!Files.isRegularFile(file)) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + hash + "\"";
+        String cacheControl = hash.equals(version) ? "private, max-age=31536000, immutable" : "private, no-cache";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        long size = receipt.getSizeBytes();
+        long[] range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range validator means the client's partial copy is of other content: send it all
+        if (ifRange == null || ifRange.trim().equals(etag)) {
+            try {
+                range = ReceiptStorageService.parseRange(request.getHeader(HttpHeaders.RANGE), size);
+            } catch (RuntimeException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+            }
+        }
+        long start = range == null ? 0 : range[0];
+        long length = range == null ? size : range[1] - range[0] + 1;
+
+        response.setStatus(range == null ? HttpStatus.OK.value() : HttpStatus.PARTIAL_CONTENT.value());
+        if (range != null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + size);
+        }
+        response.setContentType(receipt.getContentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return null;
+        }
+
+        sendStoredFile(file, start, length, request, response);
+        return null;
+    }
+
+    /**
+     * Get the preview image of an expense's receipt, with the same access as
+     * the receipt. Previews are made in the background after upload: 202
+     * while one is queued, 503 when the preview queue is full, 404 when the
+     * receipt has no previewable content.
+     */
+    @GetMapping("/{id}/receipt/preview")
+    public ResponseEntity<?> downloadReceiptPreview(@PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version,
+            HttpServletRequest request, HttpServletResponse response) {
+        ReceiptBlob receipt;
+        try {
+            receipt = expenseService.getReceipt(id);
+        } catch (RuntimeException e) {
+            if (e.getMessage().equals("Expense not found") || e.getMessage().equals("Receipt not found")) {
+                return ResponseEntity.notFound().build();
+            } else if (e.getMessage().equals("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse("Access denied"));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error retrieving receipt preview: " + e.getMessage()));
+            }
+        }
+
+        String hash = receipt.getContentHash();
+        Path file = receiptStorageService.previewPath(hash);
+        if (!Files.isRegularFile(file)) {
+            if (Files.exists(receiptStorageService.noPreviewPath(hash))) {
+                return ResponseEntity.notFound().build();
+            }
+            boolean queued = receiptPreviewService.request(hash, receipt.getContentType());
+            return ResponseEntity.status(queued ? HttpStatus.ACCEPTED : HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(new MessageResponse(queued ? "Preview is being generated" : "Preview queue is full"));
+        }
+
+        String etag = "\"" + hash + "-preview\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                hash.equals(version) ? "private, max-age=31536000, immutable" : "private, no-cache");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        try {
+            long length = Files.size(file);
+            response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+            response.setContentLengthLong(length);
+            if (!"HEAD".equals(request.getMethod())) {
+                sendStoredFile(file, 0, length, request, response);
+            }
+            return null;
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Send part of a stored file as the response body: through Tomcat's
+     * sendfile when the connector supports it (the file goes from the page
+     * cache to the socket once the handler returns), otherwise with
+     * FileChannel.transferTo into the response channel
+     */
+    private void sendStoredFile(Path file, long start, long length, HttpServletRequest request,
+            HttpServletResponse response) {
+        if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, start);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, start + length);
+            return;
+        }
+        try {
+            receiptStorageService.transfer(file, start, length, Channels.newChannel(response.getOutputStream()));
+        } catch (IOException e) {
+            // Usually the client went away mid-download; the status line is already sent
+            log.debug("Sending {} ended early: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
     // ============= MANAGER ENDPOINTS =============
     /**
-     * Get all pending expenses awaiting manager approval
+     * Get all pending expenses awaiting manager approval, oldest first or,
+     * with sort=anomaly, most unusual amount first
      */
     @GetMapping("/pending-manager-approval")
-    public ResponseEntity<?> getPendingExpensesForManagerApproval() {
+    public ResponseEntity<?> getPendingExpensesForManagerApproval(
+            @RequestParam(value = "sort", required = false) String sort, WebRequest webRequest) {
+        boolean byAnomaly = "anomaly".equals(sort);
         try {
-            List<ExpenseRequestResponseDto> expenses = expenseService.getPendingExpensesForManagerApproval();
-            return ResponseEntity.ok(expenses);
+            expenseService.checkListRole(UserRole.MANAGER);
+            String etag = expenseVersionService.etagForStatusList(
+                    byAnomaly ? "pending-manager-approval-by-anomaly" : "pending-manager-approval",
+                    expenseWorkflow.actionableStatuses(UserRole.MANAGER).toArray(new ExpenseStatus[0]));
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            List<ExpenseRequestResponseDto> expenses = byAnomaly
+                    ? expenseService.getPendingExpensesForManagerApprovalByAnomaly()
+                    : expenseService.getPendingExpensesForManagerApproval();
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -181,13 +548,19 @@ public class ExpenseController {
 
     /**
      * Get all expenses approved by manager (for approved tab) Includes expenses
-     * with PENDING_FINANCE and PAID statuses
+     * with APPROVED_MANAGER, PENDING_FINANCE and PAID statuses
      */
     @GetMapping("/approved-by-manager")
-    public ResponseEntity<?> getExpensesApprovedByManager() {
+    public ResponseEntity<?> getExpensesApprovedByManager(WebRequest webRequest) {
         try {
+            expenseService.checkListRole(UserRole.MANAGER);
+            String etag = expenseVersionService.etagForStatusList("approved-by-manager",
+                    ExpenseStatus.APPROVED_MANAGER, ExpenseStatus.PENDING_FINANCE, ExpenseStatus.PAID);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<ExpenseRequestResponseDto> expenses = expenseService.getExpensesApprovedByManager();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -204,10 +577,17 @@ public class ExpenseController {
      * approved, rejected, and paid expenses
      */
     @GetMapping("/manager-history")
-    public ResponseEntity<?> getExpensesProcessedByManager() {
+    public ResponseEntity<?> getExpensesProcessedByManager(WebRequest webRequest) {
         try {
+            expenseService.checkListRole(UserRole.MANAGER);
+            String etag = expenseVersionService.etagForStatusList("manager-history",
+                    ExpenseStatus.APPROVED_MANAGER, ExpenseStatus.PENDING_FINANCE,
+                    ExpenseStatus.REJECTED_MANAGER, ExpenseStatus.REJECTED_FINANCE, ExpenseStatus.PAID);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<ExpenseRequestResponseDto> expenses = expenseService.getExpensesProcessedByManager();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -227,17 +607,24 @@ public class ExpenseController {
     public ResponseEntity<?> approveExpense(@PathVariable Long id,
             @Valid @RequestBody ManagerActionRequestDto actionRequest) {
         try {
-            ExpenseRequestResponseDto responseDto = expenseService.approveExpense(id, actionRequest);
+            ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(actionRequest.getVersion());
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.retry("manager_approve",
+                    () -> expenseService.approveExpense(id, actionRequest, viewed));
             return ResponseEntity.ok(responseDto);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
             } else if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse(e.getMessage()));
-            } else if (e.getMessage().contains("Only expenses with PENDING_MANAGER status")) {
+            } else if (e.getMessage().contains("Only expenses with")) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense was changed after you viewed it")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
             } else {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Error approving expense: " + e.getMessage()));
@@ -253,17 +640,24 @@ public class ExpenseController {
     public ResponseEntity<?> rejectExpense(@PathVariable Long id,
             @Valid @RequestBody ManagerActionRequestDto actionRequest) {
         try {
-            ExpenseRequestResponseDto responseDto = expenseService.rejectExpense(id, actionRequest);
+            ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(actionRequest.getVersion());
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.retry("manager_reject",
+                    () -> expenseService.rejectExpense(id, actionRequest, viewed));
             return ResponseEntity.ok(responseDto);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
             } else if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse(e.getMessage()));
-            } else if (e.getMessage().contains("Only expenses with PENDING_MANAGER status")) {
+            } else if (e.getMessage().contains("Only expenses with")) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense was changed after you viewed it")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
             } else {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Error rejecting expense: " + e.getMessage()));
@@ -276,10 +670,16 @@ public class ExpenseController {
      * Get all pending expenses awaiting finance approval
      */
     @GetMapping("/pending-finance-approval")
-    public ResponseEntity<?> getPendingExpensesForFinanceApproval() {
+    public ResponseEntity<?> getPendingExpensesForFinanceApproval(WebRequest webRequest) {
         try {
+            expenseService.checkListRole(UserRole.FINANCE);
+            String etag = expenseVersionService.etagForStatusList("pending-finance-approval",
+                    ExpenseStatus.PENDING_FINANCE);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<ExpenseRequestResponseDto> expenses = expenseService.getPendingExpensesForFinanceApproval();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -296,10 +696,16 @@ public class ExpenseController {
      * with PAID status
      */
     @GetMapping("/approved-by-finance")
-    public ResponseEntity<?> getExpensesApprovedByFinance() {
+    public ResponseEntity<?> getExpensesApprovedByFinance(WebRequest webRequest) {
         try {
+            expenseService.checkListRole(UserRole.FINANCE);
+            String etag = expenseVersionService.etagForStatusList("approved-by-finance",
+                    ExpenseStatus.PAID);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<ExpenseRequestResponseDto> expenses = expenseService.getExpensesApprovedByFinance();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -316,10 +722,16 @@ public class ExpenseController {
      * and rejected expenses
      */
     @GetMapping("/finance-history")
-    public ResponseEntity<?> getExpensesProcessedByFinance() {
+    public ResponseEntity<?> getExpensesProcessedByFinance(WebRequest webRequest) {
         try {
+            expenseService.checkListRole(UserRole.FINANCE);
+            String etag = expenseVersionService.etagForStatusList("finance-history",
+                    ExpenseStatus.PAID, ExpenseStatus.REJECTED_FINANCE);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<ExpenseRequestResponseDto> expenses = expenseService.getExpensesProcessedByFinance();
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).body(expenses);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -331,6 +743,53 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * Claim up to limit more PENDING_FINANCE expenses (highest priority
+     * first) for the current clerk and renew the ones already held
+     */
+    @PostMapping("/finance-claims")
+    public ResponseEntity<?> claimFinanceExpenses(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(expenseService.claimFinanceExpenses(limit));
+        } catch (RuntimeException e) {
+            return claimError("Error claiming expenses: ", e);
+        }
+    }
+
+    /**
+     * Extend the current clerk's claims before their lease lapses
+     */
+    @PostMapping("/finance-claims/renew")
+    public ResponseEntity<?> renewFinanceClaims() {
+        try {
+            return ResponseEntity.ok(expenseService.renewFinanceClaims());
+        } catch (RuntimeException e) {
+            return claimError("Error renewing claims: ", e);
+        }
+    }
+
+    /**
+     * Release the given claims, or all of the current clerk's claims
+     */
+    @DeleteMapping("/finance-claims")
+    public ResponseEntity<?> releaseFinanceClaims(@RequestParam(value = "ids", required = false) List<Long> ids) {
+        try {
+            expenseService.releaseFinanceClaims(ids);
+            return ResponseEntity.ok(new MessageResponse("Claims released"));
+        } catch (RuntimeException e) {
+            return claimError("Error releasing claims: ", e);
+        }
+    }
+
+    private ResponseEntity<MessageResponse> claimError(String prefix, RuntimeException e) {
+        if (e.getMessage() != null && e.getMessage().contains("Access denied")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+        return ResponseEntity.badRequest()
+                .body(new MessageResponse(prefix + e.getMessage()));
+    }
+
     /**
      * Approve a pending expense with payout details (Finance action) Changes
      * status from PENDING_FINANCE to PAID
@@ -339,17 +798,27 @@ public class ExpenseController {
     public ResponseEntity<?> approveExpenseByFinance(@PathVariable Long id,
             @Valid @RequestBody FinanceActionRequestDto actionRequest) {
         try {
-            ExpenseRequestResponseDto responseDto = expenseService.approveExpenseByFinance(id, actionRequest);
+            ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(actionRequest.getVersion());
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.retry("finance_approve",
+                    () -> expenseService.approveExpenseByFinance(id, actionRequest, viewed));
             return ResponseEntity.ok(responseDto);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
             } else if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse(e.getMessage()));
-            } else if (e.getMessage().contains("Only expenses with PENDING_FINANCE status")) {
+            } else if (e.getMessage().contains("Only expenses with")) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense was changed after you viewed it")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense is claimed by another finance clerk")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
             } else {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Error approving expense: " + e.getMessage()));
@@ -365,21 +834,39 @@ public class ExpenseController {
     public ResponseEntity<?> rejectExpenseByFinance(@PathVariable Long id,
             @Valid @RequestBody FinanceRejectionRequestDto rejectionRequest) {
         try {
-            ExpenseRequestResponseDto responseDto = expenseService.rejectExpenseByFinance(id, rejectionRequest);
+            ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(rejectionRequest.getVersion());
+            ExpenseRequestResponseDto responseDto = optimisticRetryService.retry("finance_reject",
+                    () -> expenseService.rejectExpenseByFinance(id, rejectionRequest, viewed));
             return ResponseEntity.ok(responseDto);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Expense not found")) {
                 return ResponseEntity.notFound().build();
             } else if (e.getMessage().contains("Access denied")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse(e.getMessage()));
-            } else if (e.getMessage().contains("Only expenses with PENDING_FINANCE status")) {
+            } else if (e.getMessage().contains("Only expenses with")) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense was changed after you viewed it")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().equals("Expense is claimed by another finance clerk")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(e.getMessage()));
             } else {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Error rejecting expense: " + e.getMessage()));
             }
         }
     }
+
+    /**
+     * 409 for a write that lost to a concurrent change of the same expense
+     */
+    private ResponseEntity<MessageResponse> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("The expense was changed by someone else; reload it and try again"));
+    }
 }
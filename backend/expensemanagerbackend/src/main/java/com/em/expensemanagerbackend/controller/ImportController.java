@@ -0,0 +1,58 @@
+package com.em.expensemanagerbackend.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.em.expensemanagerbackend.dto.ImportReportDto;
+import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.service.ExpenseImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin/import")
+public class ImportController {
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    /**
+     * Import historical expenses from a CSV request body (Finance only). The
+     * body is streamed, not buffered, so large files are fine; rejected rows
+     * are listed in the report.
+     */
+    @PostMapping(value = "/expenses", consumes = "text/csv")
+    public ResponseEntity<?> importExpenses(HttpServletRequest request) {
+        try (BufferedReader csv = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            ImportReportDto report = expenseImportService.importExpensesAsCurrentUser(csv);
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error reading CSV: " + e.getMessage()));
+        } catch (UncheckedIOException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error reading CSV: " + e.getCause().getMessage()));
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error importing expenses: " + e.getMessage()));
+            }
+        }
+    }
+}
@@ -1,36 +1,82 @@
 package com.em.expensemanagerbackend.controller;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.dto.NotificationResponseDto;
+import com.em.expensemanagerbackend.service.NotificationService;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    @Autowired
+    private NotificationService notificationService;
+
     /**
-     * Simple ping endpoint - returns empty notification list since we don't
-     * store notifications
+     * Get the latest notifications for the current user
      */
     @GetMapping
-    public ResponseEntity<List<String>> getAllNotifications() {
-        // Return empty list - no stored notifications, just real-time pings
-        return ResponseEntity.ok(new ArrayList<>());
+    public ResponseEntity<?> getAllNotifications() {
+        try {
+            List<NotificationResponseDto> notifications = notificationService.getCurrentUserNotifications();
+            return ResponseEntity.ok(notifications);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving notifications: " + e.getMessage()));
+        }
     }
 
     /**
-     * Get unread notifications count - always returns 0 since we don't store
-     * notifications
+     * Get unread notifications count for the current user (served from the
+     * unread counters, not a COUNT(*) over notifications)
      */
     @GetMapping("/unread/count")
-    public ResponseEntity<Integer> getUnreadNotificationCount() {
-        return ResponseEntity.ok(0);
+    public ResponseEntity<?> getUnreadNotificationCount() {
+        try {
+            return ResponseEntity.ok(notificationService.getCurrentUserUnreadCount());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving unread count: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mark a notification as read
+     */
+    @PutMapping("/{id}/read")
+    public ResponseEntity<?> markAsRead(@PathVariable Long id) {
+        try {
+            notificationService.markAsRead(id);
+            return ResponseEntity.ok(new MessageResponse("Notification marked as read"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error marking notification as read: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mark all notifications of the current user as read
+     */
+    @PutMapping("/read-all")
+    public ResponseEntity<?> markAllAsRead() {
+        try {
+            int updated = notificationService.markAllAsRead();
+            return ResponseEntity.ok(new MessageResponse(updated + " notification(s) marked as read"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error marking notifications as read: " + e.getMessage()));
+        }
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.em.expensemanagerbackend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.em.expensemanagerbackend.dto.MessageResponse;
+import com.em.expensemanagerbackend.dto.SetManagerRequestDto;
+import com.em.expensemanagerbackend.service.UserHierarchyService;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    @Autowired
+    private UserHierarchyService userHierarchyService;
+
+    /**
+     * Set a user's manager (Finance only); their whole team moves with them
+     */
+    @PutMapping("/{id}/manager")
+    public ResponseEntity<?> setManager(@PathVariable Long id, @RequestBody SetManagerRequestDto request) {
+        try {
+            userHierarchyService.setManagerAsCurrentUser(id, request.getManagerId());
+            return ResponseEntity.ok(new MessageResponse("Manager updated"));
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new MessageResponse(e.getMessage()));
+            } else if (e.getMessage().contains("not found")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new MessageResponse(e.getMessage()));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error updating manager: " + e.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.util.List;
+
+public class BatchExpenseResponseDto {
+
+    private int createdCount;
+    private int failedCount;
+    private List<BatchExpenseResultDto> results;
+
+    // Constructors
+    public BatchExpenseResponseDto() {
+    }
+
+    public BatchExpenseResponseDto(List<BatchExpenseResultDto> results) {
+        this.results = results;
+        this.createdCount = (int) results.stream().filter(BatchExpenseResultDto::isCreated).count();
+        this.failedCount = results.size() - createdCount;
+    }
+
+    // Getters and Setters
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(int createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public List<BatchExpenseResultDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchExpenseResultDto> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,64 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.util.Map;
+
+public class BatchExpenseResultDto {
+
+    private int index;
+    private boolean created;
+    private ExpenseRequestResponseDto expense;
+    private Map<String, String> errors;
+
+    // Constructors
+    public BatchExpenseResultDto() {
+    }
+
+    public BatchExpenseResultDto(int index, boolean created, ExpenseRequestResponseDto expense,
+            Map<String, String> errors) {
+        this.index = index;
+        this.created = created;
+        this.expense = expense;
+        this.errors = errors;
+    }
+
+    public static BatchExpenseResultDto created(int index, ExpenseRequestResponseDto expense) {
+        return new BatchExpenseResultDto(index, true, expense, null);
+    }
+
+    public static BatchExpenseResultDto failed(int index, Map<String, String> errors) {
+        return new BatchExpenseResultDto(index, false, null, errors);
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    public ExpenseRequestResponseDto getExpense() {
+        return expense;
+    }
+
+    public void setExpense(ExpenseRequestResponseDto expense) {
+        this.expense = expense;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
@@ -22,6 +22,9 @@ public class CreateExpenseRequestDto {
 
     private String receiptUrl;
 
+    // On update: the version the client last read; a newer stored version is a conflict
+    private Long version;
+
     // Constructors
     public CreateExpenseRequestDto() {
     }
@@ -65,4 +68,12 @@ public class CreateExpenseRequestDto {
     public void setReceiptUrl(String receiptUrl) {
         this.receiptUrl = receiptUrl;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,54 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+
+/**
+ * Everything a role's dashboard renders on load. Sections are keyed by the
+ * name of the endpoint they replace (e.g. "pending-manager-approval");
+ * sections that failed or missed the deadline are listed in unavailable so
+ * the UI can fetch them separately.
+ */
+public class DashboardResponseDto {
+
+    private UserRole role;
+    private Map<String, Object> sections = new LinkedHashMap<>();
+    private List<String> unavailable = new ArrayList<>();
+
+    // Constructors
+    public DashboardResponseDto() {
+    }
+
+    public DashboardResponseDto(UserRole role) {
+        this.role = role;
+    }
+
+    // Getters and Setters
+    public UserRole getRole() {
+        return role;
+    }
+
+    public void setRole(UserRole role) {
+        this.role = role;
+    }
+
+    public Map<String, Object> getSections() {
+        return sections;
+    }
+
+    public void setSections(Map<String, Object> sections) {
+        this.sections = sections;
+    }
+
+    public List<String> getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(List<String> unavailable) {
+        this.unavailable = unavailable;
+    }
+}
@@ -0,0 +1,61 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.util.List;
+
+/**
+ * One page of the expense change feed. Clients apply the changed expenses and
+ * deleted ids to their local copy and pass cursor (an opaque position) back
+ * as "since"; when hasMore is true the next page is available immediately.
+ */
+public class ExpenseChangesResponseDto {
+
+    private String cursor;
+    private boolean hasMore;
+    private List<ExpenseRequestResponseDto> changed;
+    private List<Long> deleted;
+
+    // Constructors
+    public ExpenseChangesResponseDto() {
+    }
+
+    public ExpenseChangesResponseDto(String cursor, boolean hasMore, List<ExpenseRequestResponseDto> changed,
+            List<Long> deleted) {
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+        this.changed = changed;
+        this.deleted = deleted;
+    }
+
+    // Getters and Setters
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public List<ExpenseRequestResponseDto> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<ExpenseRequestResponseDto> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+}
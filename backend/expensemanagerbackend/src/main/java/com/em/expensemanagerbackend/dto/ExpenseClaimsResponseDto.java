@@ -0,0 +1,41 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The expenses a finance clerk currently holds, highest priority first.
+ * leaseExpiresAt is when the earliest lease lapses (null with no claims);
+ * renew before then to keep them.
+ */
+public class ExpenseClaimsResponseDto {
+
+    private List<ExpenseRequestResponseDto> expenses;
+    private LocalDateTime leaseExpiresAt;
+
+    // Constructors
+    public ExpenseClaimsResponseDto() {
+    }
+
+    public ExpenseClaimsResponseDto(List<ExpenseRequestResponseDto> expenses, LocalDateTime leaseExpiresAt) {
+        this.expenses = expenses;
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    // Getters and Setters
+    public List<ExpenseRequestResponseDto> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<ExpenseRequestResponseDto> expenses) {
+        this.expenses = expenses;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+}
@@ -17,6 +17,13 @@ public class ExpenseRequestResponseDto {
     private LocalDateTime updatedAt;
     private String employeeName;
     private String employeeEmail;
+    private Long changeSeq;
+    private Long version;
+    private String receiptHash;
+    private String receiptPreviewUrl;
+    private Long possibleDuplicateOfId;
+    private BigDecimal anomalyScore;
+    private Integer amountPercentile;
 
     // Constructors
     public ExpenseRequestResponseDto() {
@@ -117,4 +124,60 @@ public class ExpenseRequestResponseDto {
     public void setEmployeeEmail(String employeeEmail) {
         this.employeeEmail = employeeEmail;
     }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getReceiptHash() {
+        return receiptHash;
+    }
+
+    public void setReceiptHash(String receiptHash) {
+        this.receiptHash = receiptHash;
+    }
+
+    public String getReceiptPreviewUrl() {
+        return receiptPreviewUrl;
+    }
+
+    public void setReceiptPreviewUrl(String receiptPreviewUrl) {
+        this.receiptPreviewUrl = receiptPreviewUrl;
+    }
+
+    public Long getPossibleDuplicateOfId() {
+        return possibleDuplicateOfId;
+    }
+
+    public void setPossibleDuplicateOfId(Long possibleDuplicateOfId) {
+        this.possibleDuplicateOfId = possibleDuplicateOfId;
+    }
+
+    public BigDecimal getAnomalyScore() {
+        return anomalyScore;
+    }
+
+    public void setAnomalyScore(BigDecimal anomalyScore) {
+        this.anomalyScore = anomalyScore;
+    }
+
+    public Integer getAmountPercentile() {
+        return amountPercentile;
+    }
+
+    public void setAmountPercentile(Integer amountPercentile) {
+        this.amountPercentile = amountPercentile;
+    }
 }
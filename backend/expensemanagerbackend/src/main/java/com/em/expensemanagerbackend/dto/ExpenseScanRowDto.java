@@ -0,0 +1,70 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of a closed-expense scan: a status name, employee id or yyyy-MM
+ * month depending on the grouping, or "all"
+ */
+public class ExpenseScanRowDto {
+
+    private String group;
+    private long expenseCount;
+    private BigDecimal totalAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private BigDecimal averageAmount;
+
+    // Constructors
+    public ExpenseScanRowDto() {
+    }
+
+    // Getters and Setters
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public BigDecimal getAverageAmount() {
+        return averageAmount;
+    }
+
+    public void setAverageAmount(BigDecimal averageAmount) {
+        this.averageAmount = averageAmount;
+    }
+}
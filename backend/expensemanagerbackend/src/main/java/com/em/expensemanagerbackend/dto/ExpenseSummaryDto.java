@@ -0,0 +1,79 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+public class ExpenseSummaryDto {
+
+    private Long employeeId;
+    private String employeeName;
+    private ExpenseStatus status;
+    private LocalDate month;
+    private BigDecimal totalAmount;
+    private long expenseCount;
+
+    // Constructors
+    public ExpenseSummaryDto() {
+    }
+
+    public ExpenseSummaryDto(Long employeeId, String employeeName, ExpenseStatus status, LocalDate month,
+            BigDecimal totalAmount, long expenseCount) {
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.status = status;
+        this.month = month;
+        this.totalAmount = totalAmount;
+        this.expenseCount = expenseCount;
+    }
+
+    // Getters and Setters
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    public ExpenseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExpenseStatus status) {
+        this.status = status;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDate month) {
+        this.month = month;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
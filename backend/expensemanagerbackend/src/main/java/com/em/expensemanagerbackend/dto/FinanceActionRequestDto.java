@@ -14,6 +14,9 @@ public class FinanceActionRequestDto {
 
     private LocalDate expectedPayoutDate;
 
+    // The version of the expense the actor viewed; a newer stored version is a conflict
+    private Long version;
+
     // Constructors
     public FinanceActionRequestDto() {
     }
@@ -48,4 +51,12 @@ public class FinanceActionRequestDto {
     public void setExpectedPayoutDate(LocalDate expectedPayoutDate) {
         this.expectedPayoutDate = expectedPayoutDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -9,6 +9,9 @@ public class FinanceRejectionRequestDto {
     @Size(max = 1000, message = "Comment cannot exceed 1000 characters")
     private String comment;
 
+    // The version of the expense the actor viewed; a newer stored version is a conflict
+    private Long version;
+
     // Constructors
     public FinanceRejectionRequestDto() {
     }
@@ -25,4 +28,12 @@ public class FinanceRejectionRequestDto {
     public void setComment(String comment) {
         this.comment = comment;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,33 @@
+package com.em.expensemanagerbackend.dto;
+
+public class ImportRejectDto {
+
+    private long line;
+    private String reason;
+
+    // Constructors
+    public ImportRejectDto() {
+    }
+
+    public ImportRejectDto(long line, String reason) {
+        this.line = line;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
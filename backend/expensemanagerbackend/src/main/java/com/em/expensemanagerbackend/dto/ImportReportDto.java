@@ -0,0 +1,67 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDto {
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private List<ImportRejectDto> rejects = new ArrayList<>();
+    private boolean rejectsTruncated;
+    private long durationMs;
+
+    // Constructors
+    public ImportReportDto() {
+    }
+
+    // Getters and Setters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public List<ImportRejectDto> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<ImportRejectDto> rejects) {
+        this.rejects = rejects;
+    }
+
+    public boolean isRejectsTruncated() {
+        return rejectsTruncated;
+    }
+
+    public void setRejectsTruncated(boolean rejectsTruncated) {
+        this.rejectsTruncated = rejectsTruncated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -7,6 +7,9 @@ public class ManagerActionRequestDto {
     @Size(max = 1000, message = "Comment cannot exceed 1000 characters")
     private String comment;
 
+    // The version of the expense the actor viewed; a newer stored version is a conflict
+    private Long version;
+
     // Constructors
     public ManagerActionRequestDto() {
     }
@@ -23,4 +26,12 @@ public class ManagerActionRequestDto {
     public void setComment(String comment) {
         this.comment = comment;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
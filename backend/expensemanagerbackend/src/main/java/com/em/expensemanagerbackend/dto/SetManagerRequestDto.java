@@ -0,0 +1,24 @@
+package com.em.expensemanagerbackend.dto;
+
+public class SetManagerRequestDto {
+
+    // Null detaches the user from their manager
+    private Long managerId;
+
+    // Constructors
+    public SetManagerRequestDto() {
+    }
+
+    public SetManagerRequestDto(Long managerId) {
+        this.managerId = managerId;
+    }
+
+    // Getters and Setters
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+    }
+}
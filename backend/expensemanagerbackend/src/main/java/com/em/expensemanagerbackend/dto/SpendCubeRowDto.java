@@ -0,0 +1,71 @@
+package com.em.expensemanagerbackend.dto;
+
+import java.math.BigDecimal;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+/**
+ * One row of a spend cube query; dimensions that were not grouped by are null
+ */
+public class SpendCubeRowDto {
+
+    private Long employeeId;
+    private String month;
+    private ExpenseStatus status;
+    private String amountBucket;
+    private BigDecimal totalAmount;
+    private long expenseCount;
+
+    // Constructors
+    public SpendCubeRowDto() {
+    }
+
+    // Getters and Setters
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public ExpenseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExpenseStatus status) {
+        this.status = status;
+    }
+
+    public String getAmountBucket() {
+        return amountBucket;
+    }
+
+    public void setAmountBucket(String amountBucket) {
+        this.amountBucket = amountBucket;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
@@ -0,0 +1,7 @@
+package com.em.expensemanagerbackend.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.em.expensemanagerbackend.enums;
+
+public enum WorkflowAction {
+    APPROVE,
+    REJECT
+}
@@ -0,0 +1,88 @@
+package com.em.expensemanagerbackend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+/**
+ * Published by ExpenseService whenever an expense request is created,
+ * edited, transitioned or deleted. previousStatus is null for a new expense
+ * and newStatus is null for a deleted one; the amounts follow the same rule.
+ * changeSeq is the expense's change_seq after the change, so that in-memory
+ * indexes rebuilt from a scan can tell whether the scan already saw it; it is
+ * null for deletions (and when unknown), meaning newer than any scanned row.
+ */
+public class ExpenseChangedEvent {
+
+    private final Long expenseId;
+    private final Long employeeId;
+    private final ExpenseStatus previousStatus;
+    private final ExpenseStatus newStatus;
+    private final BigDecimal previousAmount;
+    private final BigDecimal newAmount;
+    private final LocalDateTime createdAt;
+    private final Long changeSeq;
+
+    public ExpenseChangedEvent(Long expenseId, Long employeeId, ExpenseStatus previousStatus, ExpenseStatus newStatus,
+            BigDecimal previousAmount, BigDecimal newAmount, LocalDateTime createdAt) {
+        this(expenseId, employeeId, previousStatus, newStatus, previousAmount, newAmount, createdAt, null);
+    }
+
+    public ExpenseChangedEvent(Long expenseId, Long employeeId, ExpenseStatus previousStatus, ExpenseStatus newStatus,
+            BigDecimal previousAmount, BigDecimal newAmount, LocalDateTime createdAt, Long changeSeq) {
+        this.expenseId = expenseId;
+        this.employeeId = employeeId;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.previousAmount = previousAmount;
+        this.newAmount = newAmount;
+        this.createdAt = createdAt;
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public ExpenseStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public ExpenseStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public BigDecimal getPreviousAmount() {
+        return previousAmount;
+    }
+
+    public BigDecimal getNewAmount() {
+        return newAmount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseChangedEvent{"
+                + "expenseId=" + expenseId
+                + ", employeeId=" + employeeId
+                + ", previousStatus=" + previousStatus
+                + ", newStatus=" + newStatus
+                + ", previousAmount=" + previousAmount
+                + ", newAmount=" + newAmount
+                + ", changeSeq=" + changeSeq
+                + '}';
+    }
+}
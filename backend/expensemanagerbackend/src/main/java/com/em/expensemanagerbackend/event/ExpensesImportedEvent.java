@@ -0,0 +1,19 @@
+package com.em.expensemanagerbackend.event;
+
+/**
+ * Published by ExpenseImportService after a bulk import inserted expenses
+ * directly, without an ExpenseChangedEvent per row. Listeners keeping derived
+ * state should rebuild or invalidate it.
+ */
+public class ExpensesImportedEvent {
+
+    private final long rowsImported;
+
+    public ExpensesImportedEvent(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+}
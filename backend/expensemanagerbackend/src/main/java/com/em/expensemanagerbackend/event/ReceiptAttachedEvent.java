@@ -0,0 +1,30 @@
+package com.em.expensemanagerbackend.event;
+
+/**
+ * Published by ExpenseService when an uploaded receipt is linked to an
+ * expense. Receipt previews are generated from it after commit.
+ */
+public class ReceiptAttachedEvent {
+
+    private final Long expenseId;
+    private final String contentHash;
+    private final String contentType;
+
+    public ReceiptAttachedEvent(Long expenseId, String contentHash, String contentType) {
+        this.expenseId = expenseId;
+        this.contentHash = contentHash;
+        this.contentType = contentType;
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
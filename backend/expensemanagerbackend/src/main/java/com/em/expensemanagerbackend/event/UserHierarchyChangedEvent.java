@@ -0,0 +1,25 @@
+package com.em.expensemanagerbackend.event;
+
+/**
+ * Published by UserHierarchyService when a user (with everyone below) moves
+ * to another manager. Manager queues change membership without any expense
+ * changing, so their ETags are reset after commit.
+ */
+public class UserHierarchyChangedEvent {
+
+    private final Long userId;
+    private final Long managerId;
+
+    public UserHierarchyChangedEvent(Long userId, Long managerId) {
+        this.userId = userId;
+        this.managerId = managerId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getManagerId() {
+        return managerId;
+    }
+}
@@ -0,0 +1,167 @@
+package com.em.expensemanagerbackend.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * One cell of the spend summary read model: total amount and number of
+ * expenses of an employee in a status for the month they were submitted.
+ * Rows are written only through EmployeeExpenseSummaryRepository.addDelta.
+ */
+@Entity
+@Table(name = "employee_expense_summary")
+@IdClass(EmployeeExpenseSummary.Key.class)
+public class EmployeeExpenseSummary {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ExpenseStatus status;
+
+    @Id
+    private LocalDate month;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private long expenseCount;
+
+    private LocalDateTime updatedAt;
+
+    // --- Constructors ---
+    public EmployeeExpenseSummary() {
+    }
+
+    // --- Getters and Setters ---
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public ExpenseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExpenseStatus status) {
+        this.status = status;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDate month) {
+        this.month = month;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // --- equals, hashCode, toString ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EmployeeExpenseSummary that = (EmployeeExpenseSummary) o;
+        return Objects.equals(employeeId, that.employeeId) && status == that.status
+                && Objects.equals(month, that.month);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(employeeId, status, month);
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeExpenseSummary{"
+                + "employeeId=" + employeeId
+                + ", status=" + status
+                + ", month=" + month
+                + ", totalAmount=" + totalAmount
+                + ", expenseCount=" + expenseCount
+                + '}';
+    }
+
+    /**
+     * Composite primary key
+     */
+    public static class Key implements Serializable {
+
+        private Long employeeId;
+        private ExpenseStatus status;
+        private LocalDate month;
+
+        public Key() {
+        }
+
+        public Key(Long employeeId, ExpenseStatus status, LocalDate month) {
+            this.employeeId = employeeId;
+            this.status = status;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(employeeId, that.employeeId) && status == that.status
+                    && Objects.equals(month, that.month);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(employeeId, status, month);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.generator.EventType;
 
 import com.em.expensemanagerbackend.enums.ExpenseStatus;
 
@@ -23,6 +25,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "expense_requests")
@@ -54,6 +57,35 @@ public class ExpenseRequest {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Position in the change feed, bumped by a database trigger on every update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
+    // Checked and incremented on every update; a stale write fails instead of overwriting
+    @Version
+    private Long version;
+
+    // SHA-256 of the uploaded receipt in receipt_blobs, null when none was uploaded
+    @Column(name = "receipt_hash", length = 64)
+    private String receiptHash;
+
+    // Hash of (employee, amount, normalized title, week); see DuplicateExpenseDetector
+    @Column(name = "dup_fingerprint", length = 64)
+    private String dupFingerprint;
+
+    // An earlier expense this one probably duplicates, null when none was found
+    @Column(name = "possible_duplicate_of")
+    private Long possibleDuplicateOfId;
+
+    // Standard deviations above the employee's usual (log) amount when submitted; see AmountAnomalyService
+    @Column(name = "anomaly_score", precision = 6, scale = 2)
+    private BigDecimal anomalyScore;
+
+    // Rank (0-100) of the amount among the employee's recent submissions
+    @Column(name = "amount_percentile")
+    private Integer amountPercentile;
+
     // --- Relationships ---
     // The employee who submitted this request
     @ManyToOne(fetch = FetchType.LAZY)
@@ -145,6 +177,62 @@ public class ExpenseRequest {
         this.updatedAt = updatedAt;
     }
 
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getReceiptHash() {
+        return receiptHash;
+    }
+
+    public void setReceiptHash(String receiptHash) {
+        this.receiptHash = receiptHash;
+    }
+
+    public String getDupFingerprint() {
+        return dupFingerprint;
+    }
+
+    public void setDupFingerprint(String dupFingerprint) {
+        this.dupFingerprint = dupFingerprint;
+    }
+
+    public Long getPossibleDuplicateOfId() {
+        return possibleDuplicateOfId;
+    }
+
+    public void setPossibleDuplicateOfId(Long possibleDuplicateOfId) {
+        this.possibleDuplicateOfId = possibleDuplicateOfId;
+    }
+
+    public BigDecimal getAnomalyScore() {
+        return anomalyScore;
+    }
+
+    public void setAnomalyScore(BigDecimal anomalyScore) {
+        this.anomalyScore = anomalyScore;
+    }
+
+    public Integer getAmountPercentile() {
+        return amountPercentile;
+    }
+
+    public void setAmountPercentile(Integer amountPercentile) {
+        this.amountPercentile = amountPercentile;
+    }
+
     public User getEmployee() {
         return employee;
     }
@@ -0,0 +1,100 @@
+package com.em.expensemanagerbackend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Marker left behind when an expense request is deleted, so change-feed
+ * clients can drop it from their local copy. change_seq and deleted_at are
+ * assigned by the database.
+ */
+@Entity
+@Table(name = "expense_tombstones")
+public class ExpenseTombstone {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    // --- Constructors ---
+    public ExpenseTombstone() {
+    }
+
+    public ExpenseTombstone(Long expenseId, Long employeeId) {
+        this.expenseId = expenseId;
+        this.employeeId = employeeId;
+    }
+
+    // --- Getters and Setters ---
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public void setExpenseId(Long expenseId) {
+        this.expenseId = expenseId;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    // --- equals, hashCode, toString ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ExpenseTombstone that = (ExpenseTombstone) o;
+        return expenseId != null ? expenseId.equals(that.expenseId) : that.expenseId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return expenseId != null ? expenseId.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseTombstone{"
+                + "expenseId=" + expenseId
+                + ", employeeId=" + employeeId
+                + ", changeSeq=" + changeSeq
+                + '}';
+    }
+}
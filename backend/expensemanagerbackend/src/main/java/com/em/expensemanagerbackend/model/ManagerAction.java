@@ -42,9 +42,9 @@ public class ManagerAction {
     @JoinColumn(name = "expense_id", nullable = false)
     private ExpenseRequest expenseRequest;
 
-    // The manager who took this action
+    // The manager who took this action; null when an auto-approval rule did
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "manager_id", nullable = false)
+    @JoinColumn(name = "manager_id")
     private User manager;
 
     // --- Constructors ---
@@ -0,0 +1,101 @@
+package com.em.expensemanagerbackend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A stored receipt file, identified by the SHA-256 of its content. The bytes
+ * live on disk (see ReceiptStorageService); this row holds what is needed to
+ * serve them. created_at is assigned by the database.
+ */
+@Entity
+@Table(name = "receipt_blobs")
+public class ReceiptBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // --- Constructors ---
+    public ReceiptBlob() {
+    }
+
+    public ReceiptBlob(String contentHash, long sizeBytes, String contentType) {
+        this.contentHash = contentHash;
+        this.sizeBytes = sizeBytes;
+        this.contentType = contentType;
+    }
+
+    // --- Getters and Setters ---
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // --- equals, hashCode, toString ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ReceiptBlob that = (ReceiptBlob) o;
+        return contentHash != null ? contentHash.equals(that.contentHash) : that.contentHash == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return contentHash != null ? contentHash.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiptBlob{"
+                + "contentHash='" + contentHash + '\''
+                + ", sizeBytes=" + sizeBytes
+                + ", contentType='" + contentType + '\''
+                + '}';
+    }
+}
@@ -17,6 +17,8 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
@@ -46,6 +48,11 @@ public class User {
     private LocalDateTime createdAt;
 
     // --- Relationships ---
+    // Direct manager; the whole reporting chain is in user_hierarchy (see UserHierarchyService)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "manager_id")
+    private User manager;
+
     // A User (Employee) can have many requests
     @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ExpenseRequest> expenseRequests = new ArrayList<>();
@@ -118,6 +125,14 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public User getManager() {
+        return manager;
+    }
+
+    public void setManager(User manager) {
+        this.manager = manager;
+    }
+
     public List<ExpenseRequest> getExpenseRequests() {
         return expenseRequests;
     }
@@ -0,0 +1,49 @@
+package com.em.expensemanagerbackend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.em.expensemanagerbackend.dto.ExpenseSummaryDto;
+import com.em.expensemanagerbackend.model.EmployeeExpenseSummary;
+
+@Repository
+public interface EmployeeExpenseSummaryRepository extends JpaRepository<EmployeeExpenseSummary, EmployeeExpenseSummary.Key> {
+
+    // Apply a signed delta to one summary cell, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO employee_expense_summary (employee_id, status, month, total_amount, expense_count, updated_at) "
+            + "VALUES (:employeeId, :status, :month, :amount, :count, now()) "
+            + "ON CONFLICT (employee_id, status, month) DO UPDATE SET "
+            + "total_amount = employee_expense_summary.total_amount + EXCLUDED.total_amount, "
+            + "expense_count = employee_expense_summary.expense_count + EXCLUDED.expense_count, "
+            + "updated_at = now()", nativeQuery = true)
+    int addDelta(@Param("employeeId") Long employeeId, @Param("status") String status, @Param("month") LocalDate month,
+            @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    // One employee's non-empty summary cells in a month range, newest month first
+    @Query("SELECT new com.em.expensemanagerbackend.dto.ExpenseSummaryDto(s.employeeId, u.fullName, s.status, s.month, s.totalAmount, s.expenseCount) "
+            + "FROM EmployeeExpenseSummary s, User u WHERE u.id = s.employeeId AND s.employeeId = :employeeId "
+            + "AND s.month >= :from AND s.month <= :to AND s.expenseCount > 0 ORDER BY s.month DESC, s.status")
+    List<ExpenseSummaryDto> findForEmployee(@Param("employeeId") Long employeeId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // (employeeId, fullName, status, month, totalAmount, expenseCount) of the non-empty cells in a month range of
+    // everyone below a manager, plus employees without a manager (other than the manager) when includeUnassigned
+    @Query(value = "SELECT s.employee_id, u.full_name, s.status, s.month, s.total_amount, s.expense_count "
+            + "FROM employee_expense_summary s JOIN users u ON u.id = s.employee_id "
+            + "WHERE s.month >= :from AND s.month <= :to AND s.expense_count > 0 "
+            + "AND (EXISTS (SELECT 1 FROM user_hierarchy h WHERE h.ancestor_id = :managerId "
+            + "AND h.descendant_id = s.employee_id AND h.depth > 0) "
+            + "OR (:includeUnassigned AND u.manager_id IS NULL AND u.id <> :managerId)) "
+            + "ORDER BY u.full_name, s.month DESC, s.status", nativeQuery = true)
+    List<Object[]> findForManagerTeam(@Param("managerId") Long managerId,
+            @Param("includeUnassigned") boolean includeUnassigned, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
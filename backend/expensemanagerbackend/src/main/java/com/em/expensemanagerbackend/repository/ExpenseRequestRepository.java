@@ -1,15 +1,19 @@
 package com.em.expensemanagerbackend.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.em.expensemanagerbackend.enums.ExpenseStatus;
 import com.em.expensemanagerbackend.model.ExpenseRequest;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ExpenseRequestRepository extends JpaRepository<ExpenseRequest, Long> {
 
@@ -30,24 +34,43 @@ public interface ExpenseRequestRepository extends JpaRepository<ExpenseRequest,
     @Query("SELECT COUNT(e) FROM ExpenseRequest e WHERE e.employee.id = :employeeId AND e.status = :status")
     Long countByEmployeeIdAndStatus(@Param("employeeId") Long employeeId, @Param("status") ExpenseStatus status);
 
+    // Expense count per status for an employee, one row per status present
+    @Query("SELECT e.status, COUNT(e) FROM ExpenseRequest e WHERE e.employee.id = :employeeId GROUP BY e.status")
+    List<Object[]> countByStatusForEmployee(@Param("employeeId") Long employeeId);
+
+    // Expense count per status across all employees, one row per status present
+    @Query("SELECT e.status, COUNT(e) FROM ExpenseRequest e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    // Expense count per status of everyone below a manager, same predicate as findByStatusesInManagerTeam
+    @Query(value = "SELECT e.status, COUNT(*) FROM user_hierarchy h JOIN expense_requests e ON e.employee_id = h.descendant_id "
+            + "WHERE h.ancestor_id = :managerId AND h.depth > 0 GROUP BY e.status", nativeQuery = true)
+    List<Object[]> countByStatusInManagerTeam(@Param("managerId") Long managerId);
+
+    // Expense count per status of employees without a manager, other than the manager's own
+    @Query(value = "SELECT e.status, COUNT(*) FROM users u JOIN expense_requests e ON e.employee_id = u.id "
+            + "WHERE u.manager_id IS NULL AND u.id <> :managerId GROUP BY e.status", nativeQuery = true)
+    List<Object[]> countByStatusOfUnassignedEmployees(@Param("managerId") Long managerId);
+
     // Find all pending expenses that need manager approval
     List<ExpenseRequest> findByStatusOrderByCreatedAtAsc(ExpenseStatus status);
 
-    // Find pending expenses for manager review (all PENDING_MANAGER status)
-    @Query("SELECT e FROM ExpenseRequest e WHERE e.status = :status ORDER BY e.createdAt ASC")
-    List<ExpenseRequest> findPendingManagerApproval(@Param("status") ExpenseStatus status);
-
     // Find pending expenses for finance review (all PENDING_FINANCE status)
     @Query("SELECT e FROM ExpenseRequest e WHERE e.status = :status ORDER BY e.createdAt ASC")
     List<ExpenseRequest> findPendingFinanceApproval(@Param("status") ExpenseStatus status);
 
-    // Find expenses approved by manager (PENDING_FINANCE and PAID statuses)
-    @Query("SELECT e FROM ExpenseRequest e WHERE e.status IN (:statuses) ORDER BY e.updatedAt DESC")
-    List<ExpenseRequest> findExpensesApprovedByManager(@Param("statuses") List<ExpenseStatus> statuses);
+    // Expenses in the given statuses of everyone below a manager: a primary-key range on
+    // user_hierarchy joined to idx_expense_requests_employee_status
+    @Query(value = "SELECT e.* FROM user_hierarchy h JOIN expense_requests e ON e.employee_id = h.descendant_id "
+            + "WHERE h.ancestor_id = :managerId AND h.depth > 0 AND e.status IN (:statuses)", nativeQuery = true)
+    List<ExpenseRequest> findByStatusesInManagerTeam(@Param("managerId") Long managerId,
+            @Param("statuses") List<String> statuses);
 
-    // Find all expenses processed by manager (approved and rejected)
-    @Query("SELECT e FROM ExpenseRequest e WHERE e.status IN (:statuses) ORDER BY e.updatedAt DESC")
-    List<ExpenseRequest> findExpensesProcessedByManager(@Param("statuses") List<ExpenseStatus> statuses);
+    // Expenses in the given statuses of employees without a manager, other than the manager's own
+    @Query(value = "SELECT e.* FROM users u JOIN expense_requests e ON e.employee_id = u.id "
+            + "WHERE u.manager_id IS NULL AND u.id <> :managerId AND e.status IN (:statuses)", nativeQuery = true)
+    List<ExpenseRequest> findByStatusesOfUnassignedEmployees(@Param("managerId") Long managerId,
+            @Param("statuses") List<String> statuses);
 
     // Find expenses approved by finance (PAID status)
     @Query("SELECT e FROM ExpenseRequest e WHERE e.status = :status ORDER BY e.updatedAt DESC")
@@ -56,4 +79,57 @@ public interface ExpenseRequestRepository extends JpaRepository<ExpenseRequest,
     // Find all expenses processed by finance (approved and rejected)
     @Query("SELECT e FROM ExpenseRequest e WHERE e.status IN (:statuses) ORDER BY e.updatedAt DESC")
     List<ExpenseRequest> findExpensesProcessedByFinance(@Param("statuses") List<ExpenseStatus> statuses);
+
+    // (id, change_xid, change_seq) of expenses written after a change-feed position by transactions older than boundXid, in feed order
+    @Query(value = "SELECT e.id, CAST(e.change_xid AS text), e.change_seq FROM expense_requests e "
+            + "WHERE (e.change_xid, e.change_seq) > (CAST(:sinceXid AS xid8), :sinceSeq) "
+            + "AND e.change_xid < CAST(:boundXid AS xid8) ORDER BY e.change_xid, e.change_seq LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findChangePositionsSince(@Param("sinceXid") String sinceXid, @Param("sinceSeq") long sinceSeq,
+            @Param("boundXid") String boundXid, @Param("limit") int limit);
+
+    // The same for one employee's expenses
+    @Query(value = "SELECT e.id, CAST(e.change_xid AS text), e.change_seq FROM expense_requests e "
+            + "WHERE e.employee_id = :employeeId AND (e.change_xid, e.change_seq) > (CAST(:sinceXid AS xid8), :sinceSeq) "
+            + "AND e.change_xid < CAST(:boundXid AS xid8) ORDER BY e.change_xid, e.change_seq LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findChangePositionsSinceForEmployee(@Param("employeeId") Long employeeId,
+            @Param("sinceXid") String sinceXid, @Param("sinceSeq") long sinceSeq,
+            @Param("boundXid") String boundXid, @Param("limit") int limit);
+
+    // Expenses with their employees loaded, in no particular order
+    @Query("SELECT e FROM ExpenseRequest e JOIN FETCH e.employee WHERE e.id IN (:ids)")
+    List<ExpenseRequest> findWithEmployeeByIdIn(@Param("ids") List<Long> ids);
+
+    // Stream (id, employeeId, createdAt, status, amount, changeSeq) of every expense without loading entities; needs a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e.id, e.employee.id, e.createdAt, e.status, e.amount, e.changeSeq FROM ExpenseRequest e")
+    Stream<Object[]> streamSpendFacts();
+
+    // Stream (id, employeeId, amount, changeSeq) of every expense in id (submission) order; needs a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e.id, e.employee.id, e.amount, e.changeSeq FROM ExpenseRequest e ORDER BY e.id")
+    Stream<Object[]> streamSubmittedAmounts();
+
+    // Stream (dupFingerprint, receiptHash) of expenses having either; needs a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e.dupFingerprint, e.receiptHash FROM ExpenseRequest e "
+            + "WHERE e.dupFingerprint IS NOT NULL OR e.receiptHash IS NOT NULL")
+    Stream<Object[]> streamDuplicateKeys();
+
+    // Lowest id of an earlier expense (id below beforeId) with one of the fingerprints, or null
+    @Query(value = "SELECT id FROM expense_requests WHERE dup_fingerprint IN (:fingerprints) AND id < :beforeId "
+            + "ORDER BY id LIMIT 1", nativeQuery = true)
+    Long findFirstIdByDupFingerprint(@Param("fingerprints") List<String> fingerprints,
+            @Param("beforeId") long beforeId);
+
+    // Lowest id of an earlier expense (id below beforeId) with the same receipt file, or null
+    @Query(value = "SELECT id FROM expense_requests WHERE receipt_hash = :receiptHash AND id < :beforeId "
+            + "ORDER BY id LIMIT 1", nativeQuery = true)
+    Long findFirstIdByReceiptHash(@Param("receiptHash") String receiptHash, @Param("beforeId") long beforeId);
+
+    // Stream (id, employeeId, amount, status, createdAt, updatedAt) of expenses in the given statuses; needs a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e.id, e.employee.id, e.amount, e.status, e.createdAt, e.updatedAt FROM ExpenseRequest e WHERE e.status IN (:statuses)")
+    Stream<Object[]> streamByStatuses(@Param("statuses") List<ExpenseStatus> statuses);
 }
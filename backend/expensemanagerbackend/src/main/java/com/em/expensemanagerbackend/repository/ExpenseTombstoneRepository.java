@@ -0,0 +1,31 @@
+package com.em.expensemanagerbackend.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.em.expensemanagerbackend.model.ExpenseTombstone;
+
+@Repository
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstone, Long> {
+
+    // (expense_id, change_xid, change_seq) of tombstones written after a change-feed position by transactions older than boundXid, in feed order
+    @Query(value = "SELECT t.expense_id, CAST(t.change_xid AS text), t.change_seq FROM expense_tombstones t "
+            + "WHERE (t.change_xid, t.change_seq) > (CAST(:sinceXid AS xid8), :sinceSeq) "
+            + "AND t.change_xid < CAST(:boundXid AS xid8) ORDER BY t.change_xid, t.change_seq LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findChangePositionsSince(@Param("sinceXid") String sinceXid, @Param("sinceSeq") long sinceSeq,
+            @Param("boundXid") String boundXid, @Param("limit") int limit);
+
+    // The same for tombstones of one employee's expenses
+    @Query(value = "SELECT t.expense_id, CAST(t.change_xid AS text), t.change_seq FROM expense_tombstones t "
+            + "WHERE t.employee_id = :employeeId AND (t.change_xid, t.change_seq) > (CAST(:sinceXid AS xid8), :sinceSeq) "
+            + "AND t.change_xid < CAST(:boundXid AS xid8) ORDER BY t.change_xid, t.change_seq LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findChangePositionsSinceForEmployee(@Param("employeeId") Long employeeId,
+            @Param("sinceXid") String sinceXid, @Param("sinceSeq") long sinceSeq,
+            @Param("boundXid") String boundXid, @Param("limit") int limit);
+}
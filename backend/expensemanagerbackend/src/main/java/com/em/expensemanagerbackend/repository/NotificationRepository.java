@@ -1,7 +1,9 @@
 package com.em.expensemanagerbackend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -17,6 +19,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId ORDER BY n.createdAt DESC")
     List<Notification> findByRecipientIdOrderByCreatedAtDesc(@Param("recipientId") Long recipientId);
 
+    // Fan a notification out to every user of a role in one set-based statement
+    @Modifying
+    @Query(value = "INSERT INTO notifications (recipient_id, triggered_by_id, expense_request_id, title, message, \"type\", is_read, created_at) "
+            + "SELECT u.id, CAST(:triggeredById AS BIGINT), CAST(:expenseRequestId AS BIGINT), :title, :message, :type, false, now() "
+            + "FROM users u WHERE u.\"role\" = :role", nativeQuery = true)
+    int insertForRole(@Param("role") String role, @Param("title") String title, @Param("message") String message,
+            @Param("type") String type, @Param("expenseRequestId") Long expenseRequestId,
+            @Param("triggeredById") Long triggeredById);
+
     // Find unread notifications for a specific user
     @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false ORDER BY n.createdAt DESC")
     List<Notification> findUnreadByRecipientId(@Param("recipientId") Long recipientId);
@@ -25,16 +36,37 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false")
     Long countUnreadByRecipientId(@Param("recipientId") Long recipientId);
 
+    // Mark a single notification as read; returns 0 when it was already read or belongs to someone else
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.recipient.id = :recipientId AND n.isRead = false")
+    int markAsRead(@Param("id") Long id, @Param("recipientId") Long recipientId);
+
     // Mark all notifications as read for a specific user
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId AND n.isRead = false")
     int markAllAsReadByRecipientId(@Param("recipientId") Long recipientId);
 
+    // Unlink notifications from an expense request that is about to be deleted
+    @Modifying
+    @Query("UPDATE Notification n SET n.expenseRequest = null WHERE n.expenseRequest.id = :expenseRequestId")
+    int detachFromExpenseRequest(@Param("expenseRequestId") Long expenseRequestId);
+
     // Find notifications related to a specific expense request
     @Query("SELECT n FROM Notification n WHERE n.expenseRequest.id = :expenseRequestId ORDER BY n.createdAt DESC")
     List<Notification> findByExpenseRequestId(@Param("expenseRequestId") Long expenseRequestId);
 
-    // Find recent notifications for a user (last 30 days)
-    @Query(value = "SELECT * FROM notifications n WHERE n.recipient_id = :recipientId AND n.created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY) ORDER BY n.created_at DESC", nativeQuery = true)
-    List<Notification> findRecentByRecipientId(@Param("recipientId") Long recipientId);
+    // Recent notifications for a user with the expense and trigger user fetched in the same query.
+    // The created_at bound is a plain parameter so the planner can prune monthly partitions.
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.expenseRequest LEFT JOIN FETCH n.triggeredBy "
+            + "WHERE n.recipient.id = :recipientId AND n.createdAt >= :since ORDER BY n.createdAt DESC")
+    List<Notification> findRecentByRecipientId(@Param("recipientId") Long recipientId,
+            @Param("since") LocalDateTime since, Pageable pageable);
+
+    // Keep only the newest notification per recipient and expense among those created since the given time
+    @Modifying
+    @Query(value = "DELETE FROM notifications n WHERE n.expense_request_id IS NOT NULL AND n.created_at >= :since "
+            + "AND EXISTS (SELECT 1 FROM notifications newer WHERE newer.expense_request_id = n.expense_request_id "
+            + "AND newer.recipient_id = n.recipient_id AND newer.created_at >= :since "
+            + "AND (newer.created_at, newer.id) > (n.created_at, n.id))", nativeQuery = true)
+    int deleteSupersededSince(@Param("since") LocalDateTime since);
 }
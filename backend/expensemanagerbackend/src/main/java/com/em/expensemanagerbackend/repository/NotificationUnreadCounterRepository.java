@@ -0,0 +1,44 @@
+package com.em.expensemanagerbackend.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.em.expensemanagerbackend.model.NotificationUnreadCounter;
+
+@Repository
+public interface NotificationUnreadCounterRepository extends JpaRepository<NotificationUnreadCounter, Long> {
+
+    // Current unread count for a user
+    @Query("SELECT c.unreadCount FROM NotificationUnreadCounter c WHERE c.userId = :userId")
+    Optional<Long> findUnreadCountByUserId(@Param("userId") Long userId);
+
+    // Atomically add (or subtract) from a user's counter, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count, updated_at) VALUES (:userId, GREATEST(:delta, 0), now()) "
+            + "ON CONFLICT (user_id) DO UPDATE SET unread_count = GREATEST(notification_unread_counters.unread_count + :delta, 0), "
+            + "updated_at = now()", nativeQuery = true)
+    int addToUser(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Increment the counter of every user of a role in one statement (mirrors role fanout)
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count, updated_at) "
+            + "SELECT u.id, 1, now() FROM users u WHERE u.\"role\" = :role "
+            + "ON CONFLICT (user_id) DO UPDATE SET unread_count = notification_unread_counters.unread_count + 1, "
+            + "updated_at = now()", nativeQuery = true)
+    int incrementForRole(@Param("role") String role);
+
+    // Recompute counters from the notifications table, touching only rows that drifted
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count, updated_at) "
+            + "SELECT u.id, COALESCE(n.unread, 0), now() FROM users u "
+            + "LEFT JOIN (SELECT recipient_id, COUNT(*) AS unread FROM notifications WHERE is_read = false "
+            + "GROUP BY recipient_id) n ON n.recipient_id = u.id "
+            + "ON CONFLICT (user_id) DO UPDATE SET unread_count = EXCLUDED.unread_count, updated_at = now() "
+            + "WHERE notification_unread_counters.unread_count <> EXCLUDED.unread_count", nativeQuery = true)
+    int reconcileWithNotifications();
+}
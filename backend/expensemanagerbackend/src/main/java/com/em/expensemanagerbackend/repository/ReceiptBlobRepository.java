@@ -0,0 +1,20 @@
+package com.em.expensemanagerbackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.em.expensemanagerbackend.model.ReceiptBlob;
+
+@Repository
+public interface ReceiptBlobRepository extends JpaRepository<ReceiptBlob, String> {
+
+    // Record a stored blob; a second upload of the same content is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO receipt_blobs (content_hash, size_bytes, content_type) "
+            + "VALUES (:contentHash, :sizeBytes, :contentType) ON CONFLICT (content_hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash, @Param("sizeBytes") long sizeBytes,
+            @Param("contentType") String contentType);
+}
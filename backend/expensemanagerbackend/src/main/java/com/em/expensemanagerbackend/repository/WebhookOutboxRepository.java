@@ -0,0 +1,19 @@
+package com.em.expensemanagerbackend.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.em.expensemanagerbackend.model.WebhookOutboxEvent;
+
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxEvent, Long> {
+
+    // Claim due events for delivery; rows locked by another dispatcher are skipped, not waited on
+    @Query(value = "SELECT * FROM webhook_outbox WHERE status = 'PENDING' AND next_attempt_at <= now() "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WebhookOutboxEvent> claimDueEvents(@Param("limit") int limit);
+}
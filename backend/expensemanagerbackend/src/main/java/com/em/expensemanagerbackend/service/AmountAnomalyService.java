@@ -0,0 +1,244 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+/**
+ * Scores how unusual a submitted amount is for the employee, from running
+ * statistics kept in memory so that scoring costs no query. Per employee it
+ * keeps the count, mean and variance (Welford's online algorithm) of the log
+ * of each amount, since amounts are skewed and "ten times the usual" should
+ * weigh the same for a 20 and a 2000 spender, and a ring of the most recent
+ * amounts for percentile ranks.
+ *
+ * The statistics follow committed ExpenseChangedEvents (creations add,
+ * amount edits replace, deletions remove) and are rebuilt from a streaming
+ * scan at startup, daily and after imports; changes committed meanwhile are
+ * replayed onto the rebuilt statistics.
+ */
+@Service
+public class AmountAnomalyService {
+
+    private static final Logger log = LoggerFactory.getLogger(AmountAnomalyService.class);
+
+    // Floor for the standard deviation of log amounts (about 5%), so identical history cannot score infinite
+    private static final double MIN_LOG_STDDEV = 0.05;
+    private static final double MAX_SCORE = 9999.99;
+
+    @Autowired
+    private ExpenseRequestRepository expenseRequestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.expenses.anomaly.minSamples:5}")
+    private int minSamples;
+
+    @Value("${app.expenses.anomaly.recentWindow:50}")
+    private int recentWindow;
+
+    private volatile Map<Long, AmountStats> stats = new ConcurrentHashMap<>();
+
+    // Changes seen while a rebuild scans, replayed afterwards unless the scan already covered them
+    private final Object lock = new Object();
+    private List<ExpenseChangedEvent> replay;
+
+    /**
+     * Set the anomaly score and percentile of an expense about to be saved;
+     * both stay null while the employee has fewer than minSamples expenses
+     */
+    public void score(ExpenseRequest expense) {
+        AmountStats employeeStats = stats.get(expense.getEmployee().getId());
+        double[] result = employeeStats == null ? null : employeeStats.score(expense.getAmount(), minSamples);
+        if (result == null) {
+            expense.setAnomalyScore(null);
+            expense.setAmountPercentile(null);
+            return;
+        }
+        expense.setAnomalyScore(BigDecimal.valueOf(result[0]).setScale(2, RoundingMode.HALF_UP));
+        expense.setAmountPercentile((int) Math.round(result[1]));
+    }
+
+    /**
+     * Apply a committed expense change to the live statistics (and to the
+     * ones being rebuilt, via replay)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        synchronized (lock) {
+            if (replay != null) {
+                replay.add(event);
+            }
+            apply(stats, event);
+        }
+    }
+
+    /**
+     * Bulk imports bypass the per-expense events; rebuilt in the background,
+     * not on the importing thread
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuild all statistics from a streaming scan in submission order
+     */
+    @Scheduled(fixedDelayString = "${app.expenses.anomaly.rebuildIntervalMs:86400000}", initialDelay = 0)
+    public synchronized void rebuild() {
+        Map<Long, AmountStats> fresh = new ConcurrentHashMap<>();
+        // change_seq of every scanned expense, to tell which recorded changes the scan already has
+        Map<Long, Long> scanned = new HashMap<>();
+        // Record from before the query starts, so no change can fall between the scan and the replay
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> rows = expenseRequestRepository.streamSubmittedAmounts()) {
+                    rows.forEach(row -> {
+                        scanned.put((Long) row[0], (Long) row[3]);
+                        statsFor(fresh, (Long) row[1]).add((BigDecimal) row[2]);
+                    });
+                }
+                return null;
+            });
+            synchronized (lock) {
+                for (ExpenseChangedEvent event : replay) {
+                    if (ScanReplay.missedByScan(scanned, event)) {
+                        apply(fresh, event);
+                    }
+                }
+                replay = null;
+                stats = fresh;
+            }
+            log.debug("Amount statistics rebuilt for {} employees", fresh.size());
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                replay = null;
+            }
+            log.warn("Amount statistics rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    // Creations add, deletions remove, amount edits replace
+    private void apply(Map<Long, AmountStats> target, ExpenseChangedEvent event) {
+        if (event.getPreviousStatus() == null && event.getNewStatus() != null) {
+            statsFor(target, event.getEmployeeId()).add(event.getNewAmount());
+        } else if (event.getNewStatus() == null && event.getPreviousAmount() != null) {
+            statsFor(target, event.getEmployeeId()).remove(event.getPreviousAmount());
+        } else if (event.getPreviousAmount() != null && event.getNewAmount() != null
+                && event.getPreviousAmount().compareTo(event.getNewAmount()) != 0) {
+            AmountStats employeeStats = statsFor(target, event.getEmployeeId());
+            employeeStats.remove(event.getPreviousAmount());
+            employeeStats.add(event.getNewAmount());
+        }
+    }
+
+    private AmountStats statsFor(Map<Long, AmountStats> target, Long employeeId) {
+        return target.computeIfAbsent(employeeId, id -> new AmountStats(recentWindow));
+    }
+
+    /**
+     * Running statistics of one employee's amounts
+     */
+    static final class AmountStats {
+
+        private long count;
+        private double mean;
+        private double m2;
+        private final double[] recent;
+        private int recentSize;
+        private int next;
+
+        AmountStats(int window) {
+            this.recent = new double[Math.max(1, window)];
+        }
+
+        synchronized void add(BigDecimal amount) {
+            double x = Math.log(amount.doubleValue());
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+
+            recent[next] = amount.doubleValue();
+            next = (next + 1) % recent.length;
+            recentSize = Math.min(recentSize + 1, recent.length);
+        }
+
+        synchronized void remove(BigDecimal amount) {
+            if (count <= 1) {
+                count = 0;
+                mean = 0;
+                m2 = 0;
+                return;
+            }
+            double x = Math.log(amount.doubleValue());
+            double previousMean = (count * mean - x) / (count - 1);
+            m2 = Math.max(0, m2 - (x - previousMean) * (x - mean));
+            mean = previousMean;
+            count--;
+            // The recent window keeps what was submitted; it ages out by itself
+        }
+
+        /**
+         * {score, percentile} of an amount against these statistics, or null
+         * with fewer than minSamples amounts
+         */
+        synchronized double[] score(BigDecimal amount, int minSamples) {
+            if (count < Math.max(2, minSamples)) {
+                return null;
+            }
+            double value = amount.doubleValue();
+            double stddev = Math.max(MIN_LOG_STDDEV, Math.sqrt(m2 / (count - 1)));
+            double z = (Math.log(value) - mean) / stddev;
+
+            double below = 0;
+            for (int i = 0; i < recentSize; i++) {
+                if (recent[i] < value) {
+                    below++;
+                } else if (recent[i] == value) {
+                    below += 0.5;
+                }
+            }
+            return new double[] { Math.max(-MAX_SCORE, Math.min(MAX_SCORE, z)), 100.0 * below / recentSize };
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized double mean() {
+            return mean;
+        }
+
+        synchronized double variance() {
+            return count > 1 ? m2 / (count - 1) : 0;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.em.expensemanagerbackend.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Decides whether a new expense can skip the manager queue. Rules come from
+ * a JSON file that is compiled once into predicate trees and recompiled when
+ * the file changes; evaluating a submission only walks those predicates over
+ * fields already in memory (amount, employee, anomaly score, duplicate flag),
+ * so it costs no query. The first matching rule wins.
+ *
+ * <pre>
+ * { "rules": [
+ *   { "name": "small-routine",
+ *     "when": { "amount": { "lte": 50 },
+ *               "anomalyScore": { "lte": 1.5 },
+ *               "possibleDuplicate": false,
+ *               "not": { "employee": { "in": ["new.hire@example.com", 42] } } } } ] }
+ * </pre>
+ *
+ * Conditions: {@code all}/{@code any} (lists), {@code not}; {@code amount},
+ * {@code anomalyScore} and {@code amountPercentile} with lt/lte/gt/gte/eq
+ * (false while the value is unknown); {@code employee} and {@code role} with
+ * in (emails or ids, role names); {@code title} with matches; and the
+ * booleans {@code possibleDuplicate} and {@code hasReceipt}. Several keys in
+ * one object must all hold. A file that fails to compile leaves the previous
+ * rules in force.
+ */
+@Service
+public class ApprovalRuleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalRuleEngine.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Empty disables auto-approval
+    @Value("${app.expenses.autoApproval.rulesFile:}")
+    private String rulesFile;
+
+    private volatile List<CompiledRule> rules = List.of();
+    private Object loadedVersion;
+    private Timer evaluationTimer;
+    private Counter reloadFailures;
+
+    @PostConstruct
+    void init() {
+        evaluationTimer = meterRegistry.timer("expense.auto_approval.evaluation");
+        reloadFailures = meterRegistry.counter("expense.auto_approval.reload.failures");
+        reload();
+    }
+
+    /**
+     * Name of the first rule the expense matches, or null when it needs a manager
+     */
+    public String match(ExpenseRequest expense) {
+        List<CompiledRule> current = rules;
+        if (current.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            for (CompiledRule rule : current) {
+                if (rule.condition.test(expense)) {
+                    rule.matches.increment();
+                    return rule.name;
+                }
+            }
+            return null;
+        } finally {
+            evaluationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Recompile the rules file when its modification time or size changed
+     */
+    @Scheduled(fixedDelayString = "${app.expenses.autoApproval.reloadIntervalMs:10000}", initialDelay = 10000)
+    public synchronized void reload() {
+        if (rulesFile == null || rulesFile.isBlank()) {
+            rules = List.of();
+            return;
+        }
+        Path path = Path.of(rulesFile);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            Object version = List.of(attributes.lastModifiedTime(), attributes.size());
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            loadedVersion = version;
+            List<CompiledRule> compiled = compile(objectMapper.readTree(path.toFile()));
+            rules = compiled;
+            log.info("Loaded {} auto-approval rules from {}", compiled.size(), path);
+        } catch (IOException | IllegalArgumentException e) {
+            reloadFailures.increment();
+            log.warn("Auto-approval rules in {} not loaded, keeping the previous {}: {}", path, rules.size(),
+                    e.getMessage());
+        }
+    }
+
+    List<CompiledRule> compile(JsonNode root) {
+        JsonNode ruleNodes = root.path("rules");
+        if (!ruleNodes.isArray()) {
+            throw new IllegalArgumentException("Expected a \"rules\" array");
+        }
+        List<CompiledRule> compiled = new ArrayList<>();
+        for (JsonNode ruleNode : ruleNodes) {
+            String name = ruleNode.path("name").asText("");
+            if (name.isBlank()) {
+                throw new IllegalArgumentException("Every rule needs a name");
+            }
+            if (!ruleNode.path("when").isObject()) {
+                throw new IllegalArgumentException("Rule '" + name + "' needs a \"when\" object");
+            }
+            try {
+                compiled.add(new CompiledRule(name, condition(ruleNode.get("when")),
+                        meterRegistry.counter("expense.auto_approval.matches", "rule", name)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule '" + name + "': " + e.getMessage(), e);
+            }
+        }
+        return List.copyOf(compiled);
+    }
+
+    private static Predicate<ExpenseRequest> condition(JsonNode node) {
+        if (!node.isObject() || node.isEmpty()) {
+            throw new IllegalArgumentException("A condition must be a non-empty object");
+        }
+        List<Predicate<ExpenseRequest>> parts = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            parts.add(term(field.getKey(), field.getValue()));
+        }
+        return allOf(parts);
+    }
+
+    private static Predicate<ExpenseRequest> term(String key, JsonNode value) {
+        switch (key) {
+            case "all":
+                return allOf(conditions(key, value));
+            case "any": {
+                List<Predicate<ExpenseRequest>> parts = conditions(key, value);
+                return expense -> {
+                    for (Predicate<ExpenseRequest> part : parts) {
+                        if (part.test(expense)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case "not":
+                return condition(value).negate();
+            case "amount":
+                return comparison(key, value, ExpenseRequest::getAmount);
+            case "anomalyScore":
+                return comparison(key, value, ExpenseRequest::getAnomalyScore);
+            case "amountPercentile":
+                return comparison(key, value,
+                        expense -> expense.getAmountPercentile() == null ? null
+                                : BigDecimal.valueOf(expense.getAmountPercentile()));
+            case "employee": {
+                Set<Long> ids = new HashSet<>();
+                Set<String> emails = new HashSet<>();
+                for (JsonNode entry : list(key, value.path("in"))) {
+                    if (entry.isIntegralNumber()) {
+                        ids.add(entry.asLong());
+                    } else {
+                        emails.add(entry.asText().toLowerCase(Locale.ROOT));
+                    }
+                }
+                return expense -> ids.contains(expense.getEmployee().getId())
+                        || (!emails.isEmpty() && expense.getEmployee().getEmail() != null
+                                && emails.contains(expense.getEmployee().getEmail().toLowerCase(Locale.ROOT)));
+            }
+            case "role": {
+                Set<UserRole> roles = new HashSet<>();
+                for (JsonNode entry : list(key, value.path("in"))) {
+                    roles.add(UserRole.valueOf(entry.asText().toUpperCase(Locale.ROOT)));
+                }
+                return expense -> roles.contains(expense.getEmployee().getRole());
+            }
+            case "title": {
+                if (!value.path("matches").isTextual()) {
+                    throw new IllegalArgumentException("\"title\" needs a \"matches\" pattern");
+                }
+                Pattern pattern = Pattern.compile(value.get("matches").asText());
+                return expense -> expense.getTitle() != null && pattern.matcher(expense.getTitle()).find();
+            }
+            case "possibleDuplicate": {
+                boolean expected = flag(key, value);
+                return expense -> (expense.getPossibleDuplicateOfId() != null) == expected;
+            }
+            case "hasReceipt": {
+                boolean expected = flag(key, value);
+                return expense -> (expense.getReceiptHash() != null || expense.getReceiptUrl() != null) == expected;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown condition \"" + key + "\"");
+        }
+    }
+
+    private static Predicate<ExpenseRequest> allOf(List<Predicate<ExpenseRequest>> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return expense -> {
+            for (Predicate<ExpenseRequest> part : parts) {
+                if (!part.test(expense)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<ExpenseRequest> comparison(String key, JsonNode ops,
+            Function<ExpenseRequest, BigDecimal> value) {
+        if (!ops.isObject() || ops.isEmpty()) {
+            throw new IllegalArgumentException("\"" + key + "\" needs at least one of lt, lte, gt, gte, eq");
+        }
+        List<Predicate<ExpenseRequest>> parts = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> op : ops.properties()) {
+            if (!op.getValue().isNumber()) {
+                throw new IllegalArgumentException("\"" + key + "." + op.getKey() + "\" must be a number");
+            }
+            BigDecimal bound = op.getValue().decimalValue();
+            Predicate<Integer> accept = switch (op.getKey()) {
+                case "lt" -> c -> c < 0;
+                case "lte" -> c -> c <= 0;
+                case "gt" -> c -> c > 0;
+                case "gte" -> c -> c >= 0;
+                case "eq" -> c -> c == 0;
+                default -> throw new IllegalArgumentException("Unknown operator \"" + key + "." + op.getKey() + "\"");
+            };
+            parts.add(expense -> {
+                BigDecimal actual = value.apply(expense);
+                return actual != null && accept.test(actual.compareTo(bound));
+            });
+        }
+        return allOf(parts);
+    }
+
+    private static List<Predicate<ExpenseRequest>> conditions(String key, JsonNode value) {
+        List<Predicate<ExpenseRequest>> parts = new ArrayList<>();
+        for (JsonNode entry : list(key, value)) {
+            parts.add(condition(entry));
+        }
+        return parts;
+    }
+
+    private static JsonNode list(String key, JsonNode value) {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new IllegalArgumentException("\"" + key + "\" needs a non-empty list");
+        }
+        return value;
+    }
+
+    private static boolean flag(String key, JsonNode value) {
+        if (!value.isBoolean()) {
+            throw new IllegalArgumentException("\"" + key + "\" must be true or false");
+        }
+        return value.booleanValue();
+    }
+
+    static final class CompiledRule {
+
+        private final String name;
+        private final Predicate<ExpenseRequest> condition;
+        private final Counter matches;
+
+        CompiledRule(String name, Predicate<ExpenseRequest> condition, Counter matches) {
+            this.name = name;
+            this.condition = condition;
+            this.matches = matches;
+        }
+    }
+}
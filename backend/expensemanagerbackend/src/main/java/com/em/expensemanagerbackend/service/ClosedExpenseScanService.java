@@ -0,0 +1,161 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.dto.ExpenseScanRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+/**
+ * Ad-hoc filter-and-aggregate scans over closed expenses (paid or rejected)
+ * held in a ColumnarExpenseStore, for questions the spend cube cannot answer
+ * such as amount ranges or closing dates. Loaded by a streaming scan at
+ * startup and on app.analytics.columnarRebuildIntervalMs, and kept current
+ * from committed expense changes. Upserts and removals are idempotent, so
+ * changes that commit during a rebuild are simply replayed onto the new
+ * store.
+ */
+@Service
+public class ClosedExpenseScanService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClosedExpenseScanService.class);
+
+    static final Set<ExpenseStatus> CLOSED_STATUSES = Set.of(ExpenseStatus.PAID, ExpenseStatus.REJECTED_MANAGER,
+            ExpenseStatus.REJECTED_FINANCE);
+
+    @Autowired
+    private ExpenseRequestRepository expenseRequestRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Object lock = new Object();
+    private ColumnarExpenseStore store;
+    private List<ExpenseChangedEvent> replay;
+
+    /**
+     * Apply a committed expense change to the live store (and to the one
+     * being loaded, via replay)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        synchronized (lock) {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (store != null) {
+                apply(store, event);
+            }
+        }
+    }
+
+    /**
+     * Bulk imports bypass the per-expense events, so reload the store (in the
+     * background, not on the importing thread)
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Reload the store from a streaming scan of closed expenses
+     * (serialized: the schedule and bulk imports may both trigger one)
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.columnarRebuildIntervalMs:86400000}", initialDelay = 0)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        ColumnarExpenseStore fresh = new ColumnarExpenseStore();
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> rows = expenseRequestRepository.streamByStatuses(List.copyOf(CLOSED_STATUSES))) {
+                    rows.forEach(row -> fresh.upsert((Long) row[0], (Long) row[1], (BigDecimal) row[2],
+                            (ExpenseStatus) row[3], dateOf((LocalDateTime) row[4]), dateOf((LocalDateTime) row[5])));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                replay = null;
+            }
+            log.warn("Closed expense store rebuild failed: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (lock) {
+            replay.forEach(event -> apply(fresh, event));
+            replay = null;
+            store = fresh;
+        }
+        log.info("Closed expense store loaded with {} row(s) in {} ms", fresh.liveRows(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Filter closed expenses (null means any) and aggregate them, optionally
+     * grouped by status, employee or closing month (Finance only)
+     */
+    public List<ExpenseScanRowDto> scan(String groupBy, ExpenseStatus status, Long employeeId, LocalDate closedFrom,
+            LocalDate closedTo, BigDecimal minAmount, BigDecimal maxAmount) {
+        User currentUser = currentUserService.getCurrentUser();
+        if (currentUser.getRole() != UserRole.FINANCE) {
+            throw new RuntimeException("Access denied: Only finance staff can scan closed expenses");
+        }
+        ColumnarExpenseStore current;
+        synchronized (lock) {
+            current = store;
+        }
+        if (current == null) {
+            throw new RuntimeException("Closed expense store is still loading");
+        }
+
+        ColumnarExpenseStore.GroupBy grouping;
+        try {
+            grouping = groupBy == null || groupBy.isBlank() ? ColumnarExpenseStore.GroupBy.NONE
+                    : ColumnarExpenseStore.GroupBy.valueOf(groupBy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown grouping: " + groupBy);
+        }
+        return current.query(grouping, status, employeeId, closedFrom, closedTo, minAmount, maxAmount);
+    }
+
+    private static void apply(ColumnarExpenseStore target, ExpenseChangedEvent event) {
+        if (event.getNewStatus() != null && CLOSED_STATUSES.contains(event.getNewStatus())) {
+            target.upsert(event.getExpenseId(), event.getEmployeeId(), event.getNewAmount(), event.getNewStatus(),
+                    dateOf(event.getCreatedAt()), LocalDate.now());
+        } else if (event.getPreviousStatus() != null && CLOSED_STATUSES.contains(event.getPreviousStatus())) {
+            target.remove(event.getExpenseId());
+        }
+    }
+
+    private static LocalDate dateOf(LocalDateTime at) {
+        return at != null ? at.toLocalDate() : LocalDate.now();
+    }
+}
@@ -0,0 +1,395 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.em.expensemanagerbackend.dto.ExpenseScanRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+/**
+ * Column-per-field store of closed expenses: one primitive array per
+ * attribute (about 30 bytes a row instead of an entity graph), a dictionary
+ * for employee ids and a deletion bitmap for rows that were reopened or
+ * replaced. Queries filter column by column into a selection vector and then
+ * aggregate over it, which keeps every loop a tight pass over one primitive
+ * array. Deleted rows are compacted away once they pass a quarter of the
+ * store.
+ */
+class ColumnarExpenseStore {
+
+    /**
+     * How a scan groups its result
+     */
+    enum GroupBy {
+        NONE, STATUS, EMPLOYEE, MONTH
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_VALUE = -1;
+    private static final ExpenseStatus[] STATUSES = ExpenseStatus.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int[] employeeIndexes = new int[INITIAL_CAPACITY];
+    private int[] createdDays = new int[INITIAL_CAPACITY];
+    private int[] closedDays = new int[INITIAL_CAPACITY];
+    private short[] closedMonths = new short[INITIAL_CAPACITY];
+    private long[] deleted = new long[INITIAL_CAPACITY / 64];
+    private int size;
+    private int deletedCount;
+
+    private long[] employeeIds = new long[64];
+    private int employeeCount;
+    private LongIntMap employeeIndexById = new LongIntMap();
+    private LongIntMap rowById = new LongIntMap();
+
+    /**
+     * Insert a closed expense, replacing an earlier row for the same id
+     */
+    void upsert(long id, long employeeId, BigDecimal amount, ExpenseStatus status, LocalDate createdOn,
+            LocalDate closedOn) {
+        lock.writeLock().lock();
+        try {
+            markDeleted(rowById.get(id));
+            ensureCapacity(size + 1);
+            int row = size;
+            ids[row] = id;
+            cents[row] = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            statuses[row] = (byte) status.ordinal();
+            employeeIndexes[row] = employeeIndex(employeeId);
+            createdDays[row] = (int) createdOn.toEpochDay();
+            closedDays[row] = (int) closedOn.toEpochDay();
+            closedMonths[row] = (short) monthIndex(YearMonth.from(closedOn));
+            rowById.put(id, row);
+            size++;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop an expense that is no longer closed
+     */
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowById.get(id);
+            if (row != NO_VALUE) {
+                markDeleted(row);
+                rowById.put(id, NO_VALUE);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Live (non-deleted) rows
+     */
+    int liveRows() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter (null means any) and aggregate count, total, min, max and
+     * average amount per group
+     */
+    List<ExpenseScanRowDto> query(GroupBy groupBy, ExpenseStatus status, Long employeeId, LocalDate closedFrom,
+            LocalDate closedTo, BigDecimal minAmount, BigDecimal maxAmount) {
+        lock.readLock().lock();
+        try {
+            int[] selection = new int[size];
+            int selected = selectLive(selection);
+            if (closedFrom != null || closedTo != null) {
+                int from = closedFrom != null ? (int) closedFrom.toEpochDay() : Integer.MIN_VALUE;
+                int to = closedTo != null ? (int) closedTo.toEpochDay() : Integer.MAX_VALUE;
+                selected = filterIntRange(selection, selected, closedDays, from, to);
+            }
+            if (status != null) {
+                selected = filterByte(selection, selected, statuses, (byte) status.ordinal());
+            }
+            if (employeeId != null) {
+                int index = employeeIndexById.get(employeeId);
+                if (index == NO_VALUE) {
+                    return List.of();
+                }
+                selected = filterIntRange(selection, selected, employeeIndexes, index, index);
+            }
+            if (minAmount != null || maxAmount != null) {
+                long min = minAmount != null ? minAmount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact() : Long.MIN_VALUE;
+                long max = maxAmount != null ? maxAmount.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact() : Long.MAX_VALUE;
+                selected = filterLongRange(selection, selected, cents, min, max);
+            }
+            return aggregate(groupBy, selection, selected);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Scan kernels: one primitive column each, written without data-dependent branches ---
+    private int selectLive(int[] selection) {
+        int selected = 0;
+        for (int row = 0; row < size; row++) {
+            selection[selected] = row;
+            selected += (int) (~(deleted[row >>> 6] >>> row) & 1L);
+        }
+        return selected;
+    }
+
+    private static int filterIntRange(int[] selection, int selected, int[] column, int min, int max) {
+        int kept = 0;
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            int value = column[row];
+            selection[kept] = row;
+            kept += (value >= min & value <= max) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static int filterLongRange(int[] selection, int selected, long[] column, long min, long max) {
+        int kept = 0;
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            long value = column[row];
+            selection[kept] = row;
+            kept += (value >= min & value <= max) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static int filterByte(int[] selection, int selected, byte[] column, byte expected) {
+        int kept = 0;
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += column[row] == expected ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private List<ExpenseScanRowDto> aggregate(GroupBy groupBy, int[] selection, int selected) {
+        int groups = switch (groupBy) {
+            case NONE -> 1;
+            case STATUS -> STATUSES.length;
+            case EMPLOYEE -> employeeCount;
+            case MONTH -> maxMonthIndex(selection, selected) + 1;
+        };
+        long[] counts = new long[groups];
+        long[] sums = new long[groups];
+        long[] mins = new long[groups];
+        long[] maxes = new long[groups];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxes, Long.MIN_VALUE);
+
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            int group = switch (groupBy) {
+                case NONE -> 0;
+                case STATUS -> statuses[row];
+                case EMPLOYEE -> employeeIndexes[row];
+                case MONTH -> closedMonths[row];
+            };
+            long value = cents[row];
+            counts[group]++;
+            sums[group] += value;
+            mins[group] = Math.min(mins[group], value);
+            maxes[group] = Math.max(maxes[group], value);
+        }
+
+        List<ExpenseScanRowDto> rows = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            if (counts[group] == 0 && groupBy != GroupBy.NONE) {
+                continue;
+            }
+            ExpenseScanRowDto row = new ExpenseScanRowDto();
+            row.setGroup(switch (groupBy) {
+                case NONE -> "all";
+                case STATUS -> STATUSES[group].name();
+                case EMPLOYEE -> String.valueOf(employeeIds[group]);
+                case MONTH -> YearMonth.of(2000 + group / 12, group % 12 + 1).toString();
+            });
+            row.setExpenseCount(counts[group]);
+            row.setTotalAmount(BigDecimal.valueOf(sums[group], 2));
+            if (counts[group] > 0) {
+                row.setMinAmount(BigDecimal.valueOf(mins[group], 2));
+                row.setMaxAmount(BigDecimal.valueOf(maxes[group], 2));
+                row.setAverageAmount(BigDecimal.valueOf(sums[group], 2)
+                        .divide(BigDecimal.valueOf(counts[group]), 2, RoundingMode.HALF_UP));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private int maxMonthIndex(int[] selection, int selected) {
+        int max = 0;
+        for (int i = 0; i < selected; i++) {
+            max = Math.max(max, closedMonths[selection[i]]);
+        }
+        return max;
+    }
+
+    // --- Maintenance ---
+    private void markDeleted(int row) {
+        if (row == NO_VALUE) {
+            return;
+        }
+        long bit = 1L << row;
+        if ((deleted[row >>> 6] & bit) == 0) {
+            deleted[row >>> 6] |= bit;
+            deletedCount++;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) {
+            return;
+        }
+        resize(Math.max(needed, ids.length * 2));
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        employeeIndexes = Arrays.copyOf(employeeIndexes, capacity);
+        createdDays = Arrays.copyOf(createdDays, capacity);
+        closedDays = Arrays.copyOf(closedDays, capacity);
+        closedMonths = Arrays.copyOf(closedMonths, capacity);
+        deleted = Arrays.copyOf(deleted, (capacity + 63) / 64);
+    }
+
+    private void compactIfSparse() {
+        if (deletedCount > INITIAL_CAPACITY && deletedCount * 4 > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Slide live rows down over deleted ones and rebuild the id index
+     */
+    private void compact() {
+        LongIntMap rebuilt = new LongIntMap();
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if ((deleted[row >>> 6] & (1L << row)) != 0) {
+                continue;
+            }
+            ids[live] = ids[row];
+            cents[live] = cents[row];
+            statuses[live] = statuses[row];
+            employeeIndexes[live] = employeeIndexes[row];
+            createdDays[live] = createdDays[row];
+            closedDays[live] = closedDays[row];
+            closedMonths[live] = closedMonths[row];
+            rebuilt.put(ids[live], live);
+            live++;
+        }
+        Arrays.fill(deleted, 0L);
+        size = live;
+        deletedCount = 0;
+        rowById = rebuilt;
+    }
+
+    private int employeeIndex(long employeeId) {
+        int index = employeeIndexById.get(employeeId);
+        if (index != NO_VALUE) {
+            return index;
+        }
+        if (employeeCount == employeeIds.length) {
+            employeeIds = Arrays.copyOf(employeeIds, employeeCount * 2);
+        }
+        employeeIds[employeeCount] = employeeId;
+        employeeIndexById.put(employeeId, employeeCount);
+        return employeeCount++;
+    }
+
+    // Months since January 2000
+    private static int monthIndex(YearMonth month) {
+        return Math.max(0, (month.getYear() - 2000) * 12 + month.getMonthValue() - 1);
+    }
+
+    /**
+     * Open-addressing long to int map without boxing; get returns -1 for
+     * absent keys
+     */
+    static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int count;
+
+        LongIntMap() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                if (keys[slot] == EMPTY) {
+                    return NO_VALUE;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    put(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
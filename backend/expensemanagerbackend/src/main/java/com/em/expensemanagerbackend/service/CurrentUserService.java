@@ -0,0 +1,127 @@
+package com.em.expensemanagerbackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+/**
+ * Resolves the user behind the current request, shared by the services that
+ * need role-based access checks
+ */
+@Service
+public class CurrentUserService {
+
+    // Development users picked by X-Dev-User-Role (and the default when absent)
+    private static final Long DEV_EMPLOYEE_ID = 1L; // John Smith
+    private static final Long DEV_MANAGER_ID = 5L; // Robert Taylor
+    private static final Long DEV_FINANCE_ID = 7L; // David Brown
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Get current authenticated user For development mode: returns a user based
+     * on X-Dev-User-Role header or default
+     */
+    public User getCurrentUser() {
+        try {
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            if (principal instanceof User) {
+                return (User) principal;
+            }
+        } catch (Exception e) {
+            // Authentication context not available, use development mode
+        }
+
+        // DEVELOPMENT MODE: Check for role header to determine which user to return
+        return getDevModeUser();
+    }
+
+    /**
+     * Get the id of the current user without loading it from the database,
+     * for cheap checks such as conditional GETs. In development mode the id
+     * comes from the same headers as getCurrentUser, unverified.
+     */
+    public Long getCurrentUserId() {
+        try {
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            if (principal instanceof User) {
+                return ((User) principal).getId();
+            }
+        } catch (Exception e) {
+            // Authentication context not available, use development mode
+        }
+
+        try {
+            jakarta.servlet.http.HttpServletRequest request
+                    = ((org.springframework.web.context.request.ServletRequestAttributes) org.springframework.web.context.request.RequestContextHolder.currentRequestAttributes()).getRequest();
+
+            String devUserId = request.getHeader("X-Dev-User-Id");
+            if (devUserId != null) {
+                try {
+                    return Long.parseLong(devUserId);
+                } catch (NumberFormatException e) {
+                    // Invalid user ID, fall through to role-based selection
+                }
+            }
+
+            String devRole = request.getHeader("X-Dev-User-Role");
+            if ("EMPLOYEE".equalsIgnoreCase(devRole)) {
+                return DEV_EMPLOYEE_ID;
+            } else if ("FINANCE".equalsIgnoreCase(devRole)) {
+                return DEV_FINANCE_ID;
+            }
+        } catch (Exception e) {
+            // No request context available, use default
+        }
+
+        return DEV_MANAGER_ID;
+    }
+
+    /**
+     * Development mode user selection based on role
+     */
+    private User getDevModeUser() {
+        // Try to get current HTTP request to check for role header
+        try {
+            org.springframework.web.context.request.RequestContextHolder.currentRequestAttributes();
+            jakarta.servlet.http.HttpServletRequest request
+                    = ((org.springframework.web.context.request.ServletRequestAttributes) org.springframework.web.context.request.RequestContextHolder.currentRequestAttributes()).getRequest();
+
+            String devRole = request.getHeader("X-Dev-User-Role");
+            String devUserId = request.getHeader("X-Dev-User-Id");
+
+            // If specific user ID is provided
+            if (devUserId != null) {
+                try {
+                    Long userId = Long.parseLong(devUserId);
+                    return userRepository.findById(userId).orElseThrow(()
+                            -> new RuntimeException("Development user with ID " + userId + " not found"));
+                } catch (NumberFormatException e) {
+                    // Invalid user ID, fall through to role-based selection
+                }
+            }
+
+            // Role-based user selection
+            if ("EMPLOYEE".equalsIgnoreCase(devRole)) {
+                return userRepository.findById(DEV_EMPLOYEE_ID).orElseThrow(()
+                        -> new RuntimeException("Default employee user not found"));
+            } else if ("MANAGER".equalsIgnoreCase(devRole)) {
+                return userRepository.findById(DEV_MANAGER_ID).orElseThrow(()
+                        -> new RuntimeException("Default manager user not found"));
+            } else if ("FINANCE".equalsIgnoreCase(devRole)) {
+                return userRepository.findById(DEV_FINANCE_ID).orElseThrow(()
+                        -> new RuntimeException("Default finance user not found"));
+            }
+        } catch (Exception e) {
+            // No request context available, use default
+        }
+
+        // Default to manager user for testing manager endpoints
+        return userRepository.findById(DEV_MANAGER_ID).orElseThrow(()
+                -> new RuntimeException("Default development user not found"));
+    }
+}
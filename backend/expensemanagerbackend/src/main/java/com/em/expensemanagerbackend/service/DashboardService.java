@@ -0,0 +1,174 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.em.expensemanagerbackend.dto.DashboardResponseDto;
+import com.em.expensemanagerbackend.model.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Composes a role's dashboard from the same service calls its separate
+ * endpoints use. Sections run in parallel on virtual threads, each in its own
+ * transaction, under one shared deadline; the caller's security context and
+ * request attributes (dev-mode user headers) are carried onto each thread.
+ * Sections that fail or miss the deadline are cancelled and reported as
+ * unavailable instead of failing the whole dashboard. Every section holds a
+ * pooled connection, so the sections running at once across all requests are
+ * capped (by default at half the Hikari pool) and the rest wait their turn
+ * within the deadline.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseCountService expenseCountService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.dashboard.timeoutMs:2000}")
+    private long timeoutMs;
+
+    // Sections running at once across all dashboard requests; 0 means half the connection pool
+    @Value("${app.dashboard.maxConcurrentSections:0}")
+    private int maxConcurrentSections;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private Semaphore sectionPermits;
+
+    @PostConstruct
+    void init() {
+        sectionPermits = new Semaphore(maxConcurrentSections > 0 ? maxConcurrentSections
+                : Math.max(1, connectionPoolSize / 2), true);
+    }
+
+    /**
+     * Get the dashboard for the current user's role
+     */
+    public DashboardResponseDto getCurrentUserDashboard() {
+        User currentUser = currentUserService.getCurrentUser();
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+
+        switch (currentUser.getRole()) {
+            case EMPLOYEE -> {
+                sections.put("my-expenses", expenseService::getCurrentUserExpenses);
+                sections.put("my-pending", expenseService::getCurrentUserPendingExpenses);
+                sections.put("my-rejected", expenseService::getCurrentUserRejectedExpenses);
+            }
+            case MANAGER -> {
+                sections.put("pending-manager-approval", expenseService::getPendingExpensesForManagerApproval);
+                sections.put("approved-by-manager", expenseService::getExpensesApprovedByManager);
+                sections.put("manager-history", expenseService::getExpensesProcessedByManager);
+            }
+            case FINANCE -> {
+                sections.put("pending-finance-approval", expenseService::getPendingExpensesForFinanceApproval);
+                sections.put("approved-by-finance", expenseService::getExpensesApprovedByFinance);
+                sections.put("finance-history", expenseService::getExpensesProcessedByFinance);
+            }
+        }
+        sections.put("counts", expenseCountService::getCurrentUserStatusCounts);
+        sections.put("notifications", notificationService::getCurrentUserNotifications);
+        sections.put("unread-count", notificationService::getCurrentUserUnreadCount);
+
+        DashboardResponseDto dashboard = new DashboardResponseDto(currentUser.getRole());
+        runAll(sections, dashboard);
+        return dashboard;
+    }
+
+    /**
+     * Fan the sections out and collect them in declaration order until the
+     * shared deadline
+     */
+    void runAll(Map<String, Supplier<Object>> sections, DashboardResponseDto dashboard) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Object>> section : sections.entrySet()) {
+            String name = section.getKey();
+            Supplier<Object> loader = section.getValue();
+            futures.put(name, executor.submit(() -> {
+                // Cancelled at the deadline while still waiting: interrupted here, nothing to release
+                sectionPermits.acquire();
+                SecurityContextHolder.setContext(securityContext);
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "success";
+                try {
+                    return loader.get();
+                } catch (RuntimeException e) {
+                    outcome = "error";
+                    throw e;
+                } finally {
+                    sample.stop(meterRegistry.timer("dashboard.section", "section", name, "outcome", outcome));
+                    RequestContextHolder.resetRequestAttributes();
+                    SecurityContextHolder.clearContext();
+                    sectionPermits.release();
+                }
+            }));
+        }
+
+        for (Map.Entry<String, Future<Object>> future : futures.entrySet()) {
+            String name = future.getKey();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                dashboard.getSections().put(name, future.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.getValue().cancel(true);
+                dashboard.getUnavailable().add(name);
+                meterRegistry.counter("dashboard.section.timeouts", "section", name).increment();
+                log.warn("Dashboard section {} missed the {} ms deadline", name, timeoutMs);
+            } catch (ExecutionException e) {
+                dashboard.getUnavailable().add(name);
+                log.warn("Dashboard section {} failed: {}", name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Dashboard loading was interrupted");
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
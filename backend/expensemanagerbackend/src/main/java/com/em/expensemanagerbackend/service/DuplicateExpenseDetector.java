@@ -0,0 +1,252 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Flags submissions that probably repeat an earlier expense: the same
+ * employee, amount and normalized title within about a week (compared as
+ * fingerprints, see 15-expense-duplicates.sql), or the same receipt file.
+ *
+ * Nearly every submission is new, so a Bloom filter over all stored
+ * fingerprints and receipt hashes answers "certainly not a duplicate"
+ * in memory; only its positives (real ones plus about 1% false ones) reach
+ * the indexed exact lookup. Until the filter has been built, and after a
+ * failed rebuild, every probe goes to the database.
+ */
+@Service
+public class DuplicateExpenseDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateExpenseDetector.class);
+
+    // Must match the bucket size of 15-expense-duplicates.sql
+    static final int BUCKET_DAYS = 7;
+
+    @Autowired
+    private ExpenseRequestRepository expenseRequestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.expenses.duplicates.expectedEntries:1000000}")
+    private long expectedEntries;
+
+    @Value("${app.expenses.duplicates.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Filter being rebuilt; keys recorded meanwhile go into it as well
+    private volatile BloomFilter building;
+    private Counter probesFiltered;
+    private Counter probesChecked;
+    private Counter duplicatesFound;
+
+    @PostConstruct
+    void init() {
+        probesFiltered = meterRegistry.counter("expense.duplicates.probes", "result", "filtered");
+        probesChecked = meterRegistry.counter("expense.duplicates.probes", "result", "checked");
+        duplicatesFound = meterRegistry.counter("expense.duplicates.probes", "result", "found");
+    }
+
+    /**
+     * Fingerprint of an expense created on the given day
+     */
+    public static String fingerprint(Long employeeId, BigDecimal amount, String title, LocalDate createdOn) {
+        return fingerprint(employeeId, amount, title, bucket(createdOn));
+    }
+
+    /**
+     * Set the fingerprint of an expense and point it at the earliest
+     * expense submitted before it that it probably duplicates (or clear that
+     * link); a later copy never flags the original
+     */
+    public void check(ExpenseRequest expense, LocalDate createdOn) {
+        long bucket = bucket(createdOn);
+        List<String> neighbours = neighbourFingerprints(expense, bucket);
+        expense.setDupFingerprint(neighbours.get(1));
+        long beforeId = expense.getId() == null ? Long.MAX_VALUE : expense.getId();
+
+        Long duplicateOf = null;
+        if (expense.getReceiptHash() != null && mightContain(expense.getReceiptHash(), true)) {
+            duplicateOf = expenseRequestRepository.findFirstIdByReceiptHash(expense.getReceiptHash(), beforeId);
+        }
+        if (duplicateOf == null) {
+            List<String> candidates = new ArrayList<>(3);
+            for (String candidate : neighbours) {
+                if (mightContain(candidate, false)) {
+                    candidates.add(candidate);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                duplicateOf = expenseRequestRepository.findFirstIdByDupFingerprint(candidates, beforeId);
+            }
+        }
+        if (duplicateOf != null) {
+            duplicatesFound.increment();
+        }
+        expense.setPossibleDuplicateOfId(duplicateOf);
+    }
+
+    /**
+     * The first of the earlier, not yet stored items of the same batch that a
+     * checked expense probably duplicates, or null
+     */
+    public ExpenseRequest findInBatch(ExpenseRequest expense, LocalDate createdOn, List<ExpenseRequest> earlier) {
+        List<String> neighbours = neighbourFingerprints(expense, bucket(createdOn));
+        for (ExpenseRequest other : earlier) {
+            if ((expense.getReceiptHash() != null && expense.getReceiptHash().equals(other.getReceiptHash()))
+                    || neighbours.contains(other.getDupFingerprint())) {
+                duplicatesFound.increment();
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a saved expense's keys to the filter
+     */
+    public void record(ExpenseRequest expense) {
+        put(expense.getDupFingerprint(), expense.getReceiptHash());
+    }
+
+    /**
+     * Bulk imports insert fingerprints in SQL, bypassing record(); rebuilt in
+     * the background, not on the importing thread
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the filter from a streaming scan; also run periodically so that
+     * deleted and edited expenses stop costing lookups
+     */
+    @Scheduled(fixedDelayString = "${app.expenses.duplicates.rebuildIntervalMs:86400000}", initialDelay = 0)
+    public synchronized void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedEntries, falsePositiveRate);
+        building = fresh;
+        try {
+            long keys = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<Object[]> rows = expenseRequestRepository.streamDuplicateKeys()) {
+                    for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                        putInto(fresh, (String) row[0], (String) row[1]);
+                        count++;
+                    }
+                }
+                return count;
+            });
+            filter = fresh;
+            log.debug("Duplicate filter rebuilt from {} expenses", keys);
+        } catch (RuntimeException e) {
+            filter = null;
+            log.warn("Duplicate filter rebuild failed, probing the database directly: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    private boolean mightContain(String hash, boolean receipt) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(h1(hash, receipt), h2(hash, receipt))) {
+            probesFiltered.increment();
+            return false;
+        }
+        probesChecked.increment();
+        return true;
+    }
+
+    private void put(String fingerprint, String receiptHash) {
+        BloomFilter current = filter;
+        if (current != null) {
+            putInto(current, fingerprint, receiptHash);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            putInto(next, fingerprint, receiptHash);
+        }
+    }
+
+    private static void putInto(BloomFilter target, String fingerprint, String receiptHash) {
+        if (fingerprint != null) {
+            target.put(h1(fingerprint, false), h2(fingerprint, false));
+        }
+        if (receiptHash != null) {
+            target.put(h1(receiptHash, true), h2(receiptHash, true));
+        }
+    }
+
+    // Both key kinds are SHA-256 hex; receipts use the other half, keeping the two apart in the filter
+    private static long h1(String hash, boolean receipt) {
+        int start = receipt ? 32 : 0;
+        return Long.parseUnsignedLong(hash, start, start + 16, 16);
+    }
+
+    private static long h2(String hash, boolean receipt) {
+        int start = receipt ? 48 : 16;
+        return Long.parseUnsignedLong(hash, start, start + 16, 16);
+    }
+
+    static long bucket(LocalDate createdOn) {
+        return Math.floorDiv(createdOn.toEpochDay(), BUCKET_DAYS);
+    }
+
+    static String normalizeTitle(String title) {
+        return title.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    // Fingerprints of the week before, the expense's own week and the week after, so that a
+    // pair either side of a bucket boundary still matches
+    private static List<String> neighbourFingerprints(ExpenseRequest expense, long bucket) {
+        List<String> fingerprints = new ArrayList<>(3);
+        for (long b = bucket - 1; b <= bucket + 1; b++) {
+            fingerprints.add(fingerprint(expense.getEmployee().getId(), expense.getAmount(), expense.getTitle(), b));
+        }
+        return fingerprints;
+    }
+
+    private static String fingerprint(Long employeeId, BigDecimal amount, String title, long bucket) {
+        String key = employeeId + "|" + amount.setScale(2, RoundingMode.HALF_UP).toPlainString() + "|"
+                + normalizeTitle(title) + "|" + bucket;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Email channel for notifications. Events are buffered per recipient (or per
+ * role for team-wide notifications) and flushed once per digest window, so
+ * each recipient gets at most one email per window no matter how many events
+ * were raised. Role buffers are expanded to members once per flush rather than
+ * once per event.
+ */
+@Service
+public class EmailDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDigestService.class);
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.email.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.email.maxLinesPerDigest:50}")
+    private int maxLinesPerDigest;
+
+    private final Map<Long, DigestBuffer> userBuffers = new ConcurrentHashMap<>();
+    private final Map<UserRole, DigestBuffer> roleBuffers = new ConcurrentHashMap<>();
+
+    /**
+     * Queue a line for a single user's next digest
+     */
+    public void enqueueForUser(User recipient, String line) {
+        if (!enabled || recipient == null || recipient.getEmail() == null) {
+            return;
+        }
+        Long userId = recipient.getId();
+        String email = recipient.getEmail();
+        String name = recipient.getFullName();
+        afterCommit(() -> {
+            userBuffers.compute(userId, (id, buffer) -> {
+                DigestBuffer target = buffer != null ? buffer : new DigestBuffer(email, name);
+                target.add(line, maxLinesPerDigest);
+                return target;
+            });
+            meterRegistry.counter("email.digest.events", "target", "user").increment();
+        });
+    }
+
+    /**
+     * Queue a line for every member of a role's next digest
+     */
+    public void enqueueForRole(UserRole role, String line) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            roleBuffers.compute(role, (r, buffer) -> {
+                DigestBuffer target = buffer != null ? buffer : new DigestBuffer(null, null);
+                target.add(line, maxLinesPerDigest);
+                return target;
+            });
+            meterRegistry.counter("email.digest.events", "target", "role").increment();
+        });
+    }
+
+    /**
+     * Send one digest per recipient for everything buffered since the last
+     * flush
+     */
+    @Scheduled(fixedDelayString = "${app.email.digestWindowMs:300000}")
+    public void flush() {
+        Map<String, DigestBuffer> digests = new LinkedHashMap<>();
+
+        for (Long userId : new ArrayList<>(userBuffers.keySet())) {
+            DigestBuffer buffer = userBuffers.remove(userId);
+            if (buffer != null) {
+                digests.merge(buffer.email, buffer, DigestBuffer::mergeFrom);
+            }
+        }
+
+        Map<UserRole, DigestBuffer> drainedRoles = new EnumMap<>(UserRole.class);
+        for (UserRole role : new ArrayList<>(roleBuffers.keySet())) {
+            DigestBuffer buffer = roleBuffers.remove(role);
+            if (buffer != null) {
+                drainedRoles.put(role, buffer);
+            }
+        }
+        for (Map.Entry<UserRole, DigestBuffer> entry : drainedRoles.entrySet()) {
+            for (User member : userRepository.findByRole(entry.getKey())) {
+                DigestBuffer personal = new DigestBuffer(member.getEmail(), member.getFullName());
+                personal.mergeFrom(entry.getValue());
+                digests.merge(member.getEmail(), personal, DigestBuffer::mergeFrom);
+            }
+        }
+
+        for (DigestBuffer digest : digests.values()) {
+            try {
+                emailSender.send(digest.email, digest.subject(), digest.body());
+                meterRegistry.counter("email.digest.sent").increment();
+            } catch (RuntimeException e) {
+                meterRegistry.counter("email.digest.failed").increment();
+                log.warn("Failed to send notification digest to {}: {}", digest.email, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Buffer only once the triggering transaction commits, so rolled back
+     * transitions never reach anyone's inbox
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Lines collected for one recipient; keeps the first N lines and counts
+     * the rest
+     */
+    static final class DigestBuffer {
+
+        private final String email;
+        private final String name;
+        private final List<String> lines = new ArrayList<>();
+        private int total;
+
+        DigestBuffer(String email, String name) {
+            this.email = email;
+            this.name = name;
+        }
+
+        synchronized void add(String line, int maxLines) {
+            total++;
+            if (lines.size() < maxLines) {
+                lines.add(line);
+            }
+        }
+
+        synchronized DigestBuffer mergeFrom(DigestBuffer other) {
+            synchronized (other) {
+                lines.addAll(other.lines);
+                total += other.total;
+            }
+            return this;
+        }
+
+        String subject() {
+            return total == 1 ? "Expense Manager: 1 new update" : "Expense Manager: " + total + " new updates";
+        }
+
+        String body() {
+            StringBuilder body = new StringBuilder();
+            body.append("Hello ").append(name != null ? name : "there").append(",\n\n");
+            body.append("Here is what happened since your last update:\n\n");
+            for (String line : lines) {
+                body.append(" - ").append(line).append('\n');
+            }
+            if (total > lines.size()) {
+                body.append(" ... and ").append(total - lines.size()).append(" more\n");
+            }
+            return body.toString();
+        }
+    }
+}
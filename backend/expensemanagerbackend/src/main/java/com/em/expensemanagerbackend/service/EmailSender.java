@@ -0,0 +1,10 @@
+package com.em.expensemanagerbackend.service;
+
+/**
+ * Outbound email channel. The SMTP implementation is used when spring.mail.*
+ * is configured; tests and local runs can substitute a fake.
+ */
+public interface EmailSender {
+
+    void send(String to, String subject, String body);
+}
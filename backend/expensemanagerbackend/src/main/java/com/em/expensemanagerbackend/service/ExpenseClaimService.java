@@ -0,0 +1,175 @@
+package com.em.expensemanagerbackend.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Leases on PENDING_FINANCE expenses so that finance clerks working the same
+ * queue take disjoint items instead of racing for the same ones. A claim
+ * picks the highest-priority unclaimed expenses (waiting time plus amount,
+ * weighted) with FOR UPDATE SKIP LOCKED, so concurrent claimers never wait
+ * on each other, and records a lease in expense_claims. Leases are renewed
+ * by claiming or renewing again and lapse by themselves; expired and
+ * finished claims are swept periodically.
+ */
+@Service
+@Transactional
+public class ExpenseClaimService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseClaimService.class);
+
+    // Hours waiting times the age weight plus amount times the amount weight
+    private static final String PRIORITY = "(EXTRACT(EPOCH FROM (now() - e.created_at)) / 3600 * ? + e.amount * ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.finance.claims.leaseSeconds:900}")
+    private long leaseSeconds;
+
+    @Value("${app.finance.claims.maxBatch:50}")
+    private int maxBatch;
+
+    @Value("${app.finance.claims.ageWeightPerHour:1.0}")
+    private double ageWeightPerHour;
+
+    @Value("${app.finance.claims.amountWeight:0.01}")
+    private double amountWeight;
+
+    /**
+     * Claim up to limit more expenses for a clerk and renew the ones they
+     * already hold; returns all of their claims, highest priority first
+     */
+    public ClaimedExpenses claim(Long clerkId, int limit) {
+        int count = Math.max(1, Math.min(limit, maxBatch));
+        List<Long> claimed = jdbcTemplate.queryForList(
+                "WITH candidates AS ("
+                        + " SELECT e.id FROM expense_requests e"
+                        + " LEFT JOIN expense_claims c ON c.expense_id = e.id"
+                        + " WHERE e.status = 'PENDING_FINANCE' AND (c.expense_id IS NULL OR c.expires_at <= now())"
+                        + " ORDER BY " + PRIORITY + " DESC"
+                        + " LIMIT ?"
+                        + " FOR UPDATE OF e SKIP LOCKED)"
+                        + " INSERT INTO expense_claims (expense_id, claimed_by, claimed_at, expires_at)"
+                        + " SELECT id, ?, now(), now() + make_interval(secs => ?) FROM candidates"
+                        // Lost to a claim committed since our snapshot: skip rather than steal
+                        + " ON CONFLICT (expense_id) DO UPDATE SET claimed_by = EXCLUDED.claimed_by,"
+                        + " claimed_at = EXCLUDED.claimed_at, expires_at = EXCLUDED.expires_at"
+                        + " WHERE expense_claims.expires_at <= now()"
+                        + " RETURNING expense_id",
+                Long.class, ageWeightPerHour, amountWeight, count, clerkId, (double) leaseSeconds);
+        meterRegistry.counter("expense.claims", "outcome", "claimed").increment(claimed.size());
+        return renew(clerkId);
+    }
+
+    /**
+     * Extend a clerk's unexpired leases (lapsed ones must be claimed again)
+     * and return them, highest priority first
+     */
+    public ClaimedExpenses renew(Long clerkId) {
+        jdbcTemplate.update("UPDATE expense_claims SET expires_at = now() + make_interval(secs => ?) "
+                + "WHERE claimed_by = ? AND expires_at > now()", (double) leaseSeconds, clerkId);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT c.expense_id, c.expires_at FROM expense_claims c"
+                        + " JOIN expense_requests e ON e.id = c.expense_id"
+                        + " WHERE c.claimed_by = ? AND c.expires_at > now() AND e.status = 'PENDING_FINANCE'"
+                        + " ORDER BY " + PRIORITY + " DESC",
+                clerkId, ageWeightPerHour, amountWeight);
+        List<Long> ids = new ArrayList<>(rows.size());
+        LocalDateTime expiresAt = null;
+        for (Map<String, Object> row : rows) {
+            ids.add(((Number) row.get("expense_id")).longValue());
+            LocalDateTime rowExpiry = ((Timestamp) row.get("expires_at")).toLocalDateTime();
+            if (expiresAt == null || rowExpiry.isBefore(expiresAt)) {
+                expiresAt = rowExpiry;
+            }
+        }
+        return new ClaimedExpenses(ids, expiresAt);
+    }
+
+    /**
+     * Give back some (or, with no ids, all) of a clerk's claims
+     */
+    public int release(Long clerkId, List<Long> expenseIds) {
+        int released;
+        if (expenseIds == null || expenseIds.isEmpty()) {
+            released = jdbcTemplate.update("DELETE FROM expense_claims WHERE claimed_by = ?", clerkId);
+        } else {
+            released = jdbcTemplate.update("DELETE FROM expense_claims WHERE claimed_by = ? AND expense_id = ANY (?)",
+                    clerkId, expenseIds.toArray(new Long[0]));
+        }
+        meterRegistry.counter("expense.claims", "outcome", "released").increment(released);
+        return released;
+    }
+
+    /**
+     * Called when a clerk acts on an expense, in the same transaction: fails
+     * if another clerk holds a live lease on it, otherwise drops any claim
+     */
+    public void completeClaim(Long expenseId, Long clerkId) {
+        List<Long> holders = jdbcTemplate.queryForList(
+                "SELECT claimed_by FROM expense_claims WHERE expense_id = ? AND expires_at > now() AND claimed_by <> ?",
+                Long.class, expenseId, clerkId);
+        if (!holders.isEmpty()) {
+            throw new RuntimeException("Expense is claimed by another finance clerk");
+        }
+        jdbcTemplate.update("DELETE FROM expense_claims WHERE expense_id = ?", expenseId);
+    }
+
+    /**
+     * Sweep lapsed leases and claims on expenses that left PENDING_FINANCE
+     */
+    @Scheduled(fixedDelayString = "${app.finance.claims.cleanupIntervalMs:60000}", initialDelay = 60000)
+    public void purgeExpired() {
+        try {
+            int expired = jdbcTemplate.update("DELETE FROM expense_claims c WHERE c.expires_at <= now() "
+                    + "OR NOT EXISTS (SELECT 1 FROM expense_requests e WHERE e.id = c.expense_id "
+                    + "AND e.status = 'PENDING_FINANCE')");
+            if (expired > 0) {
+                meterRegistry.counter("expense.claims", "outcome", "expired").increment(expired);
+                log.debug("Purged {} expired expense claims", expired);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Expense claim purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A clerk's live claims, highest priority first, and when the earliest lapses
+     */
+    public static final class ClaimedExpenses {
+
+        private final List<Long> expenseIds;
+        private final LocalDateTime expiresAt;
+
+        ClaimedExpenses(List<Long> expenseIds, LocalDateTime expiresAt) {
+            this.expenseIds = expenseIds;
+            this.expiresAt = expiresAt;
+        }
+
+        public List<Long> getExpenseIds() {
+            return expenseIds;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+/**
+ * Dashboard badge counts: all status counts from one GROUP BY query, cached
+ * per employee, per manager team and globally. Each cached result remembers the
+ * ExpenseVersionService version it was loaded under and is reloaded once
+ * that version moves, so transitions invalidate it without explicit
+ * eviction.
+ */
+@Service
+public class ExpenseCountService {
+
+    @Autowired
+    private ExpenseRequestRepository expenseRequestRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private ExpenseVersionService expenseVersionService;
+
+    @Autowired
+    private UserHierarchyService userHierarchyService;
+
+    @Value("${app.expenses.countCacheMaxEmployees:10000}")
+    private int maxCachedEmployees;
+
+    private final Map<Long, CachedCounts> employeeCounts = new ConcurrentHashMap<>();
+    private final Map<Long, CachedCounts> managerCounts = new ConcurrentHashMap<>();
+    private volatile CachedCounts globalCounts;
+
+    /**
+     * Status counts for the current user: their own expenses for employees,
+     * their team's for managers (as in their queues) and all expenses for
+     * finance
+     */
+    @Transactional(readOnly = true)
+    public Map<ExpenseStatus, Long> getCurrentUserStatusCounts() {
+        User currentUser = currentUserService.getCurrentUser();
+        if (currentUser.getRole() == UserRole.EMPLOYEE) {
+            return getEmployeeStatusCounts(currentUser.getId());
+        }
+        if (currentUser.getRole() == UserRole.MANAGER) {
+            return getManagerTeamStatusCounts(currentUser.getId());
+        }
+        return getGlobalStatusCounts();
+    }
+
+    /**
+     * Status counts of everyone below a manager, plus employees without a
+     * manager when they are shared
+     */
+    @Transactional(readOnly = true)
+    public Map<ExpenseStatus, Long> getManagerTeamStatusCounts(Long managerId) {
+        // A team spans arbitrary employees and moves with the hierarchy; the global version covers both
+        long version = expenseVersionService.globalVersion();
+        CachedCounts cached = managerCounts.get(managerId);
+        if (cached != null && cached.version == version) {
+            return cached.counts;
+        }
+
+        List<Object[]> rows = new ArrayList<>(expenseRequestRepository.countByStatusInManagerTeam(managerId));
+        if (userHierarchyService.isUnassignedVisibleToAllManagers()) {
+            rows.addAll(expenseRequestRepository.countByStatusOfUnassignedEmployees(managerId));
+        }
+        CachedCounts fresh = new CachedCounts(version, toCounts(rows));
+        if (managerCounts.size() >= maxCachedEmployees) {
+            managerCounts.clear();
+        }
+        managerCounts.put(managerId, fresh);
+        return fresh.counts;
+    }
+
+    /**
+     * Status counts for one employee's expenses
+     */
+    @Transactional(readOnly = true)
+    public Map<ExpenseStatus, Long> getEmployeeStatusCounts(Long employeeId) {
+        // Read the version before querying so a concurrent change forces a reload next time
+        long version = expenseVersionService.employeeVersion(employeeId);
+        CachedCounts cached = employeeCounts.get(employeeId);
+        if (cached != null && cached.version == version) {
+            return cached.counts;
+        }
+
+        CachedCounts fresh = new CachedCounts(version,
+                toCounts(expenseRequestRepository.countByStatusForEmployee(employeeId)));
+        if (employeeCounts.size() >= maxCachedEmployees) {
+            employeeCounts.clear();
+        }
+        employeeCounts.put(employeeId, fresh);
+        return fresh.counts;
+    }
+
+    /**
+     * Status counts across all expenses
+     */
+    @Transactional(readOnly = true)
+    public Map<ExpenseStatus, Long> getGlobalStatusCounts() {
+        long version = expenseVersionService.globalVersion();
+        CachedCounts cached = globalCounts;
+        if (cached != null && cached.version == version) {
+            return cached.counts;
+        }
+
+        CachedCounts fresh = new CachedCounts(version, toCounts(expenseRequestRepository.countByStatus()));
+        globalCounts = fresh;
+        return fresh.counts;
+    }
+
+    /**
+     * Every status with its count, zero when no expense has it
+     */
+    static Map<ExpenseStatus, Long> toCounts(List<Object[]> rows) {
+        Map<ExpenseStatus, Long> counts = new EnumMap<>(ExpenseStatus.class);
+        for (ExpenseStatus status : ExpenseStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : rows) {
+            // Native queries return the status column as text; rows for the same status add up
+            ExpenseStatus status = row[0] instanceof ExpenseStatus ? (ExpenseStatus) row[0]
+                    : ExpenseStatus.valueOf((String) row[0]);
+            counts.merge(status, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static final class CachedCounts {
+
+        private final long version;
+        private final Map<ExpenseStatus, Long> counts;
+
+        CachedCounts(long version, Map<ExpenseStatus, Long> counts) {
+            this.version = version;
+            this.counts = counts;
+        }
+    }
+}
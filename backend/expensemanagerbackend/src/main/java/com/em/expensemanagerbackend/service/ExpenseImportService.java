@@ -0,0 +1,344 @@
+package com.em.expensemanagerbackend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.dto.ImportRejectDto;
+import com.em.expensemanagerbackend.dto.ImportReportDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.model.User;
+
+/**
+ * Bulk import of historical expenses from CSV. The file is parsed as a
+ * stream; each row is validated and its employee email resolved against a
+ * map of all users loaded once per import, then valid rows are streamed into
+ * a temporary staging table with COPY and moved into expense_requests (and
+ * employee_expense_summary) with one set-based statement each, all in one
+ * transaction. Invalid rows are skipped and reported by line number.
+ *
+ * Columns (header row required, any order, extra columns ignored):
+ * employee_email, title, amount, and optionally description, receipt_url,
+ * status (default PAID) and created_at (ISO date or date-time, default now).
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final int COPY_CHUNK_CHARS = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.import.maxReportedRejects:1000}")
+    private int maxReportedRejects;
+
+    /**
+     * Import on behalf of the current user (Finance only)
+     */
+    public ImportReportDto importExpensesAsCurrentUser(Reader csv) {
+        User currentUser = currentUserService.getCurrentUser();
+        if (currentUser.getRole() != UserRole.FINANCE) {
+            throw new RuntimeException("Access denied: Only finance staff can import expenses");
+        }
+        return importExpenses(csv);
+    }
+
+    /**
+     * Import without an access check, for the command line
+     */
+    public ImportReportDto importExpenses(Reader csv) {
+        long started = System.nanoTime();
+        ImportReportDto report = new ImportReportDto();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            load(connection, csv, report);
+            return null;
+        }));
+        report.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        log.info("Expense import: {} row(s) read, {} imported, {} rejected in {} ms", report.getRowsRead(),
+                report.getRowsImported(), report.getRowsRejected(), report.getDurationMs());
+
+        if (report.getRowsImported() > 0) {
+            eventPublisher.publishEvent(new ExpensesImportedEvent(report.getRowsImported()));
+        }
+        return report;
+    }
+
+    private void load(Connection connection, Reader csv, ImportReportDto report) throws SQLException {
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users",
+                rs -> {
+                    userIds.put(rs.getString(2).toLowerCase(Locale.ROOT), rs.getLong(1));
+                });
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE expense_import_staging (line_no BIGINT NOT NULL, "
+                    + "employee_id BIGINT NOT NULL, title VARCHAR(255) NOT NULL, description TEXT, "
+                    + "amount DECIMAL(12, 2) NOT NULL, receipt_url VARCHAR(255), status VARCHAR(30) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL) ON COMMIT DROP");
+        }
+
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY expense_import_staging "
+                + "(line_no, employee_id, title, description, amount, receipt_url, status, created_at) "
+                + "FROM STDIN WITH (FORMAT csv)");
+        try {
+            ExpenseCsvReader reader = new ExpenseCsvReader(csv);
+            List<String> header = nextRecord(reader);
+            if (header == null) {
+                throw new RuntimeException("CSV file is empty");
+            }
+            RowConverter converter = new RowConverter(header, userIds, LocalDateTime.now());
+            StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 1024);
+
+            List<String> record;
+            while ((record = nextRecord(reader)) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                try {
+                    converter.appendCopyRow(reader.recordLine(), record, chunk);
+                } catch (IllegalArgumentException e) {
+                    reject(report, reader.recordLine(), e.getMessage());
+                }
+                if (chunk.length() >= COPY_CHUNK_CHARS) {
+                    writeChunk(copy, chunk);
+                }
+            }
+            writeChunk(copy, chunk);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            // dup_fingerprint as in 15-expense-duplicates.sql and DuplicateExpenseDetector
+            int imported = statement.executeUpdate("INSERT INTO expense_requests "
+                    + "(employee_id, title, description, amount, receipt_url, status, created_at, updated_at, "
+                    + "dup_fingerprint) "
+                    + "SELECT employee_id, title, description, amount, receipt_url, status, "
+                    + "created_at, created_at, encode(sha256(convert_to(employee_id || '|' || amount::text || '|' "
+                    + "|| btrim(regexp_replace(lower(title), '[^a-z0-9]+', ' ', 'g')) || '|' "
+                    + "|| ((created_at::date - DATE '1970-01-01') / 7), 'UTF8')), 'hex') "
+                    + "FROM expense_import_staging ORDER BY line_no");
+            statement.executeUpdate("INSERT INTO employee_expense_summary "
+                    + "(employee_id, status, month, total_amount, expense_count, updated_at) "
+                    + "SELECT employee_id, status, date_trunc('month', created_at)::date, SUM(amount), COUNT(*), now() "
+                    + "FROM expense_import_staging GROUP BY employee_id, status, date_trunc('month', created_at)::date "
+                    + "ON CONFLICT (employee_id, status, month) DO UPDATE SET "
+                    + "total_amount = employee_expense_summary.total_amount + EXCLUDED.total_amount, "
+                    + "expense_count = employee_expense_summary.expense_count + EXCLUDED.expense_count, "
+                    + "updated_at = now()");
+            report.setRowsImported(imported);
+        }
+    }
+
+    private static List<String> nextRecord(ExpenseCsvReader reader) {
+        try {
+            return reader.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read CSV", e);
+        }
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private void reject(ImportReportDto report, long line, String reason) {
+        report.setRowsRejected(report.getRowsRejected() + 1);
+        if (report.getRejects().size() < maxReportedRejects) {
+            report.getRejects().add(new ImportRejectDto(line, reason));
+        } else {
+            report.setRejectsTruncated(true);
+        }
+    }
+
+    /**
+     * Validates one CSV record and renders it as a COPY (CSV format) row of
+     * the staging table
+     */
+    static final class RowConverter {
+
+        private final Map<String, Long> userIds;
+        private final LocalDateTime now;
+        private final int columnCount;
+        private final int email;
+        private final int title;
+        private final int amount;
+        private final int description;
+        private final int receiptUrl;
+        private final int status;
+        private final int createdAt;
+
+        RowConverter(List<String> header, Map<String, Long> userIds, LocalDateTime now) {
+            this.userIds = userIds;
+            this.now = now;
+            this.columnCount = header.size();
+            // A byte order mark from spreadsheet exports would otherwise stick to the first name
+            List<String> names = header.stream()
+                    .map(name -> name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            this.email = requiredColumn(names, "employee_email");
+            this.title = requiredColumn(names, "title");
+            this.amount = requiredColumn(names, "amount");
+            this.description = names.indexOf("description");
+            this.receiptUrl = names.indexOf("receipt_url");
+            this.status = names.indexOf("status");
+            this.createdAt = names.indexOf("created_at");
+        }
+
+        void appendCopyRow(long line, List<String> record, StringBuilder out) {
+            if (record.size() != columnCount) {
+                throw new IllegalArgumentException("Expected " + columnCount + " fields but found " + record.size());
+            }
+
+            String employeeEmail = value(record, email);
+            if (employeeEmail == null) {
+                throw new IllegalArgumentException("employee_email is required");
+            }
+            Long employeeId = userIds.get(employeeEmail.toLowerCase(Locale.ROOT));
+            if (employeeId == null) {
+                throw new IllegalArgumentException("Unknown employee email: " + employeeEmail);
+            }
+
+            String titleValue = value(record, title);
+            if (titleValue == null) {
+                throw new IllegalArgumentException("title is required");
+            }
+            checkLength("title", titleValue, 255);
+            String descriptionValue = value(record, description);
+            checkLength("description", descriptionValue, 500);
+            String receiptUrlValue = value(record, receiptUrl);
+            checkLength("receipt_url", receiptUrlValue, 255);
+
+            BigDecimal amountValue = parseAmount(value(record, amount));
+            ExpenseStatus statusValue = parseStatus(value(record, status));
+            LocalDateTime createdAtValue = parseCreatedAt(value(record, createdAt));
+
+            out.append(line).append(',').append(employeeId).append(',');
+            appendQuoted(out, titleValue).append(',');
+            appendQuoted(out, descriptionValue).append(',');
+            out.append(amountValue.toPlainString()).append(',');
+            appendQuoted(out, receiptUrlValue).append(',');
+            out.append(statusValue.name()).append(',');
+            out.append(createdAtValue).append('\n');
+        }
+
+        private BigDecimal parseAmount(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("amount is required");
+            }
+            BigDecimal parsed;
+            try {
+                parsed = new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + value);
+            }
+            if (parsed.signum() <= 0) {
+                throw new IllegalArgumentException("Amount must be greater than 0");
+            }
+            if (parsed.scale() > 2 || parsed.precision() - parsed.scale() > 10) {
+                throw new IllegalArgumentException("Amount must have at most 10 digits and 2 decimals: " + value);
+            }
+            return parsed;
+        }
+
+        private ExpenseStatus parseStatus(String value) {
+            if (value == null) {
+                return ExpenseStatus.PAID;
+            }
+            try {
+                return ExpenseStatus.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status: " + value);
+            }
+        }
+
+        private LocalDateTime parseCreatedAt(String value) {
+            if (value == null) {
+                return now;
+            }
+            LocalDateTime parsed;
+            try {
+                parsed = value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid created_at (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm[:ss]): " + value);
+            }
+            if (parsed.isAfter(now)) {
+                throw new IllegalArgumentException("created_at is in the future: " + value);
+            }
+            return parsed;
+        }
+
+        private static String value(List<String> record, int index) {
+            if (index < 0) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static void checkLength(String column, String value, int max) {
+            if (value != null && value.length() > max) {
+                throw new IllegalArgumentException(column + " must not exceed " + max + " characters");
+            }
+        }
+
+        // Quoted so an empty string stays distinct from NULL (an empty unquoted field)
+        private static StringBuilder appendQuoted(StringBuilder out, String value) {
+            if (value == null) {
+                return out;
+            }
+            return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        private static int requiredColumn(List<String> names, String column) {
+            int index = names.indexOf(column);
+            if (index < 0) {
+                throw new RuntimeException("Missing column: " + column);
+            }
+            return index;
+        }
+    }
+}
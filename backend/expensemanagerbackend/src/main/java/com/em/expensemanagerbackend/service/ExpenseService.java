@@ -1,14 +1,29 @@
 package com.em.expensemanagerbackend.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.em.expensemanagerbackend.dto.BatchExpenseResponseDto;
+import com.em.expensemanagerbackend.dto.BatchExpenseResultDto;
 import com.em.expensemanagerbackend.dto.CreateExpenseRequestDto;
+import com.em.expensemanagerbackend.dto.ExpenseClaimsResponseDto;
+import com.em.expensemanagerbackend.dto.ExpenseChangesResponseDto;
 import com.em.expensemanagerbackend.dto.ExpenseRequestResponseDto;
 import com.em.expensemanagerbackend.dto.FinanceActionRequestDto;
 import com.em.expensemanagerbackend.dto.FinanceRejectionRequestDto;
@@ -17,12 +32,21 @@ import com.em.expensemanagerbackend.enums.ExpenseStatus;
 import com.em.expensemanagerbackend.enums.FinanceActionType;
 import com.em.expensemanagerbackend.enums.ManagerActionType;
 import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.enums.WorkflowAction;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.event.ReceiptAttachedEvent;
 import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.ExpenseTombstone;
 import com.em.expensemanagerbackend.model.FinanceAction;
 import com.em.expensemanagerbackend.model.ManagerAction;
+import com.em.expensemanagerbackend.model.ReceiptBlob;
 import com.em.expensemanagerbackend.model.User;
 import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
-import com.em.expensemanagerbackend.repository.UserRepository;
+import com.em.expensemanagerbackend.repository.ExpenseTombstoneRepository;
+import com.em.expensemanagerbackend.repository.ReceiptBlobRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 @Service
 @Transactional
@@ -32,13 +56,56 @@ public class ExpenseService {
     private ExpenseRequestRepository expenseRequestRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ExpenseTombstoneRepository expenseTombstoneRepository;
+
+    @Autowired
+    private ReceiptBlobRepository receiptBlobRepository;
+
+    @Autowired
+    private DuplicateExpenseDetector duplicateExpenseDetector;
+
+    @Autowired
+    private AmountAnomalyService amountAnomalyService;
+
+    @Autowired
+    private ApprovalRuleEngine approvalRuleEngine;
+
+    @Autowired
+    private ExpenseWorkflow expenseWorkflow;
+
+    @Autowired
+    private UserHierarchyService userHierarchyService;
+
+    @Autowired
+    private ExpenseClaimService expenseClaimService;
+
+    @Autowired
+    private CurrentUserService currentUserService;
 
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private WebhookOutboxService webhookOutboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.expenses.changeFeedPageSize:500}")
+    private int changeFeedPageSize;
+
+    @Value("${app.expenses.batchMaxSize:100}")
+    private int batchMaxSize;
+
     /**
-     * Create a new expense request (starts as PENDING_MANAGER)
+     * Create a new expense request (starts as PENDING_MANAGER, or as if a
+     * manager had approved it when an auto-approval rule matches)
      */
     public ExpenseRequestResponseDto createExpenseRequest(CreateExpenseRequestDto createDto) {
         // Get current authenticated user
@@ -52,18 +119,103 @@ public class ExpenseService {
         expense.setReceiptUrl(createDto.getReceiptUrl());
         expense.setStatus(ExpenseStatus.PENDING_MANAGER);
         expense.setEmployee(currentUser);
+        duplicateExpenseDetector.check(expense, LocalDate.now());
+        amountAnomalyService.score(expense);
+
+        // Routine expenses matching an auto-approval rule get the manager approval from the
+        // system, through the workflow table: while manager steps of the chain remain a manager still signs
+        String approvalRule = approvalRuleEngine.match(expense);
+        if (approvalRule != null) {
+            expense.setStatus(expenseWorkflow.resolve(expense, UserRole.MANAGER, WorkflowAction.APPROVE)
+                    .targetFor(expense));
+            expense.addManagerAction(new ManagerAction(ManagerActionType.APPROVED,
+                    "Auto-approved by rule '" + approvalRule + "'", expense, null));
+        }
 
         // Save the expense
         ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
+        duplicateExpenseDetector.record(savedExpense);
+        publishChange(savedExpense, null, null);
 
-        // Notify managers of new expense submission
-        notificationService.notifyManagersOfNewExpense(savedExpense);
+        // Notify managers of new expense submission, or employee and finance when it skipped them
+        if (savedExpense.getStatus() == ExpenseStatus.PENDING_FINANCE) {
+            notificationService.notifyExpenseAutoApproved(savedExpense, approvalRule);
+        } else {
+            notificationService.notifyManagersOfNewExpense(savedExpense);
+        }
 
         // Convert to response DTO
         ExpenseRequestResponseDto responseDto = convertToResponseDto(savedExpense);
         return responseDto;
     }
 
+    /**
+     * Create several expense requests in one transaction (offline clients
+     * uploading a queue). Every item is validated on its own; the valid ones
+     * go through auto-approval like single submissions, are inserted with one
+     * multi-row INSERT and announced with one notification to managers for
+     * those in their queue and one to employee and finance for those sent
+     * straight to finance. Results keep the order of the input.
+     */
+    public BatchExpenseResponseDto createExpenseRequests(List<CreateExpenseRequestDto> createDtos) {
+        if (createDtos == null || createDtos.isEmpty()) {
+            throw new RuntimeException("Batch must contain at least one expense");
+        }
+        if (createDtos.size() > batchMaxSize) {
+            throw new RuntimeException("Batch must not contain more than " + batchMaxSize + " expenses");
+        }
+        User currentUser = getCurrentUser();
+
+        List<BatchExpenseResultDto> results = new ArrayList<>(createDtos.size());
+        List<Integer> validIndexes = new ArrayList<>();
+        List<CreateExpenseRequestDto> validDtos = new ArrayList<>();
+        for (int i = 0; i < createDtos.size(); i++) {
+            CreateExpenseRequestDto createDto = createDtos.get(i);
+            Map<String, String> errors = new LinkedHashMap<>();
+            if (createDto == null) {
+                errors.put("expense", "Expense is required");
+            } else {
+                for (ConstraintViolation<CreateExpenseRequestDto> violation : validator.validate(createDto)) {
+                    errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+            }
+            if (errors.isEmpty()) {
+                validIndexes.add(i);
+                validDtos.add(createDto);
+                results.add(null);
+            } else {
+                results.add(BatchExpenseResultDto.failed(i, errors));
+            }
+        }
+
+        if (!validDtos.isEmpty()) {
+            List<String> approvalRules = new ArrayList<>(validDtos.size());
+            List<ExpenseRequest> savedExpenses = insertNewExpenses(currentUser, validDtos, approvalRules);
+            List<ExpenseRequest> managerQueue = new ArrayList<>();
+            List<ExpenseRequest> autoApproved = new ArrayList<>();
+            List<String> autoApprovedRules = new ArrayList<>();
+            for (int j = 0; j < savedExpenses.size(); j++) {
+                ExpenseRequest savedExpense = savedExpenses.get(j);
+                publishChange(savedExpense, null, null);
+                results.set(validIndexes.get(j), BatchExpenseResultDto.created(validIndexes.get(j),
+                        convertToResponseDto(savedExpense)));
+                if (savedExpense.getStatus() == ExpenseStatus.PENDING_FINANCE) {
+                    autoApproved.add(savedExpense);
+                    autoApprovedRules.add(approvalRules.get(j));
+                } else {
+                    managerQueue.add(savedExpense);
+                }
+            }
+            if (!managerQueue.isEmpty()) {
+                notificationService.notifyManagersOfNewExpenses(currentUser, managerQueue);
+            }
+            if (!autoApproved.isEmpty()) {
+                notificationService.notifyExpensesAutoApproved(currentUser, autoApproved, autoApprovedRules);
+            }
+        }
+        return new BatchExpenseResponseDto(results);
+    }
+
     /**
      * Get all expenses for the current user
      */
@@ -77,13 +229,17 @@ public class ExpenseService {
     }
 
     /**
-     * Get pending expenses for the current user
+     * Get pending expenses for the current user (still with managers)
      */
     @Transactional(readOnly = true)
     public List<ExpenseRequestResponseDto> getCurrentUserPendingExpenses() {
         User currentUser = getCurrentUser();
-        List<ExpenseRequest> expenses = expenseRequestRepository.findByEmployeeIdAndStatusOrderByCreatedAtDesc(
-                currentUser.getId(), ExpenseStatus.PENDING_MANAGER);
+        List<ExpenseRequest> expenses = new ArrayList<>();
+        for (ExpenseStatus status : expenseWorkflow.actionableStatuses(UserRole.MANAGER)) {
+            expenses.addAll(expenseRequestRepository.findByEmployeeIdAndStatusOrderByCreatedAtDesc(
+                    currentUser.getId(), status));
+        }
+        expenses.sort(Comparator.comparing(ExpenseRequest::getCreatedAt, Comparator.reverseOrder()));
         return expenses.stream()
                 .map(this::convertToResponseDto)
                 .collect(Collectors.toList());
@@ -116,7 +272,28 @@ public class ExpenseService {
         User currentUser = getCurrentUser();
         ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
+        checkCanView(currentUser, expense);
+        return convertToResponseDto(expense);
+    }
+
+    /**
+     * Receipt file details of an expense, with the same access rules as
+     * getExpenseById
+     */
+    @Transactional(readOnly = true)
+    public ReceiptBlob getReceipt(Long expenseId) {
+        User currentUser = getCurrentUser();
+        ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        checkCanView(currentUser, expense);
+        if (expense.getReceiptHash() == null) {
+            throw new RuntimeException("Receipt not found");
+        }
+        return receiptBlobRepository.findById(expense.getReceiptHash())
+                .orElseThrow(() -> new RuntimeException("Receipt not found"));
+    }
 
+    private void checkCanView(User currentUser, ExpenseRequest expense) {
         // Role-based access control
         if (currentUser.getRole() == UserRole.EMPLOYEE) {
             // Employees can only view their own expenses
@@ -133,8 +310,100 @@ public class ExpenseService {
             // Unknown role, deny access
             throw new RuntimeException("Access denied");
         }
+    }
 
-        return convertToResponseDto(expense);
+    /**
+     * Get expenses created, updated or deleted after a change-feed cursor.
+     * Employees see their own expenses; managers and finance see all, the same
+     * visibility as getExpenseById. Changes and deletions are merged in feed
+     * order, (writing transaction, change_seq), and cut at the page size. Only
+     * changes of transactions older than every transaction still running are
+     * handed out: one still in flight may hold a lower change_seq than rows
+     * already committed, and would otherwise land behind the client's cursor.
+     */
+    @Transactional(readOnly = true)
+    public ExpenseChangesResponseDto getChangesSince(String since, Integer limit) {
+        User currentUser = getCurrentUser();
+        int pageSize = limit == null || limit <= 0 ? changeFeedPageSize : Math.min(limit, changeFeedPageSize);
+        long[] position = parseChangeCursor(since);
+        String sinceXid = Long.toString(position[0]);
+        String boundXid = jdbcTemplate.queryForObject(
+                "SELECT CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text)", String.class);
+
+        // One extra row from each side tells whether another page follows
+        List<Object[]> changed;
+        List<Object[]> deleted;
+        if (currentUser.getRole() == UserRole.EMPLOYEE) {
+            changed = expenseRequestRepository.findChangePositionsSinceForEmployee(currentUser.getId(), sinceXid,
+                    position[1], boundXid, pageSize + 1);
+            deleted = expenseTombstoneRepository.findChangePositionsSinceForEmployee(currentUser.getId(), sinceXid,
+                    position[1], boundXid, pageSize + 1);
+        } else {
+            changed = expenseRequestRepository.findChangePositionsSince(sinceXid, position[1], boundXid,
+                    pageSize + 1);
+            deleted = expenseTombstoneRepository.findChangePositionsSince(sinceXid, position[1], boundXid,
+                    pageSize + 1);
+        }
+
+        List<Object[]> changedPage = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        Object[] last = null;
+        int c = 0;
+        int d = 0;
+        while (changedPage.size() + deletedIds.size() < pageSize && (c < changed.size() || d < deleted.size())) {
+            boolean takeChanged = d >= deleted.size()
+                    || (c < changed.size() && compareChangePositions(changed.get(c), deleted.get(d)) < 0);
+            if (takeChanged) {
+                last = changed.get(c++);
+                changedPage.add(last);
+            } else {
+                last = deleted.get(d++);
+                deletedIds.add(((Number) last[0]).longValue());
+            }
+        }
+        boolean hasMore = c < changed.size() || d < deleted.size();
+
+        List<ExpenseRequestResponseDto> changedDtos = new ArrayList<>(changedPage.size());
+        if (!changedPage.isEmpty()) {
+            List<Long> ids = changedPage.stream().map(row -> ((Number) row[0]).longValue()).toList();
+            Map<Long, ExpenseRequest> expenses = expenseRequestRepository.findWithEmployeeByIdIn(ids).stream()
+                    .collect(Collectors.toMap(ExpenseRequest::getId, expense -> expense));
+            // One deleted since the positions were read comes back as a tombstone on a later page
+            for (Long id : ids) {
+                ExpenseRequest expense = expenses.get(id);
+                if (expense != null) {
+                    changedDtos.add(convertToResponseDto(expense));
+                }
+            }
+        }
+
+        String cursor = last == null ? position[0] + ":" + position[1] : last[1] + ":" + ((Number) last[2]).longValue();
+        return new ExpenseChangesResponseDto(cursor, hasMore, changedDtos, deletedIds);
+    }
+
+    // "<xid>:<change_seq>" of the last change a client has; "0" (or a cursor
+    // from before positions carried a transaction id) starts from the beginning
+    static long[] parseChangeCursor(String since) {
+        if (since == null || since.isBlank() || since.chars().allMatch(Character::isDigit)) {
+            return new long[] { 0, 0 };
+        }
+        int colon = since.indexOf(':');
+        try {
+            if (colon > 0) {
+                return new long[] { Long.parseLong(since.substring(0, colon)),
+                        Long.parseLong(since.substring(colon + 1)) };
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new RuntimeException("Invalid change-feed cursor: " + since);
+    }
+
+    // Feed order of two (id, change_xid, change_seq) rows
+    private static int compareChangePositions(Object[] a, Object[] b) {
+        int byTransaction = Long.compare(Long.parseLong((String) a[1]), Long.parseLong((String) b[1]));
+        return byTransaction != 0 ? byTransaction
+                : Long.compare(((Number) a[2]).longValue(), ((Number) b[2]).longValue());
     }
 
     /**
@@ -158,11 +427,21 @@ public class ExpenseService {
             throw new RuntimeException("Only pending or rejected expenses can be updated");
         }
 
+        // The client edited an older version than the one stored (e.g. approved meanwhile)
+        if (updateDto.getVersion() != null && !updateDto.getVersion().equals(expense.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(ExpenseRequest.class, expenseId);
+        }
+
         // Update the expense
+        ExpenseStatus previousStatus = expense.getStatus();
+        BigDecimal previousAmount = expense.getAmount();
         expense.setTitle(updateDto.getTitle());
         expense.setDescription(updateDto.getDescription());
         expense.setAmount(updateDto.getAmount());
-        expense.setReceiptUrl(updateDto.getReceiptUrl());
+        // An uploaded receipt keeps its download URL; a client-supplied URL only applies without one
+        if (expense.getReceiptHash() == null) {
+            expense.setReceiptUrl(updateDto.getReceiptUrl());
+        }
 
         // If the expense was rejected, return it to PENDING_MANAGER status when edited
         // This preserves the full history while allowing the expense to be reconsidered
@@ -170,11 +449,63 @@ public class ExpenseService {
                 || expense.getStatus() == ExpenseStatus.REJECTED_FINANCE) {
             expense.setStatus(ExpenseStatus.PENDING_MANAGER);
         }
+        duplicateExpenseDetector.check(expense, expense.getCreatedAt().toLocalDate());
+        if (previousAmount.compareTo(expense.getAmount()) != 0) {
+            amountAnomalyService.score(expense);
+        }
 
-        ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
+        // Flush so the version check runs here and the response carries the new version
+        ExpenseRequest savedExpense = expenseRequestRepository.saveAndFlush(expense);
+        duplicateExpenseDetector.record(savedExpense);
+        publishChange(savedExpense, previousStatus, previousAmount);
         return convertToResponseDto(savedExpense);
     }
 
+    /**
+     * Fail as attachReceipt would, before the upload is streamed to storage,
+     * so a rejected upload leaves no blob behind
+     */
+    @Transactional(readOnly = true)
+    public void checkCanAttachReceipt(Long expenseId) {
+        findReceiptEditableExpense(expenseId);
+    }
+
+    /**
+     * Link a stored receipt to one of the current user's editable expenses;
+     * receiptUrl then points at the download endpoint, versioned by the
+     * content hash so that clients may cache it forever
+     */
+    public ExpenseRequestResponseDto attachReceipt(Long expenseId, ReceiptStorageService.StoredReceipt receipt) {
+        ExpenseRequest expense = findReceiptEditableExpense(expenseId);
+
+        receiptBlobRepository.insertIfAbsent(receipt.getHash(), receipt.getSizeBytes(), receipt.getContentType());
+        expense.setReceiptHash(receipt.getHash());
+        expense.setReceiptUrl("/api/expenses/" + expenseId + "/receipt?v=" + receipt.getHash());
+        duplicateExpenseDetector.check(expense, expense.getCreatedAt().toLocalDate());
+
+        ExpenseRequest savedExpense = expenseRequestRepository.saveAndFlush(expense);
+        duplicateExpenseDetector.record(savedExpense);
+        publishChange(savedExpense, savedExpense.getStatus(), savedExpense.getAmount());
+        eventPublisher.publishEvent(new ReceiptAttachedEvent(expenseId, receipt.getHash(), receipt.getContentType()));
+        return convertToResponseDto(savedExpense);
+    }
+
+    private ExpenseRequest findReceiptEditableExpense(Long expenseId) {
+        User currentUser = getCurrentUser();
+        ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+
+        if (!expense.getEmployee().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("Access denied");
+        }
+        if (expense.getStatus() != ExpenseStatus.PENDING_MANAGER
+                && expense.getStatus() != ExpenseStatus.REJECTED_MANAGER
+                && expense.getStatus() != ExpenseStatus.REJECTED_FINANCE) {
+            throw new RuntimeException("Only pending or rejected expenses can be updated");
+        }
+        return expense;
+    }
+
     /**
      * Delete a pending expense (only if not yet processed by manager)
      */
@@ -196,12 +527,21 @@ public class ExpenseService {
             throw new RuntimeException("Only pending or rejected expenses can be deleted");
         }
 
+        // Notifications reference the expense, keep them but drop the link
+        notificationService.detachFromExpense(expense.getId());
+
+        // Leave a tombstone so change-feed clients drop it from their local copy
+        expenseTombstoneRepository.save(new ExpenseTombstone(expense.getId(), expense.getEmployee().getId()));
+
         expenseRequestRepository.delete(expense);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(expense.getId(), expense.getEmployee().getId(),
+                expense.getStatus(), null, expense.getAmount(), null, expense.getCreatedAt()));
     }
 
     // ============= MANAGER OPERATIONS =============
     /**
-     * Get all pending expenses awaiting manager approval
+     * Get the pending expenses of the current manager's team awaiting manager
+     * approval
      */
     @Transactional(readOnly = true)
     public List<ExpenseRequestResponseDto> getPendingExpensesForManagerApproval() {
@@ -212,15 +552,29 @@ public class ExpenseService {
             throw new RuntimeException("Access denied: Only managers can view pending approvals");
         }
 
-        List<ExpenseRequest> pendingExpenses = expenseRequestRepository.findPendingManagerApproval(ExpenseStatus.PENDING_MANAGER);
+        List<ExpenseRequest> pendingExpenses = findInManagerTeam(currentUser,
+                expenseWorkflow.actionableStatuses(UserRole.MANAGER),
+                Comparator.comparing(ExpenseRequest::getCreatedAt));
         return pendingExpenses.stream()
                 .map(this::convertToResponseDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Pending manager approvals, most unusual amounts first; expenses without
+     * an anomaly score (too little history) come last, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseRequestResponseDto> getPendingExpensesForManagerApprovalByAnomaly() {
+        List<ExpenseRequestResponseDto> expenses = new ArrayList<>(getPendingExpensesForManagerApproval());
+        expenses.sort(Comparator.comparing(ExpenseRequestResponseDto::getAnomalyScore,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return expenses;
+    }
+
     /**
      * Get all expenses approved by manager (for approved tab) Includes expenses
-     * with PENDING_FINANCE and PAID statuses
+     * with APPROVED_MANAGER, PENDING_FINANCE and PAID statuses
      */
     @Transactional(readOnly = true)
     public List<ExpenseRequestResponseDto> getExpensesApprovedByManager() {
@@ -231,8 +585,10 @@ public class ExpenseService {
             throw new RuntimeException("Access denied: Only managers can view approved expenses");
         }
 
-        List<ExpenseStatus> approvedStatuses = List.of(ExpenseStatus.PENDING_FINANCE, ExpenseStatus.PAID);
-        List<ExpenseRequest> approvedExpenses = expenseRequestRepository.findExpensesApprovedByManager(approvedStatuses);
+        List<ExpenseStatus> approvedStatuses = List.of(ExpenseStatus.APPROVED_MANAGER, ExpenseStatus.PENDING_FINANCE,
+                ExpenseStatus.PAID);
+        List<ExpenseRequest> approvedExpenses = findInManagerTeam(currentUser, approvedStatuses,
+                Comparator.comparing(ExpenseRequest::getUpdatedAt, Comparator.reverseOrder()));
         return approvedExpenses.stream()
                 .map(this::convertToResponseDto)
                 .collect(Collectors.toList());
@@ -252,111 +608,62 @@ public class ExpenseService {
         }
 
         List<ExpenseStatus> processedStatuses = List.of(
+                ExpenseStatus.APPROVED_MANAGER, // Approved by one manager, awaiting a second
                 ExpenseStatus.PENDING_FINANCE, // Approved by manager
                 ExpenseStatus.REJECTED_MANAGER, // Rejected by manager
                 ExpenseStatus.REJECTED_FINANCE, // Rejected by finance (but was approved by manager)
                 ExpenseStatus.PAID // Fully approved and paid
         );
-        List<ExpenseRequest> processedExpenses = expenseRequestRepository.findExpensesProcessedByManager(processedStatuses);
+        List<ExpenseRequest> processedExpenses = findInManagerTeam(currentUser, processedStatuses,
+                Comparator.comparing(ExpenseRequest::getUpdatedAt, Comparator.reverseOrder()));
         return processedExpenses.stream()
                 .map(this::convertToResponseDto)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Approve a pending expense request (Manager action) Changes status from
-     * PENDING_MANAGER to PENDING_FINANCE
+     * Fails unless the current user has the role a manager or finance list is
+     * meant for; lets callers check access before answering from a cache
      */
-    public ExpenseRequestResponseDto approveExpense(Long expenseId, ManagerActionRequestDto actionRequest) {
-        User currentManager = getCurrentUser();
-
-        // Verify the current user is a manager
-        if (currentManager.getRole() != UserRole.MANAGER) {
-            throw new RuntimeException("Access denied: Only managers can approve expenses");
-        }
-
-        // Find the expense request
-        ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
-
-        // Verify the expense is in PENDING_MANAGER status
-        if (expense.getStatus() != ExpenseStatus.PENDING_MANAGER) {
-            throw new RuntimeException("Only expenses with PENDING_MANAGER status can be approved");
+    public void checkListRole(UserRole role) {
+        if (getCurrentUser().getRole() != role) {
+            throw new RuntimeException("Access denied: Only " + (role == UserRole.FINANCE ? "finance staff" : "managers")
+                    + " can view these expenses");
         }
-
-        // Change status to PENDING_FINANCE (moves to finance for final decision)  
-        expense.setStatus(ExpenseStatus.PENDING_FINANCE);
-
-        // Create manager action record
-        ManagerAction managerAction = new ManagerAction(
-                ManagerActionType.APPROVED,
-                actionRequest.getComment(),
-                expense,
-                currentManager
-        );
-
-        // Add the action to the expense (this will set the bidirectional relationship)
-        expense.addManagerAction(managerAction);
-
-        // Save the expense (this will cascade save the manager action)
-        ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
-
-        // Notify employee and finance team of manager approval
-        notificationService.notifyExpenseApprovedByManager(savedExpense, currentManager);
-
-        // Broadcast real-time update via SSE
-        ExpenseRequestResponseDto responseDto = convertToResponseDto(savedExpense);
-
-
-        return responseDto;
     }
 
     /**
-     * Reject a pending expense request (Manager action) Changes status from
-     * PENDING_MANAGER to REJECTED_MANAGER
+     * Expenses in the given statuses of everyone below a manager, plus those
+     * of employees without a manager when they are shared
      */
-    public ExpenseRequestResponseDto rejectExpense(Long expenseId, ManagerActionRequestDto actionRequest) {
-        User currentManager = getCurrentUser();
-
-        // Verify the current user is a manager
-        if (currentManager.getRole() != UserRole.MANAGER) {
-            throw new RuntimeException("Access denied: Only managers can reject expenses");
-        }
-
-        // Find the expense request
-        ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
-
-        // Verify the expense is in PENDING_MANAGER status
-        if (expense.getStatus() != ExpenseStatus.PENDING_MANAGER) {
-            throw new RuntimeException("Only expenses with PENDING_MANAGER status can be rejected");
+    private List<ExpenseRequest> findInManagerTeam(User manager, List<ExpenseStatus> statuses,
+            Comparator<ExpenseRequest> order) {
+        List<String> statusNames = statuses.stream().map(ExpenseStatus::name).collect(Collectors.toList());
+        List<ExpenseRequest> expenses = new ArrayList<>(
+                expenseRequestRepository.findByStatusesInManagerTeam(manager.getId(), statusNames));
+        if (userHierarchyService.isUnassignedVisibleToAllManagers()) {
+            expenses.addAll(expenseRequestRepository.findByStatusesOfUnassignedEmployees(manager.getId(), statusNames));
         }
+        expenses.sort(order);
+        return expenses;
+    }
 
-        // Change status to REJECTED_MANAGER
-        expense.setStatus(ExpenseStatus.REJECTED_MANAGER);
-
-        // Create manager action record
-        ManagerAction managerAction = new ManagerAction(
-                ManagerActionType.REJECTED,
-                actionRequest.getComment(),
-                expense,
-                currentManager
-        );
-
-        // Add the action to the expense
-        expense.addManagerAction(managerAction);
-
-        // Save the expense
-        ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
-
-        // Notify employee of manager rejection
-        notificationService.notifyExpenseRejectedByManager(savedExpense, currentManager, actionRequest.getComment());
-
-        // Broadcast real-time update via SSE
-        ExpenseRequestResponseDto responseDto = convertToResponseDto(savedExpense);
-
+    /**
+     * Approve a pending expense request (Manager action). Moves it on to
+     * PENDING_FINANCE, or to APPROVED_MANAGER while further manager steps apply
+     */
+    public ExpenseRequestResponseDto approveExpense(Long expenseId, ManagerActionRequestDto actionRequest,
+            ViewedExpense viewed) {
+        return transition(expenseId, UserRole.MANAGER, WorkflowAction.APPROVE, actionRequest.getComment(), null, viewed);
+    }
 
-        return responseDto;
+    /**
+     * Reject a pending expense request (Manager action) Changes status to
+     * REJECTED_MANAGER
+     */
+    public ExpenseRequestResponseDto rejectExpense(Long expenseId, ManagerActionRequestDto actionRequest,
+            ViewedExpense viewed) {
+        return transition(expenseId, UserRole.MANAGER, WorkflowAction.REJECT, actionRequest.getComment(), null, viewed);
     }
 
     // ============= FINANCE OPERATIONS =============
@@ -421,54 +728,62 @@ public class ExpenseService {
     }
 
     /**
-     * Approve a pending expense request (Finance action) Changes status from
-     * PENDING_FINANCE to PAID Sets payout details including reimbursement
-     * method and expected payout date
+     * Claim up to limit more PENDING_FINANCE expenses for the current clerk
+     * (and renew those already held); returns everything they hold
      */
-    public ExpenseRequestResponseDto approveExpenseByFinance(Long expenseId, FinanceActionRequestDto actionRequest) {
-        User currentFinanceUser = getCurrentUser();
+    public ExpenseClaimsResponseDto claimFinanceExpenses(int limit) {
+        User clerk = getCurrentFinanceClerk();
+        return toClaimsResponse(expenseClaimService.claim(clerk.getId(), limit));
+    }
 
-        // Verify the current user is finance staff
-        if (currentFinanceUser.getRole() != UserRole.FINANCE) {
-            throw new RuntimeException("Access denied: Only finance staff can approve expenses");
-        }
+    /**
+     * Extend the current clerk's leases
+     */
+    public ExpenseClaimsResponseDto renewFinanceClaims() {
+        User clerk = getCurrentFinanceClerk();
+        return toClaimsResponse(expenseClaimService.renew(clerk.getId()));
+    }
 
-        // Find the expense request
-        ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+    /**
+     * Return some (or, with no ids, all) of the current clerk's claims to the queue
+     */
+    public void releaseFinanceClaims(List<Long> expenseIds) {
+        User clerk = getCurrentFinanceClerk();
+        expenseClaimService.release(clerk.getId(), expenseIds);
+    }
 
-        // Verify the expense is in PENDING_FINANCE status
-        if (expense.getStatus() != ExpenseStatus.PENDING_FINANCE) {
-            throw new RuntimeException("Only expenses with PENDING_FINANCE status can be approved by finance");
+    private User getCurrentFinanceClerk() {
+        User currentUser = getCurrentUser();
+        if (currentUser.getRole() != UserRole.FINANCE) {
+            throw new RuntimeException("Access denied: Only finance staff can claim expenses");
         }
+        return currentUser;
+    }
 
-        // Change status to PAID (final approved state)
-        expense.setStatus(ExpenseStatus.PAID);
-
-        // Create finance action record with payout details
-        String paymentReference = buildPaymentReference(actionRequest);
-        FinanceAction financeAction = new FinanceAction(
-                FinanceActionType.APPROVED,
-                paymentReference,
-                actionRequest.getNote(),
-                expense,
-                currentFinanceUser
-        );
-
-        // Add the action to the expense (this will set the bidirectional relationship)
-        expense.addFinanceAction(financeAction);
-
-        // Save the expense (this will cascade save the finance action)
-        ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
-
-        // Notify employee of finance approval
-        notificationService.notifyExpenseApprovedByFinance(savedExpense, currentFinanceUser);
-
-        // Broadcast real-time update via SSE
-        ExpenseRequestResponseDto responseDto = convertToResponseDto(savedExpense);
-
+    private ExpenseClaimsResponseDto toClaimsResponse(ExpenseClaimService.ClaimedExpenses claims) {
+        Map<Long, ExpenseRequest> byId = new HashMap<>();
+        for (ExpenseRequest expense : expenseRequestRepository.findAllById(claims.getExpenseIds())) {
+            byId.put(expense.getId(), expense);
+        }
+        List<ExpenseRequestResponseDto> expenses = new ArrayList<>(byId.size());
+        for (Long id : claims.getExpenseIds()) {
+            ExpenseRequest expense = byId.get(id);
+            if (expense != null) {
+                expenses.add(convertToResponseDto(expense));
+            }
+        }
+        return new ExpenseClaimsResponseDto(expenses, claims.getExpiresAt());
+    }
 
-        return responseDto;
+    /**
+     * Approve a pending expense request (Finance action) Changes status from
+     * PENDING_FINANCE to PAID Sets payout details including reimbursement
+     * method and expected payout date
+     */
+    public ExpenseRequestResponseDto approveExpenseByFinance(Long expenseId, FinanceActionRequestDto actionRequest,
+            ViewedExpense viewed) {
+        return transition(expenseId, UserRole.FINANCE, WorkflowAction.APPROVE, actionRequest.getNote(),
+                buildPaymentReference(actionRequest), viewed);
     }
 
     /**
@@ -476,49 +791,213 @@ public class ExpenseService {
      * PENDING_FINANCE to REJECTED_FINANCE Requires a comment/reason for
      * rejection
      */
-    public ExpenseRequestResponseDto rejectExpenseByFinance(Long expenseId, FinanceRejectionRequestDto rejectionRequest) {
-        User currentFinanceUser = getCurrentUser();
+    public ExpenseRequestResponseDto rejectExpenseByFinance(Long expenseId, FinanceRejectionRequestDto rejectionRequest,
+            ViewedExpense viewed) {
+        return transition(expenseId, UserRole.FINANCE, WorkflowAction.REJECT, rejectionRequest.getComment(), null,
+                viewed);
+    }
 
-        // Verify the current user is finance staff
-        if (currentFinanceUser.getRole() != UserRole.FINANCE) {
-            throw new RuntimeException("Access denied: Only finance staff can reject expenses");
+    /**
+     * The one path for every workflow step: check the role, look the
+     * transition up in the workflow table, record the manager or finance
+     * action, save, then notify according to where the expense ended up
+     */
+    private ExpenseRequestResponseDto transition(Long expenseId, UserRole role, WorkflowAction action, String comment,
+            String paymentReference, ViewedExpense viewed) {
+        User actor = getCurrentUser();
+        if (actor.getRole() != role) {
+            throw new RuntimeException("Access denied: Only " + (role == UserRole.FINANCE ? "finance staff" : "managers")
+                    + " can " + (action == WorkflowAction.APPROVE ? "approve" : "reject") + " expenses");
         }
 
-        // Find the expense request
         ExpenseRequest expense = expenseRequestRepository.findById(expenseId)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
-
-        // Verify the expense is in PENDING_FINANCE status
-        if (expense.getStatus() != ExpenseStatus.PENDING_FINANCE) {
-            throw new RuntimeException("Only expenses with PENDING_FINANCE status can be rejected by finance");
+        if (role == UserRole.MANAGER && !userHierarchyService.canManage(actor, expense.getEmployee())) {
+            throw new RuntimeException("Access denied: This expense belongs to another manager's team");
+        }
+        viewed.check(expense);
+        ExpenseWorkflow.Transition transition = expenseWorkflow.resolve(expense, role, action);
+        if (role == UserRole.FINANCE) {
+            // Another clerk's live lease wins; the actor's own claim (if any) is done with
+            expenseClaimService.completeClaim(expense.getId(), actor.getId());
+        }
+        if (transition.isDistinctApprover() && hasApproved(expense, actor)) {
+            throw new RuntimeException("Access denied: This expense needs the approval of a second manager");
         }
 
-        // Change status to REJECTED_FINANCE
-        expense.setStatus(ExpenseStatus.REJECTED_FINANCE);
-
-        // Create finance action record with required comment
-        FinanceAction financeAction = new FinanceAction(
-                FinanceActionType.REJECTED,
-                null, // No payment reference for rejection
-                rejectionRequest.getComment(), // Required comment for rejection
-                expense,
-                currentFinanceUser
-        );
+        ExpenseStatus previousStatus = expense.getStatus();
+        expense.setStatus(transition.targetFor(expense));
+        if (role == UserRole.MANAGER) {
+            expense.addManagerAction(new ManagerAction(
+                    action == WorkflowAction.APPROVE ? ManagerActionType.APPROVED : ManagerActionType.REJECTED,
+                    comment, expense, actor));
+        } else {
+            expense.addFinanceAction(new FinanceAction(
+                    action == WorkflowAction.APPROVE ? FinanceActionType.APPROVED : FinanceActionType.REJECTED,
+                    paymentReference, comment, expense, actor));
+        }
 
-        // Add the action to the expense
-        expense.addFinanceAction(financeAction);
+        // Save the expense (this will cascade save the action)
+        ExpenseRequest savedExpense = expenseRequestRepository.saveAndFlush(expense);
+        publishChange(savedExpense, previousStatus, savedExpense.getAmount());
+
+        switch (savedExpense.getStatus()) {
+            case APPROVED_MANAGER -> notificationService.notifyExpenseAwaitingSecondApproval(savedExpense, actor);
+            case PENDING_FINANCE -> notificationService.notifyExpenseApprovedByManager(savedExpense, actor);
+            case REJECTED_MANAGER -> notificationService.notifyExpenseRejectedByManager(savedExpense, actor, comment);
+            case PAID -> {
+                // Queue the ERP webhook in the same transaction as the status change
+                webhookOutboxService.enqueueExpenseEvent(WebhookOutboxService.EVENT_EXPENSE_PAID,
+                        savedExpense, actor, comment);
+                notificationService.notifyExpenseApprovedByFinance(savedExpense, actor);
+            }
+            case REJECTED_FINANCE -> {
+                webhookOutboxService.enqueueExpenseEvent(WebhookOutboxService.EVENT_EXPENSE_REJECTED_FINANCE,
+                        savedExpense, actor, comment);
+                notificationService.notifyExpenseRejectedByFinance(savedExpense, actor, comment);
+            }
+            default -> {
+            }
+        }
+        return convertToResponseDto(savedExpense);
+    }
 
-        // Save the expense
-        ExpenseRequest savedExpense = expenseRequestRepository.save(expense);
+    /**
+     * Whether the manager already approved the expense in its current cycle;
+     * approvals before a rejection do not bar them from the resubmission
+     */
+    private static boolean hasApproved(ExpenseRequest expense, User manager) {
+        for (ManagerAction managerAction : ExpenseWorkflow.currentCycleApprovals(expense)) {
+            if (managerAction.getManager() != null
+                    && manager.getId().equals(managerAction.getManager().getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        // Notify employee of finance rejection
-        notificationService.notifyExpenseRejectedByFinance(savedExpense, currentFinanceUser, rejectionRequest.getComment());
+    /**
+     * Insert new expenses with a single multi-row statement, each starting as
+     * PENDING_MANAGER or where its auto-approval rule takes it (with the
+     * system's manager action); the returned (detached) entities and the
+     * matched rule names, added to approvalRules, are in the order of the input
+     */
+    private List<ExpenseRequest> insertNewExpenses(User employee, List<CreateExpenseRequestDto> createDtos,
+            List<String> approvalRules) {
+        LocalDate today = LocalDate.now();
+        List<ExpenseRequest> expenses = new ArrayList<>(createDtos.size());
+        List<ExpenseRequest> batchDuplicates = new ArrayList<>(createDtos.size());
+        StringBuilder sql = new StringBuilder("INSERT INTO expense_requests (employee_id, title, description, amount, "
+                + "receipt_url, status, dup_fingerprint, possible_duplicate_of, anomaly_score, amount_percentile) VALUES ");
+        List<Object> params = new ArrayList<>(createDtos.size() * 10);
+        for (int i = 0; i < createDtos.size(); i++) {
+            CreateExpenseRequestDto createDto = createDtos.get(i);
+            ExpenseRequest expense = new ExpenseRequest();
+            expense.setTitle(createDto.getTitle());
+            expense.setDescription(createDto.getDescription());
+            expense.setAmount(createDto.getAmount());
+            expense.setReceiptUrl(createDto.getReceiptUrl());
+            expense.setStatus(ExpenseStatus.PENDING_MANAGER);
+            expense.setEmployee(employee);
+            duplicateExpenseDetector.check(expense, today);
+            // Not stored yet, so check() cannot see the earlier items of this batch
+            batchDuplicates.add(expense.getPossibleDuplicateOfId() != null ? null
+                    : duplicateExpenseDetector.findInBatch(expense, today, expenses));
+            amountAnomalyService.score(expense);
+            String approvalRule = approvalRuleEngine.match(expense);
+            if (approvalRule != null) {
+                expense.setStatus(expenseWorkflow.resolve(expense, UserRole.MANAGER, WorkflowAction.APPROVE)
+                        .targetFor(expense));
+                expense.addManagerAction(new ManagerAction(ManagerActionType.APPROVED,
+                        "Auto-approved by rule '" + approvalRule + "'", expense, null));
+            }
+            approvalRules.add(approvalRule);
+            expenses.add(expense);
+
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            params.add(employee.getId());
+            params.add(expense.getTitle());
+            params.add(expense.getDescription());
+            params.add(expense.getAmount());
+            params.add(expense.getReceiptUrl());
+            params.add(expense.getStatus().name());
+            params.add(expense.getDupFingerprint());
+            params.add(expense.getPossibleDuplicateOfId());
+            params.add(expense.getAnomalyScore());
+            params.add(expense.getAmountPercentile());
+        }
+        sql.append(" RETURNING id, created_at, updated_at, change_seq, version");
+
+        List<ExpenseRequest> inserted = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            ExpenseRequest expense = new ExpenseRequest();
+            expense.setId(rs.getLong("id"));
+            expense.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            expense.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+            expense.setChangeSeq(rs.getLong("change_seq"));
+            expense.setVersion(rs.getLong("version"));
+            return expense;
+        }, params.toArray());
+
+        // Ids come from the sequence in VALUES order, so sorting by id restores the input order
+        inserted.sort(Comparator.comparing(ExpenseRequest::getId));
+        for (int i = 0; i < inserted.size(); i++) {
+            ExpenseRequest expense = expenses.get(i);
+            ExpenseRequest row = inserted.get(i);
+            expense.setId(row.getId());
+            expense.setCreatedAt(row.getCreatedAt());
+            expense.setUpdatedAt(row.getUpdatedAt());
+            expense.setChangeSeq(row.getChangeSeq());
+            expense.setVersion(row.getVersion());
+            duplicateExpenseDetector.record(expense);
+        }
 
-        // Broadcast real-time update via SSE
-        ExpenseRequestResponseDto responseDto = convertToResponseDto(savedExpense);
+        // The system's approvals of auto-approved items, now that those have ids
+        List<Object[]> approvals = new ArrayList<>();
+        for (ExpenseRequest expense : expenses) {
+            for (ManagerAction managerAction : expense.getManagerActions()) {
+                approvals.add(new Object[] { expense.getId(), managerAction.getAction().name(),
+                        managerAction.getComment() });
+            }
+        }
+        if (!approvals.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO manager_actions (expense_id, manager_id, \"action\", comment) "
+                    + "VALUES (?, NULL, ?, ?)", approvals);
+        }
 
+        // Link repeats of earlier items of this batch now that those have ids; the update
+        // bumps change_seq, so the linked entities (and their events) take the new one
+        StringBuilder links = new StringBuilder();
+        List<Object> linkParams = new ArrayList<>();
+        Map<Long, ExpenseRequest> linked = new HashMap<>();
+        for (int i = 0; i < expenses.size(); i++) {
+            ExpenseRequest original = batchDuplicates.get(i);
+            if (original != null) {
+                ExpenseRequest expense = expenses.get(i);
+                expense.setPossibleDuplicateOfId(original.getId());
+                links.append(links.length() == 0 ? "" : ", ").append("(?, ?)");
+                linkParams.add(expense.getId());
+                linkParams.add(original.getId());
+                linked.put(expense.getId(), expense);
+            }
+        }
+        if (!linked.isEmpty()) {
+            jdbcTemplate.query("UPDATE expense_requests e SET possible_duplicate_of = l.original_id FROM (VALUES "
+                    + links + ") AS l(id, original_id) WHERE e.id = l.id RETURNING e.id, e.change_seq", rs -> {
+                        linked.get(rs.getLong("id")).setChangeSeq(rs.getLong("change_seq"));
+                    }, linkParams.toArray());
+        }
+        return expenses;
+    }
 
-        return responseDto;
+    /**
+     * Let listeners (ETag versions, caches, spend summary) know an expense
+     * changed; the summary is updated in this transaction, the rest after
+     * commit
+     */
+    private void publishChange(ExpenseRequest expense, ExpenseStatus previousStatus, BigDecimal previousAmount) {
+        eventPublisher.publishEvent(new ExpenseChangedEvent(expense.getId(), expense.getEmployee().getId(),
+                previousStatus, expense.getStatus(), previousAmount, expense.getAmount(), expense.getCreatedAt(),
+                expense.getChangeSeq()));
     }
 
     /**
@@ -546,7 +1025,7 @@ public class ExpenseService {
      * Convert ExpenseRequest entity to response DTO
      */
     private ExpenseRequestResponseDto convertToResponseDto(ExpenseRequest expense) {
-        return new ExpenseRequestResponseDto(
+        ExpenseRequestResponseDto dto = new ExpenseRequestResponseDto(
                 expense.getId(),
                 expense.getTitle(),
                 expense.getDescription(),
@@ -558,67 +1037,53 @@ public class ExpenseService {
                 expense.getEmployee().getFullName(),
                 expense.getEmployee().getEmail()
         );
+        dto.setChangeSeq(expense.getChangeSeq());
+        dto.setVersion(expense.getVersion());
+        dto.setReceiptHash(expense.getReceiptHash());
+        dto.setPossibleDuplicateOfId(expense.getPossibleDuplicateOfId());
+        dto.setAnomalyScore(expense.getAnomalyScore());
+        dto.setAmountPercentile(expense.getAmountPercentile());
+        if (expense.getReceiptHash() != null) {
+            dto.setReceiptPreviewUrl("/api/expenses/" + expense.getId() + "/receipt/preview?v=" + expense.getReceiptHash());
+        }
+        return dto;
     }
 
     /**
-     * Get current authenticated user For development mode: returns a user based
-     * on X-Dev-User-Role header or default
+     * Get current authenticated user (development mode fallback lives in
+     * CurrentUserService)
      */
     private User getCurrentUser() {
-        try {
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (principal instanceof User) {
-                return (User) principal;
-            }
-        } catch (Exception e) {
-            // Authentication context not available, use development mode
-        }
-
-        // DEVELOPMENT MODE: Check for role header to determine which user to return
-        return getDevModeUser();
+        return currentUserService.getCurrentUser();
     }
 
     /**
-     * Development mode user selection based on role
+     * What an approver saw of an expense, kept across the retries of one
+     * transition: the version they viewed and, once an attempt has read it,
+     * its amount, title and receipt. A retry after a concurrent write only
+     * goes ahead when that write left all three alone, so nobody approves
+     * content they never saw.
      */
-    private User getDevModeUser() {
-        // Try to get current HTTP request to check for role header
-        try {
-            org.springframework.web.context.request.RequestContextHolder.currentRequestAttributes();
-            jakarta.servlet.http.HttpServletRequest request
-                    = ((org.springframework.web.context.request.ServletRequestAttributes) org.springframework.web.context.request.RequestContextHolder.currentRequestAttributes()).getRequest();
-
-            String devRole = request.getHeader("X-Dev-User-Role");
-            String devUserId = request.getHeader("X-Dev-User-Id");
-
-            // If specific user ID is provided
-            if (devUserId != null) {
-                try {
-                    Long userId = Long.parseLong(devUserId);
-                    return userRepository.findById(userId).orElseThrow(()
-                            -> new RuntimeException("Development user with ID " + userId + " not found"));
-                } catch (NumberFormatException e) {
-                    // Invalid user ID, fall through to role-based selection
-                }
-            }
+    public static final class ViewedExpense {
 
-            // Role-based user selection
-            if ("EMPLOYEE".equalsIgnoreCase(devRole)) {
-                return userRepository.findById(1L).orElseThrow(()
-                        -> new RuntimeException("Default employee user not found")); // John Smith
-            } else if ("MANAGER".equalsIgnoreCase(devRole)) {
-                return userRepository.findById(5L).orElseThrow(()
-                        -> new RuntimeException("Default manager user not found")); // Robert Taylor
-            } else if ("FINANCE".equalsIgnoreCase(devRole)) {
-                return userRepository.findById(7L).orElseThrow(()
-                        -> new RuntimeException("Default finance user not found")); // David Brown
-            }
-        } catch (Exception e) {
-            // No request context available, use default
+        private final Long version;
+        private List<Object> content;
+
+        public ViewedExpense(Long version) {
+            this.version = version;
         }
 
-        // Default to manager user for testing manager endpoints
-        return userRepository.findById(5L).orElseThrow(()
-                -> new RuntimeException("Default development user not found"));
+        void check(ExpenseRequest expense) {
+            List<Object> current = Arrays.asList(expense.getAmount().stripTrailingZeros(), expense.getTitle(),
+                    expense.getReceiptUrl());
+            if (content == null) {
+                if (version != null && !version.equals(expense.getVersion())) {
+                    throw new RuntimeException("Expense was changed after you viewed it");
+                }
+                content = current;
+            } else if (!content.equals(current)) {
+                throw new RuntimeException("Expense was changed after you viewed it");
+            }
+        }
     }
 }
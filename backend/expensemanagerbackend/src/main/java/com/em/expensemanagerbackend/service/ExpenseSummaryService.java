@@ -0,0 +1,134 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.em.expensemanagerbackend.dto.ExpenseSummaryDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.EmployeeExpenseSummaryRepository;
+
+/**
+ * Maintains the employee_expense_summary read model and answers spend totals
+ * from it. Each expense change moves its amount and count out of the old
+ * (status, month) cell and into the new one inside the transaction that made
+ * the change, so totals never need an aggregate over expense_requests.
+ */
+@Service
+public class ExpenseSummaryService {
+
+    @Autowired
+    private EmployeeExpenseSummaryRepository summaryRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private UserHierarchyService userHierarchyService;
+
+    /**
+     * Apply an expense change to the summary in the caller's transaction
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.getPreviousStatus() == event.getNewStatus()
+                && Objects.equals(event.getPreviousAmount(), event.getNewAmount())) {
+            return;
+        }
+        LocalDate month = monthOf(event.getCreatedAt());
+        ExpenseStatus previous = event.getPreviousStatus();
+        ExpenseStatus next = event.getNewStatus();
+        if (previous != null && previous == next) {
+            summaryRepository.addDelta(event.getEmployeeId(), next.name(), month,
+                    event.getNewAmount().subtract(event.getPreviousAmount()), 0);
+            return;
+        }
+        // Cells are always locked in status-name order, so two opposite transitions cannot deadlock
+        boolean previousFirst = next == null || (previous != null && previous.name().compareTo(next.name()) < 0);
+        if (previousFirst) {
+            addOut(event, month);
+            addIn(event, month);
+        } else {
+            addIn(event, month);
+            addOut(event, month);
+        }
+    }
+
+    private void addOut(ExpenseChangedEvent event, LocalDate month) {
+        if (event.getPreviousStatus() != null) {
+            summaryRepository.addDelta(event.getEmployeeId(), event.getPreviousStatus().name(), month,
+                    event.getPreviousAmount().negate(), -1);
+        }
+    }
+
+    private void addIn(ExpenseChangedEvent event, LocalDate month) {
+        if (event.getNewStatus() != null) {
+            summaryRepository.addDelta(event.getEmployeeId(), event.getNewStatus().name(), month,
+                    event.getNewAmount(), 1);
+        }
+    }
+
+    /**
+     * Get the current user's totals per status and month
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryDto> getCurrentUserSummary(YearMonth from, YearMonth to) {
+        User currentUser = currentUserService.getCurrentUser();
+        return summaryRepository.findForEmployee(currentUser.getId(), startOf(from, to), endOf(to));
+    }
+
+    /**
+     * Get totals per employee, status and month for the manager's team
+     * (everyone below them in the hierarchy, and unassigned employees when
+     * those are shared like the approval queues)
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryDto> getTeamSummary(YearMonth from, YearMonth to) {
+        User currentUser = currentUserService.getCurrentUser();
+        if (currentUser.getRole() != UserRole.MANAGER) {
+            throw new RuntimeException("Access denied: Only managers can view team totals");
+        }
+        List<Object[]> rows = summaryRepository.findForManagerTeam(currentUser.getId(),
+                userHierarchyService.isUnassignedVisibleToAllManagers(), startOf(from, to), endOf(to));
+        List<ExpenseSummaryDto> summary = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDate month = row[3] instanceof Date date ? date.toLocalDate() : (LocalDate) row[3];
+            summary.add(new ExpenseSummaryDto(((Number) row[0]).longValue(), (String) row[1],
+                    ExpenseStatus.valueOf((String) row[2]), month, (BigDecimal) row[4],
+                    ((Number) row[5]).longValue()));
+        }
+        return summary;
+    }
+
+    static LocalDate monthOf(LocalDateTime createdAt) {
+        LocalDateTime at = createdAt != null ? createdAt : LocalDateTime.now();
+        return at.toLocalDate().withDayOfMonth(1);
+    }
+
+    // Default range is the last twelve months including the current one
+    private static LocalDate startOf(YearMonth from, YearMonth to) {
+        if (from != null) {
+            return from.atDay(1);
+        }
+        return (to != null ? to : YearMonth.now()).minusMonths(11).atDay(1);
+    }
+
+    private static LocalDate endOf(YearMonth to) {
+        return (to != null ? to : YearMonth.now()).atDay(1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.event.UserHierarchyChangedEvent;
+
+/**
+ * In-memory version counters behind the ETags of the expense endpoints: one
+ * per employee, one per status queue and one per expense. Counters are bumped
+ * after the changing transaction commits, and callers read the version before
+ * loading data, so a tag can be older than its body but never newer.
+ * Employees and expenses are hashed onto fixed stripes: a collision only
+ * costs a spurious 200, never a stale 304. Tags carry a random per-process
+ * epoch so they do not survive a restart. Counters are process-local, which
+ * assumes a single backend instance (or sticky routing).
+ */
+@Service
+public class ExpenseVersionService {
+
+    private static final int STRIPES = 4096;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLongArray employeeVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray expenseVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray statusVersions = new AtomicLongArray(ExpenseStatus.values().length);
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    /**
+     * Bump every scope an expense change is visible in
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        globalVersion.incrementAndGet();
+        if (event.getEmployeeId() != null) {
+            employeeVersions.incrementAndGet(stripe(event.getEmployeeId()));
+        }
+        if (event.getExpenseId() != null) {
+            expenseVersions.incrementAndGet(stripe(event.getExpenseId()));
+        }
+        if (event.getPreviousStatus() != null) {
+            statusVersions.incrementAndGet(event.getPreviousStatus().ordinal());
+        }
+        if (event.getNewStatus() != null && event.getNewStatus() != event.getPreviousStatus()) {
+            statusVersions.incrementAndGet(event.getNewStatus().ordinal());
+        }
+    }
+
+    /**
+     * A bulk import touched arbitrary employees and statuses; bump everything
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        globalVersion.incrementAndGet();
+        for (int i = 0; i < STRIPES; i++) {
+            employeeVersions.incrementAndGet(i);
+        }
+        for (int i = 0; i < statusVersions.length(); i++) {
+            statusVersions.incrementAndGet(i);
+        }
+    }
+
+    /**
+     * A team moved between managers: their queues changed without any
+     * expense changing
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserHierarchyChanged(UserHierarchyChangedEvent event) {
+        globalVersion.incrementAndGet();
+        for (int i = 0; i < statusVersions.length(); i++) {
+            statusVersions.incrementAndGet(i);
+        }
+    }
+
+    /**
+     * Version covering all expenses of one employee
+     */
+    public long employeeVersion(Long employeeId) {
+        return employeeVersions.get(stripe(employeeId));
+    }
+
+    /**
+     * Version covering every expense and which manager's team it falls in
+     */
+    public long globalVersion() {
+        return globalVersion.get();
+    }
+
+    /**
+     * ETag for one of the current user's own expense lists
+     */
+    public String etagForOwnList(String list) {
+        Long userId = currentUserService.getCurrentUserId();
+        return tag(userId, list, employeeVersions.get(stripe(userId)));
+    }
+
+    /**
+     * ETag for a queue or history list made of the given statuses
+     */
+    public String etagForStatusList(String list, ExpenseStatus... statuses) {
+        StringBuilder versions = new StringBuilder();
+        for (ExpenseStatus status : statuses) {
+            if (versions.length() > 0) {
+                versions.append('.');
+            }
+            versions.append(statusVersions.get(status.ordinal()));
+        }
+        return tag(currentUserService.getCurrentUserId(), list, versions);
+    }
+
+    /**
+     * ETag for a single expense as seen by the current user
+     */
+    public String etagForExpense(Long expenseId) {
+        return tag(currentUserService.getCurrentUserId(), "expense-" + expenseId,
+                expenseVersions.get(stripe(expenseId)));
+    }
+
+    private String tag(Long userId, String scope, Object version) {
+        return "\"" + epoch + "-" + userId + "-" + scope + "-" + version + "\"";
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id, (long) STRIPES);
+    }
+}
@@ -0,0 +1,274 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.FinanceActionType;
+import com.em.expensemanagerbackend.enums.ManagerActionType;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.enums.WorkflowAction;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.FinanceAction;
+import com.em.expensemanagerbackend.model.ManagerAction;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The approval workflow as a transition table: for each status, role and
+ * action at most one transition, looked up by index. The table is built from
+ * the configured chain of steps, each a role with an optional amount the
+ * expense must exceed for the step to apply, e.g.
+ * {@code MANAGER,MANAGER>1000,MANAGER>10000,FINANCE}:
+ *
+ * <pre>
+ * PENDING_MANAGER  --manager approve--> PENDING_FINANCE   (APPROVED_MANAGER while manager steps remain)
+ * APPROVED_MANAGER --manager approve--> same, by a manager who has not approved it in this cycle
+ * PENDING_MANAGER, APPROVED_MANAGER --manager reject--> REJECTED_MANAGER
+ * PENDING_FINANCE  --finance approve--> PAID, --finance reject--> REJECTED_FINANCE
+ * </pre>
+ *
+ * There is one status per role, so any number of manager steps can be
+ * chained (APPROVED_MANAGER holds all the intermediate ones, progress being
+ * the approvals of the current cycle) but finance is always the single last
+ * step, and the first manager step applies to every amount. With one manager
+ * step APPROVED_MANAGER is never entered. The statuses each role can act on
+ * are precomputed too, for the queues and error messages.
+ */
+@Service
+public class ExpenseWorkflow {
+
+    private static final int ROLES = UserRole.values().length;
+    private static final int ACTIONS = WorkflowAction.values().length;
+
+    // Comma-separated steps, ROLE or ROLE>amount: manager steps, then FINANCE
+    @Value("${app.workflow.approvalChain:MANAGER,FINANCE}")
+    private String approvalChain;
+
+    private Transition[] table;
+    private Map<UserRole, List<ExpenseStatus>> actionable;
+
+    @PostConstruct
+    void init() {
+        List<Step> managerSteps = parseChain(approvalChain);
+        List<Transition> transitions = new ArrayList<>();
+        if (managerSteps.size() > 1) {
+            transitions.add(new Transition(ExpenseStatus.PENDING_MANAGER, UserRole.MANAGER, WorkflowAction.APPROVE,
+                    ExpenseStatus.PENDING_FINANCE, managerSteps, false));
+            transitions.add(new Transition(ExpenseStatus.APPROVED_MANAGER, UserRole.MANAGER, WorkflowAction.APPROVE,
+                    ExpenseStatus.PENDING_FINANCE, managerSteps, true));
+            transitions.add(new Transition(ExpenseStatus.APPROVED_MANAGER, UserRole.MANAGER, WorkflowAction.REJECT,
+                    ExpenseStatus.REJECTED_MANAGER, null, false));
+        } else {
+            transitions.add(new Transition(ExpenseStatus.PENDING_MANAGER, UserRole.MANAGER, WorkflowAction.APPROVE,
+                    ExpenseStatus.PENDING_FINANCE, null, false));
+        }
+        transitions.add(new Transition(ExpenseStatus.PENDING_MANAGER, UserRole.MANAGER, WorkflowAction.REJECT,
+                ExpenseStatus.REJECTED_MANAGER, null, false));
+        transitions.add(new Transition(ExpenseStatus.PENDING_FINANCE, UserRole.FINANCE, WorkflowAction.APPROVE,
+                ExpenseStatus.PAID, null, false));
+        transitions.add(new Transition(ExpenseStatus.PENDING_FINANCE, UserRole.FINANCE, WorkflowAction.REJECT,
+                ExpenseStatus.REJECTED_FINANCE, null, false));
+
+        Transition[] built = new Transition[ExpenseStatus.values().length * ROLES * ACTIONS];
+        Map<UserRole, List<ExpenseStatus>> byRole = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            byRole.put(role, new ArrayList<>());
+        }
+        for (Transition transition : transitions) {
+            built[index(transition.from, transition.role, transition.action)] = transition;
+            List<ExpenseStatus> statuses = byRole.get(transition.role);
+            if (!statuses.contains(transition.from)) {
+                statuses.add(transition.from);
+            }
+        }
+        byRole.replaceAll((role, statuses) -> List.copyOf(statuses));
+        table = built;
+        actionable = byRole;
+    }
+
+    /**
+     * The transition a user of the given role may take on an expense in the
+     * given status, or null when there is none
+     */
+    public Transition find(ExpenseStatus from, UserRole role, WorkflowAction action) {
+        return table[index(from, role, action)];
+    }
+
+    /**
+     * The transition for an action on an expense; the message names the
+     * statuses the action is allowed from
+     */
+    public Transition resolve(ExpenseRequest expense, UserRole role, WorkflowAction action) {
+        Transition transition = find(expense.getStatus(), role, action);
+        if (transition == null) {
+            throw new RuntimeException("Only expenses with " + sourcesOf(role, action) + " status can be "
+                    + (action == WorkflowAction.APPROVE ? "approved" : "rejected")
+                    + (role == UserRole.FINANCE ? " by finance" : ""));
+        }
+        return transition;
+    }
+
+    /**
+     * Statuses in which the role has something to do, in workflow order
+     */
+    public List<ExpenseStatus> actionableStatuses(UserRole role) {
+        return actionable.get(role);
+    }
+
+    /**
+     * Manager approvals (including the system's) recorded since the expense
+     * last entered PENDING_MANAGER. A rejection, by a manager or finance,
+     * ends a cycle; editing the expense then starts the next one.
+     */
+    public static List<ManagerAction> currentCycleApprovals(ExpenseRequest expense) {
+        LocalDateTime cycleStart = null;
+        for (ManagerAction managerAction : expense.getManagerActions()) {
+            if (managerAction.getAction() == ManagerActionType.REJECTED) {
+                cycleStart = later(cycleStart, managerAction.getActionAt());
+            }
+        }
+        for (FinanceAction financeAction : expense.getFinanceActions()) {
+            if (financeAction.getAction() == FinanceActionType.REJECTED) {
+                cycleStart = later(cycleStart, financeAction.getActionAt());
+            }
+        }
+        List<ManagerAction> approvals = new ArrayList<>();
+        for (ManagerAction managerAction : expense.getManagerActions()) {
+            // Not yet flushed actions have no timestamp and belong to the current cycle
+            if (managerAction.getAction() == ManagerActionType.APPROVED && (cycleStart == null
+                    || managerAction.getActionAt() == null || managerAction.getActionAt().isAfter(cycleStart))) {
+                approvals.add(managerAction);
+            }
+        }
+        return approvals;
+    }
+
+    private static LocalDateTime later(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || (candidate != null && candidate.isAfter(current)) ? candidate : current;
+    }
+
+    private String sourcesOf(UserRole role, WorkflowAction action) {
+        return actionable.get(role).stream()
+                .filter(status -> find(status, role, action) != null)
+                .map(ExpenseStatus::name)
+                .collect(Collectors.joining(" or "));
+    }
+
+    /**
+     * The manager steps of a chain; the chain must start with an unconditional
+     * MANAGER step and end with an unconditional FINANCE step
+     */
+    static List<Step> parseChain(String chain) {
+        List<Step> steps = new ArrayList<>();
+        for (String part : chain.split(",")) {
+            String[] roleAndAmount = part.trim().split(">", 2);
+            UserRole role = UserRole.valueOf(roleAndAmount[0].trim());
+            BigDecimal above = roleAndAmount.length > 1 ? new BigDecimal(roleAndAmount[1].trim()) : null;
+            steps.add(new Step(role, above));
+        }
+        Step last = steps.get(steps.size() - 1);
+        if (steps.size() < 2 || last.role != UserRole.FINANCE || last.above != null) {
+            throw new IllegalArgumentException("Approval chain must end with an unconditional FINANCE step: " + chain);
+        }
+        List<Step> managerSteps = steps.subList(0, steps.size() - 1);
+        for (Step step : managerSteps) {
+            if (step.role != UserRole.MANAGER) {
+                throw new IllegalArgumentException("Only MANAGER steps may precede FINANCE: " + chain);
+            }
+        }
+        if (managerSteps.get(0).above != null) {
+            throw new IllegalArgumentException("The first MANAGER step applies to every amount: " + chain);
+        }
+        return List.copyOf(managerSteps);
+    }
+
+    private static int index(ExpenseStatus status, UserRole role, WorkflowAction action) {
+        return (status.ordinal() * ROLES + role.ordinal()) * ACTIONS + action.ordinal();
+    }
+
+    /**
+     * One step of the chain: a role, and the amount an expense must exceed for
+     * the step to apply (null for every expense)
+     */
+    static final class Step {
+
+        private final UserRole role;
+        private final BigDecimal above;
+
+        Step(UserRole role, BigDecimal above) {
+            this.role = role;
+            this.above = above;
+        }
+
+        boolean appliesTo(BigDecimal amount) {
+            return above == null || amount.compareTo(above) > 0;
+        }
+    }
+
+    /**
+     * One row of the table: where it leads, or back to APPROVED_MANAGER while
+     * manager steps that apply to the amount remain, and whether the actor
+     * must not have approved an earlier step
+     */
+    public static final class Transition {
+
+        private final ExpenseStatus from;
+        private final UserRole role;
+        private final WorkflowAction action;
+        private final ExpenseStatus target;
+        private final List<Step> managerSteps;
+        private final boolean distinctApprover;
+
+        Transition(ExpenseStatus from, UserRole role, WorkflowAction action, ExpenseStatus target,
+                List<Step> managerSteps, boolean distinctApprover) {
+            this.from = from;
+            this.role = role;
+            this.action = action;
+            this.target = target;
+            this.managerSteps = managerSteps;
+            this.distinctApprover = distinctApprover;
+        }
+
+        /**
+         * The status after this transition, with the approval it records not
+         * yet among the expense's actions
+         */
+        public ExpenseStatus targetFor(ExpenseRequest expense) {
+            if (managerSteps == null) {
+                return target;
+            }
+            int required = 0;
+            for (Step step : managerSteps) {
+                if (step.appliesTo(expense.getAmount())) {
+                    required++;
+                }
+            }
+            return currentCycleApprovals(expense).size() + 1 < required ? ExpenseStatus.APPROVED_MANAGER : target;
+        }
+
+        public ExpenseStatus getFrom() {
+            return from;
+        }
+
+        public UserRole getRole() {
+            return role;
+        }
+
+        public WorkflowAction getAction() {
+            return action;
+        }
+
+        public boolean isDistinctApprover() {
+            return distinctApprover;
+        }
+    }
+}
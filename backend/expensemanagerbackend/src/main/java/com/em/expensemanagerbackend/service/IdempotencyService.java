@@ -0,0 +1,245 @@
+package com.em.expensemanagerbackend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Storage behind Idempotency-Key handling: a request first claims its key
+ * (an insert that only one caller can win), then completes it with the
+ * response to replay. Completed responses are kept in the idempotency_keys
+ * table for ttlHours and the most recent ones in an in-memory LRU, so most
+ * retries never reach the database. Statements run outside any transaction,
+ * so a claim is visible to other requests and instances immediately.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.idempotency.ttlHours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.inProgressTimeoutMs:60000}")
+    private long inProgressTimeoutMs;
+
+    @Value("${app.idempotency.cacheSize:10000}")
+    private int cacheSize;
+
+    // Recently completed responses, least recently used evicted first
+    private Map<String, StoredResponse> cache;
+
+    @PostConstruct
+    void init() {
+        int maxEntries = Math.max(1, cacheSize);
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Hash identifying one key of one user on one endpoint
+     */
+    public static byte[] keyHash(Long userId, String method, String path, String idempotencyKey) {
+        return sha256((userId + "\n" + method + "\n" + path + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Claim a key for a new request. Returns null when the caller won the
+     * claim and must run the request, otherwise what is stored for the key:
+     * a completed response to replay, or an in-progress marker.
+     */
+    public StoredResponse claim(byte[] keyHash, byte[] requestHash) {
+        StoredResponse cached = cache.get(HexFormat.of().formatHex(keyHash));
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+
+        if (tryInsert(keyHash, requestHash)) {
+            return null;
+        }
+        StoredResponse stored = load(keyHash);
+        if (stored == null) {
+            // Purged between the insert and the read
+            return tryInsert(keyHash, requestHash) ? null : StoredResponse.inProgress(requestHash);
+        }
+        if (stored.isCompleted()) {
+            cache.put(HexFormat.of().formatHex(keyHash), stored);
+            return stored;
+        }
+        // A claim left behind by a request that died takes over after the timeout
+        int abandoned = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND status_code IS NULL "
+                + "AND created_at < ?", keyHash, Timestamp.from(Instant.now().minusMillis(inProgressTimeoutMs)));
+        if (abandoned > 0 && tryInsert(keyHash, requestHash)) {
+            return null;
+        }
+        return stored;
+    }
+
+    /**
+     * Store the response of a claimed request for replay; returns false when
+     * it could not be stored and the claim should be released
+     */
+    public boolean complete(byte[] keyHash, byte[] requestHash, int status, byte[] body) {
+        try {
+            jdbcTemplate.update("UPDATE idempotency_keys SET status_code = ?, response_body = ? WHERE key_hash = ?",
+                    status, gzip(body), keyHash);
+        } catch (DataAccessException e) {
+            log.warn("Could not store idempotent response: {}", e.getMessage());
+            return false;
+        }
+        cache.put(HexFormat.of().formatHex(keyHash), new StoredResponse(requestHash, status, body, Instant.now()));
+        return true;
+    }
+
+    /**
+     * Give up a claim so the client can retry with the same key
+     */
+    public void release(byte[] keyHash) {
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND status_code IS NULL", keyHash);
+        } catch (DataAccessException e) {
+            log.warn("Could not release idempotency key: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remove keys older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purgeIntervalMs:3600000}",
+            initialDelayString = "${app.idempotency.purgeIntervalMs:3600000}")
+    public void purgeExpired() {
+        try {
+            int removed = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                    Timestamp.from(Instant.now().minusSeconds(ttlHours * 3600)));
+            if (removed > 0) {
+                log.debug("Purged {} expired idempotency key(s)", removed);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not purge idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private boolean tryInsert(byte[] keyHash, byte[] requestHash) {
+        return jdbcTemplate.update("INSERT INTO idempotency_keys (key_hash, request_hash) VALUES (?, ?) "
+                + "ON CONFLICT (key_hash) DO NOTHING", keyHash, requestHash) == 1;
+    }
+
+    private StoredResponse load(byte[] keyHash) {
+        List<StoredResponse> rows = jdbcTemplate.query("SELECT request_hash, status_code, response_body, created_at "
+                + "FROM idempotency_keys WHERE key_hash = ?",
+                (rs, rowNum) -> new StoredResponse(rs.getBytes(1), rs.getInt(2), gunzip(rs.getBytes(3)),
+                        rs.getTimestamp(4).toInstant()),
+                keyHash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private boolean isExpired(StoredResponse response) {
+        return response.getCreatedAt().isBefore(Instant.now().minusSeconds(ttlHours * 3600));
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, data.length / 2));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * What is stored for a key; status 0 means the original request is still running
+     */
+    public static final class StoredResponse {
+
+        private final byte[] requestHash;
+        private final int status;
+        private final byte[] body;
+        private final Instant createdAt;
+
+        StoredResponse(byte[] requestHash, int status, byte[] body, Instant createdAt) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+            this.createdAt = createdAt;
+        }
+
+        static StoredResponse inProgress(byte[] requestHash) {
+            return new StoredResponse(requestHash, 0, null, Instant.now());
+        }
+
+        public boolean isCompleted() {
+            return status > 0;
+        }
+
+        /**
+         * Whether the stored request had the same body as this one
+         */
+        public boolean matches(byte[] otherRequestHash) {
+            return Arrays.equals(requestHash, otherRequestHash);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
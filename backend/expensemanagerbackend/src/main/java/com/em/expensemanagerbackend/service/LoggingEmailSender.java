@@ -0,0 +1,17 @@
+package com.em.expensemanagerbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fallback sender used when no SMTP server is configured
+ */
+public class LoggingEmailSender implements EmailSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingEmailSender.class);
+
+    @Override
+    public void send(String to, String subject, String body) {
+        log.info("Email not sent (no SMTP configured) to {}: {}", to, subject);
+    }
+}
@@ -0,0 +1,216 @@
+package com.em.expensemanagerbackend.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.repository.NotificationRepository;
+
+/**
+ * Housekeeping for the monthly-partitioned notifications table:
+ * creates partitions ahead of time, expires whole partitions past the
+ * retention period (DETACH then DROP, or move to the notifications_archive
+ * schema) and compacts repeated notifications for the same expense down to
+ * the newest one per recipient. Each step runs in its own transaction behind
+ * a transaction-scoped advisory lock so only one instance does the work.
+ */
+@Component
+public class NotificationMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationMaintenanceService.class);
+
+    private static final long MAINTENANCE_LOCK_KEY = 7_300_301L;
+    private static final String ARCHIVE_SCHEMA = "notifications_archive";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("notifications_p(\\d{6})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Value("${app.notifications.partitionsAhead:3}")
+    private int partitionsAhead;
+
+    @Value("${app.notifications.retentionMonths:12}")
+    private int retentionMonths;
+
+    @Value("${app.notifications.archiveExpiredPartitions:false}")
+    private boolean archiveExpiredPartitions;
+
+    @Value("${app.notifications.compactionWindowDays:31}")
+    private int compactionWindowDays;
+
+    /**
+     * Run all maintenance steps; a failing step is logged and does not stop
+     * the others
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.maintenanceIntervalMs:21600000}",
+            initialDelayString = "${app.notifications.maintenanceInitialDelayMs:60000}")
+    public void runMaintenance() {
+        YearMonth current = YearMonth.now();
+        boolean rowsRemoved = false;
+
+        for (int i = 0; i <= partitionsAhead; i++) {
+            ensurePartition(current.plusMonths(i));
+        }
+        if (retentionMonths > 0) {
+            for (String partition : expiredPartitions(listPartitions(), current, retentionMonths)) {
+                rowsRemoved |= expirePartition(partition);
+            }
+        }
+        if (compactionWindowDays > 0) {
+            rowsRemoved |= compact(LocalDateTime.now().minusDays(compactionWindowDays)) > 0;
+        }
+
+        if (rowsRemoved) {
+            unreadCountService.reconcile();
+        }
+    }
+
+    /**
+     * Create the partition for a month unless it already exists. Rows that
+     * notifications_default already caught for the month would make CREATE
+     * ... PARTITION OF fail, so the table is created on its own, takes those
+     * rows over and is then attached.
+     */
+    void ensurePartition(YearMonth month) {
+        String name = partitionName(month);
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+        inLockedTransaction("create partition " + name, () -> {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                    name))) {
+                return false;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE notifications INCLUDING DEFAULTS)");
+            // Held until commit anyway by the ATTACH; taken first so no row for the month slips in meanwhile
+            jdbcTemplate.execute("LOCK TABLE notifications_default IN ACCESS EXCLUSIVE MODE");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM notifications_default WHERE created_at >= "
+                    + from + " AND created_at < " + to + " RETURNING *) INSERT INTO " + name + " SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE notifications ATTACH PARTITION " + name + " FOR VALUES FROM (" + from
+                    + ") TO (" + to + ")");
+            if (moved > 0) {
+                log.info("Notification partition {} created with {} row(s) from the default partition", name, moved);
+            }
+            return true;
+        }, false);
+    }
+
+    /**
+     * Detach an expired partition and drop or archive it
+     */
+    boolean expirePartition(String name) {
+        return inLockedTransaction("expire partition " + name, () -> {
+            jdbcTemplate.execute("ALTER TABLE notifications DETACH PARTITION " + name);
+            if (archiveExpiredPartitions) {
+                // Archived rows must not block deleting users or expenses later on
+                List<String> foreignKeys = jdbcTemplate.queryForList(
+                        "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                        String.class, name);
+                for (String foreignKey : foreignKeys) {
+                    jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT \"" + foreignKey + "\"");
+                }
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+                jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                log.info("Notification partition {} archived to schema {}", name, ARCHIVE_SCHEMA);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                log.info("Notification partition {} dropped", name);
+            }
+            return true;
+        }, false);
+    }
+
+    /**
+     * Remove notifications superseded by a newer one for the same recipient
+     * and expense
+     */
+    int compact(LocalDateTime since) {
+        int removed = inLockedTransaction("compact notifications",
+                () -> notificationRepository.deleteSupersededSince(since), 0);
+        if (removed > 0) {
+            log.info("Compacted {} superseded notification(s)", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Monthly partitions currently attached to notifications
+     */
+    List<String> listPartitions() {
+        try {
+            return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                    + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                    + "WHERE p.relname = 'notifications'", String.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not list notification partitions: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Partitions whose whole month lies before the retention window; the
+     * default partition and unknown names are never expired
+     */
+    static List<String> expiredPartitions(List<String> partitions, YearMonth current, int retentionMonths) {
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches() && YearMonth.parse(matcher.group(1), SUFFIX).isBefore(oldestKept)) {
+                expired.add(partition);
+            }
+        }
+        expired.sort(null);
+        return expired;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "notifications_p" + month.format(SUFFIX);
+    }
+
+    /**
+     * Run one step in its own transaction; returns the fallback when another
+     * instance holds the lock or the step fails
+     */
+    private <T> T inLockedTransaction(String step, Supplier<T> work, T fallback) {
+        try {
+            T result = transactionTemplate.execute(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                        MAINTENANCE_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Skipping {}: another instance holds the maintenance lock", step);
+                    return fallback;
+                }
+                return work.get();
+            });
+            return result != null ? result : fallback;
+        } catch (DataAccessException e) {
+            log.warn("Notification maintenance step '{}' failed: {}", step, e.getMessage());
+            return fallback;
+        }
+    }
+}
@@ -1,16 +1,48 @@
 package com.em.expensemanagerbackend.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.em.expensemanagerbackend.dto.NotificationResponseDto;
+import com.em.expensemanagerbackend.enums.NotificationType;
+import com.em.expensemanagerbackend.enums.UserRole;
 import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.Notification;
 import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.NotificationRepository;
 
 @Service
+@Transactional
 public class NotificationService {
 
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private EmailDigestService emailDigestService;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Value("${app.notifications.listLimit:50}")
+    private int listLimit;
+
+    @Value("${app.notifications.recentDays:30}")
+    private int recentDays;
+
     /**
      * Notify managers of new expense submission
      */
@@ -29,7 +61,36 @@ public class NotificationService {
         notificationData.put("employeeName", expenseRequest.getEmployee().getFullName());
         notificationData.put("targetRole", "MANAGER");
 
-        // Broadcast to all users (managers will filter on frontend)
+        // Store one row per manager (set-based) and queue the email digest
+        persistForRole(UserRole.MANAGER, notificationData, NotificationType.NEW_EXPENSE_SUBMITTED,
+                expenseRequest, expenseRequest.getEmployee());
+        emailDigestService.enqueueForRole(UserRole.MANAGER, (String) notificationData.get("message"));
+    }
+
+    /**
+     * Notify managers once of several expenses submitted together (batch
+     * upload); the notification is not tied to a single expense
+     */
+    public void notifyManagersOfNewExpenses(User employee, List<ExpenseRequest> expenseRequests) {
+        if (expenseRequests.size() == 1) {
+            notifyManagersOfNewExpense(expenseRequests.get(0));
+            return;
+        }
+        BigDecimal total = expenseRequests.stream()
+                .map(ExpenseRequest::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        System.out.println("🔔 PING: " + expenseRequests.size() + " expenses submitted for $" + total
+                + " by " + employee.getFullName());
+
+        Map<String, Object> notificationData = new HashMap<>();
+        notificationData.put("type", "expenses-submitted");
+        notificationData.put("title", "New Expenses Submitted");
+        notificationData.put("message", employee.getFullName() + " submitted " + expenseRequests.size()
+                + " new expenses totalling $" + total);
+        notificationData.put("targetRole", "MANAGER");
+
+        persistForRole(UserRole.MANAGER, notificationData, NotificationType.NEW_EXPENSE_SUBMITTED, null, employee);
+        emailDigestService.enqueueForRole(UserRole.MANAGER, (String) notificationData.get("message"));
     }
 
     /**
@@ -62,6 +123,132 @@ public class NotificationService {
         financeNotification.put("targetRole", "FINANCE");
 
         // Broadcast both notifications
+        persistForUser(expenseRequest.getEmployee(), employeeNotification, NotificationType.EXPENSE_APPROVED_BY_MANAGER,
+                expenseRequest, manager);
+        persistForRole(UserRole.FINANCE, financeNotification, NotificationType.EXPENSE_PENDING_FINANCE_APPROVAL,
+                expenseRequest, manager);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) employeeNotification.get("message"));
+        emailDigestService.enqueueForRole(UserRole.FINANCE, (String) financeNotification.get("message"));
+    }
+
+    /**
+     * Notify employee and the other managers of a first approval that needs
+     * a second manager
+     */
+    public void notifyExpenseAwaitingSecondApproval(ExpenseRequest expenseRequest, User manager) {
+        System.out.println("🔔 PING: Expense approved by " + manager.getFullName() + ", awaiting a second manager: "
+                + expenseRequest.getTitle());
+
+        // Notify employee
+        Map<String, Object> employeeNotification = new HashMap<>();
+        employeeNotification.put("type", "expense-approved-by-manager");
+        employeeNotification.put("title", "Expense Approved by Manager");
+        employeeNotification.put("message", "Your expense '" + expenseRequest.getTitle() + "' has been approved by "
+                + manager.getFullName() + " and awaits a second manager's approval.");
+        employeeNotification.put("expenseId", expenseRequest.getId());
+        employeeNotification.put("expenseTitle", expenseRequest.getTitle());
+        employeeNotification.put("managerName", manager.getFullName());
+        employeeNotification.put("targetRole", "EMPLOYEE");
+        employeeNotification.put("targetUserId", expenseRequest.getEmployee().getId());
+
+        // Notify managers
+        Map<String, Object> managerNotification = new HashMap<>();
+        managerNotification.put("type", "expense-submitted");
+        managerNotification.put("title", "Expense Needs a Second Approval");
+        managerNotification.put("message", "Expense '" + expenseRequest.getTitle() + "' from "
+                + expenseRequest.getEmployee().getFullName() + " (" + expenseRequest.getAmount()
+                + ") was approved by " + manager.getFullName() + " and needs a second manager.");
+        managerNotification.put("expenseId", expenseRequest.getId());
+        managerNotification.put("expenseTitle", expenseRequest.getTitle());
+        managerNotification.put("employeeName", expenseRequest.getEmployee().getFullName());
+        managerNotification.put("managerName", manager.getFullName());
+        managerNotification.put("targetRole", "MANAGER");
+
+        persistForUser(expenseRequest.getEmployee(), employeeNotification, NotificationType.EXPENSE_APPROVED_BY_MANAGER,
+                expenseRequest, manager);
+        persistForRole(UserRole.MANAGER, managerNotification, NotificationType.NEW_EXPENSE_SUBMITTED,
+                expenseRequest, manager);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) employeeNotification.get("message"));
+        emailDigestService.enqueueForRole(UserRole.MANAGER, (String) managerNotification.get("message"));
+    }
+
+    /**
+     * Notify employee and finance of an expense approved by an auto-approval rule
+     */
+    public void notifyExpenseAutoApproved(ExpenseRequest expenseRequest, String ruleName) {
+        System.out.println("🔔 PING: Expense auto-approved by rule '" + ruleName + "': " + expenseRequest.getTitle()
+                + " - Employee and Finance team notified");
+
+        // Notify employee
+        Map<String, Object> employeeNotification = new HashMap<>();
+        employeeNotification.put("type", "expense-approved-by-manager");
+        employeeNotification.put("title", "Expense Approved Automatically");
+        employeeNotification.put("message", "Your expense '" + expenseRequest.getTitle()
+                + "' met the approval policy and was sent straight to Finance.");
+        employeeNotification.put("expenseId", expenseRequest.getId());
+        employeeNotification.put("expenseTitle", expenseRequest.getTitle());
+        employeeNotification.put("ruleName", ruleName);
+        employeeNotification.put("targetRole", "EMPLOYEE");
+        employeeNotification.put("targetUserId", expenseRequest.getEmployee().getId());
+
+        // Notify finance team
+        Map<String, Object> financeNotification = new HashMap<>();
+        financeNotification.put("type", "expense-pending-finance");
+        financeNotification.put("title", "New Expense Awaiting Finance Approval");
+        financeNotification.put("message", "Expense '" + expenseRequest.getTitle() + "' from "
+                + expenseRequest.getEmployee().getFullName() + " was auto-approved by rule '" + ruleName
+                + "' and awaits your review.");
+        financeNotification.put("expenseId", expenseRequest.getId());
+        financeNotification.put("expenseTitle", expenseRequest.getTitle());
+        financeNotification.put("employeeName", expenseRequest.getEmployee().getFullName());
+        financeNotification.put("ruleName", ruleName);
+        financeNotification.put("targetRole", "FINANCE");
+
+        persistForUser(expenseRequest.getEmployee(), employeeNotification, NotificationType.EXPENSE_APPROVED_BY_MANAGER,
+                expenseRequest, null);
+        persistForRole(UserRole.FINANCE, financeNotification, NotificationType.EXPENSE_PENDING_FINANCE_APPROVAL,
+                expenseRequest, null);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) employeeNotification.get("message"));
+        emailDigestService.enqueueForRole(UserRole.FINANCE, (String) financeNotification.get("message"));
+    }
+
+    /**
+     * Notify employee and finance once of several expenses from a batch upload
+     * that auto-approval rules sent straight to finance
+     */
+    public void notifyExpensesAutoApproved(User employee, List<ExpenseRequest> expenseRequests, List<String> ruleNames) {
+        if (expenseRequests.size() == 1) {
+            notifyExpenseAutoApproved(expenseRequests.get(0), ruleNames.get(0));
+            return;
+        }
+        BigDecimal total = expenseRequests.stream()
+                .map(ExpenseRequest::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        System.out.println("🔔 PING: " + expenseRequests.size() + " expenses auto-approved for $" + total
+                + " from " + employee.getFullName() + " - Employee and Finance team notified");
+
+        // Notify employee
+        Map<String, Object> employeeNotification = new HashMap<>();
+        employeeNotification.put("type", "expense-approved-by-manager");
+        employeeNotification.put("title", "Expenses Approved Automatically");
+        employeeNotification.put("message", expenseRequests.size()
+                + " of your expenses met the approval policy and were sent straight to Finance.");
+        employeeNotification.put("targetRole", "EMPLOYEE");
+        employeeNotification.put("targetUserId", employee.getId());
+
+        // Notify finance team
+        Map<String, Object> financeNotification = new HashMap<>();
+        financeNotification.put("type", "expense-pending-finance");
+        financeNotification.put("title", "New Expenses Awaiting Finance Approval");
+        financeNotification.put("message", expenseRequests.size() + " expenses from " + employee.getFullName()
+                + " totalling $" + total + " were auto-approved and await your review.");
+        financeNotification.put("targetRole", "FINANCE");
+
+        persistForUser(employee, employeeNotification, NotificationType.EXPENSE_APPROVED_BY_MANAGER, null, null);
+        persistForRole(UserRole.FINANCE, financeNotification, NotificationType.EXPENSE_PENDING_FINANCE_APPROVAL, null,
+                null);
+        emailDigestService.enqueueForUser(employee, (String) employeeNotification.get("message"));
+        emailDigestService.enqueueForRole(UserRole.FINANCE, (String) financeNotification.get("message"));
     }
 
     /**
@@ -84,6 +271,9 @@ public class NotificationService {
         notificationData.put("targetUserId", expenseRequest.getEmployee().getId());
 
         // Broadcast notification
+        persistForUser(expenseRequest.getEmployee(), notificationData, NotificationType.EXPENSE_REJECTED_BY_MANAGER,
+                expenseRequest, manager);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) notificationData.get("message"));
     }
 
     /**
@@ -106,6 +296,9 @@ public class NotificationService {
         notificationData.put("targetUserId", expenseRequest.getEmployee().getId());
 
         // Broadcast notification
+        persistForUser(expenseRequest.getEmployee(), notificationData, NotificationType.EXPENSE_PAID,
+                expenseRequest, financeUser);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) notificationData.get("message"));
     }
 
     /**
@@ -128,5 +321,100 @@ public class NotificationService {
         notificationData.put("targetUserId", expenseRequest.getEmployee().getId());
 
         // Broadcast notification
+        persistForUser(expenseRequest.getEmployee(), notificationData, NotificationType.EXPENSE_REJECTED_BY_FINANCE,
+                expenseRequest, financeUser);
+        emailDigestService.enqueueForUser(expenseRequest.getEmployee(), (String) notificationData.get("message"));
+    }
+
+    /**
+     * Get the latest notifications from the last app.notifications.recentDays
+     * days for the current user
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationResponseDto> getCurrentUserNotifications() {
+        User currentUser = currentUserService.getCurrentUser();
+        LocalDateTime since = LocalDateTime.now().minusDays(recentDays);
+        return notificationRepository.findRecentByRecipientId(currentUser.getId(), since, PageRequest.of(0, listLimit))
+                .stream()
+                .map(this::convertToResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the unread notification count for the current user
+     */
+    @Transactional(readOnly = true)
+    public long getCurrentUserUnreadCount() {
+        return unreadCountService.getUnreadCount(currentUserService.getCurrentUser());
+    }
+
+    /**
+     * Mark one of the current user's notifications as read
+     */
+    public void markAsRead(Long notificationId) {
+        User currentUser = currentUserService.getCurrentUser();
+        int updated = notificationRepository.markAsRead(notificationId, currentUser.getId());
+        unreadCountService.onNotificationsRead(currentUser.getId(), updated);
+    }
+
+    /**
+     * Mark all of the current user's notifications as read
+     */
+    public int markAllAsRead() {
+        User currentUser = currentUserService.getCurrentUser();
+        int updated = notificationRepository.markAllAsReadByRecipientId(currentUser.getId());
+        unreadCountService.onNotificationsRead(currentUser.getId(), updated);
+        return updated;
+    }
+
+    /**
+     * Keep notifications when their expense is deleted, just unlink them
+     */
+    public void detachFromExpense(Long expenseRequestId) {
+        notificationRepository.detachFromExpenseRequest(expenseRequestId);
+    }
+
+    /**
+     * Persist a notification for a single recipient
+     */
+    private void persistForUser(User recipient, Map<String, Object> data, NotificationType type,
+            ExpenseRequest expenseRequest, User triggeredBy) {
+        notificationRepository.save(new Notification((String) data.get("title"), (String) data.get("message"),
+                type, recipient, expenseRequest, triggeredBy));
+        unreadCountService.onNotificationCreated(recipient);
+    }
+
+    /**
+     * Persist a notification for every user of a role with a single INSERT ...
+     * SELECT, so the cost does not grow with the size of the team
+     */
+    private void persistForRole(UserRole role, Map<String, Object> data, NotificationType type,
+            ExpenseRequest expenseRequest, User triggeredBy) {
+        notificationRepository.insertForRole(role.name(), (String) data.get("title"), (String) data.get("message"),
+                type.name(), expenseRequest != null ? expenseRequest.getId() : null,
+                triggeredBy != null ? triggeredBy.getId() : null);
+        unreadCountService.onRoleNotificationCreated(role);
+    }
+
+    /**
+     * Convert Notification entity to response DTO
+     */
+    private NotificationResponseDto convertToResponseDto(Notification notification) {
+        NotificationResponseDto dto = new NotificationResponseDto(
+                notification.getId(),
+                notification.getTitle(),
+                notification.getMessage(),
+                notification.getType(),
+                notification.isRead(),
+                notification.getCreatedAt()
+        );
+        if (notification.getExpenseRequest() != null) {
+            dto.setExpenseRequestId(notification.getExpenseRequest().getId());
+            dto.setExpenseTitle(notification.getExpenseRequest().getTitle());
+        }
+        if (notification.getTriggeredBy() != null) {
+            dto.setTriggeredByName(notification.getTriggeredBy().getFullName());
+        }
+        return dto;
     }
 }
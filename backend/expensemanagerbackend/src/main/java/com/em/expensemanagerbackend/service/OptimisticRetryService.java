@@ -0,0 +1,85 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs expense writes that may lose an optimistic-locking race and records
+ * how often they do. Each attempt must be a complete transaction of its own
+ * (a call into a transactional service from outside any transaction), so a
+ * retry re-reads the expense and re-checks every rule against the fresh
+ * state. Metrics: expense.writes and expense.conflicts (outcome retried or
+ * rejected), both tagged by operation; their ratio is the conflict rate.
+ */
+@Service
+public class OptimisticRetryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetryService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.expenses.conflictMaxAttempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.expenses.conflictBackoffMs:20}")
+    private long backoffMs;
+
+    /**
+     * Run an idempotent transition, retrying it with a short jittered backoff
+     * when it conflicts; the last conflict is rethrown once attempts run out
+     */
+    public <T> T retry(String operation, Supplier<T> action) {
+        // Inside a caller's transaction the stale entity would just be read again
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : Math.max(1, maxAttempts);
+        for (int attempt = 1;; attempt++) {
+            meterRegistry.counter("expense.writes", "operation", operation).increment();
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    meterRegistry.counter("expense.conflicts", "operation", operation, "outcome", "rejected").increment();
+                    log.debug("{} gave up after {} conflicting attempt(s)", operation, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("expense.conflicts", "operation", operation, "outcome", "retried").increment();
+                pause(attempt);
+            }
+        }
+    }
+
+    /**
+     * Run a write that must not be retried (it would overwrite what the
+     * client has not seen); conflicts are only counted and rethrown
+     */
+    public <T> T once(String operation, Supplier<T> action) {
+        meterRegistry.counter("expense.writes", "operation", operation).increment();
+        try {
+            return action.get();
+        } catch (OptimisticLockingFailureException e) {
+            meterRegistry.counter("expense.conflicts", "operation", operation, "outcome", "rejected").increment();
+            throw e;
+        }
+    }
+
+    private void pause(int attempt) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt / 2, backoffMs * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
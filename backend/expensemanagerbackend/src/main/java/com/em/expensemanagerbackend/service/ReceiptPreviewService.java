@@ -0,0 +1,294 @@
+package com.em.expensemanagerbackend.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.em.expensemanagerbackend.event.ReceiptAttachedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates small JPEG previews of receipts off the request path. A fixed
+ * pool of workers drains a bounded queue; when the queue is full a request is
+ * dropped (and counted) instead of blocking the uploader, and the preview is
+ * asked for again the next time someone fetches it. Previews are written
+ * next to the blob (see ReceiptStorageService.previewPath), so each distinct
+ * file is rendered once.
+ *
+ * Images are decoded with ImageIO, subsampled while reading when they are
+ * much larger than the preview. For PDFs the preview is the first embedded
+ * JPEG, which for a scanned or photographed receipt is the page itself; PDFs
+ * without one (and WebP, which ImageIO cannot read) get no preview.
+ */
+@Service
+public class ReceiptPreviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptPreviewService.class);
+
+    private static final byte[] DCT_DECODE = "/DCTDecode".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STREAM = "stream".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private ReceiptStorageService receiptStorageService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.receipts.previews.workers:2}")
+    private int workers;
+
+    @Value("${app.receipts.previews.queueCapacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.receipts.previews.maxEdgePx:320}")
+    private int maxEdgePx;
+
+    @Value("${app.receipts.previews.maxSourcePixels:100000000}")
+    private long maxSourcePixels;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private Timer renderTimer;
+    private Counter generated;
+    private Counter unsupported;
+    private Counter failed;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("receipt-preview-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("receipt.previews.queue.depth", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("receipt.previews.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        renderTimer = meterRegistry.timer("receipt.previews.render");
+        generated = meterRegistry.counter("receipt.previews", "result", "generated");
+        unsupported = meterRegistry.counter("receipt.previews", "result", "unsupported");
+        failed = meterRegistry.counter("receipt.previews", "result", "failed");
+        rejected = meterRegistry.counter("receipt.previews", "result", "rejected");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a preview for a newly attached receipt
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReceiptAttached(ReceiptAttachedEvent event) {
+        request(event.getContentHash(), event.getContentType());
+    }
+
+    /**
+     * Queue a preview unless it exists, cannot be made or is already queued.
+     * Returns false when the queue is full.
+     */
+    public boolean request(String hash, String contentType) {
+        if (Files.exists(receiptStorageService.previewPath(hash))
+                || Files.exists(receiptStorageService.noPreviewPath(hash))
+                || !pending.add(hash)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    renderTimer.record(() -> generate(hash, contentType));
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            rejected.increment();
+            log.debug("Preview queue full, skipped receipt {}", hash);
+            return false;
+        }
+    }
+
+    /**
+     * Render and store one preview; runs on a worker thread
+     */
+    void generate(String hash, String contentType) {
+        try {
+            BufferedImage source = "application/pdf".equals(contentType)
+                    ? readFirstEmbeddedJpeg(receiptStorageService.blobPath(hash))
+                    : readImage(receiptStorageService.blobPath(hash), 0);
+            if (source == null) {
+                Files.createFile(receiptStorageService.noPreviewPath(hash));
+                unsupported.increment();
+                return;
+            }
+            Path tmp = receiptStorageService.createTempFile("preview-");
+            try {
+                if (!ImageIO.write(downscale(source), "jpg", tmp.toFile())) {
+                    throw new IOException("No JPEG writer available");
+                }
+                Files.move(tmp, receiptStorageService.previewPath(hash), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            generated.increment();
+        } catch (IOException | RuntimeException e) {
+            // Mostly corrupt or oversized files, which would fail again: stop asking
+            failed.increment();
+            log.warn("Could not generate preview for receipt {}: {}", hash, e.getMessage());
+            try {
+                Files.createFile(receiptStorageService.noPreviewPath(hash));
+            } catch (IOException ignored) {
+                // The preview is requested again on the next fetch
+            }
+        }
+    }
+
+    /**
+     * Decode an image starting at the given file offset, or null when ImageIO
+     * has no reader for it. Large images are subsampled while decoding so
+     * that the full-size raster is never held in memory.
+     */
+    BufferedImage readImage(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            try (InputStream in = Channels.newInputStream(channel);
+                    ImageInputStream images = ImageIO.createImageInputStream(in)) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(images);
+                if (!readers.hasNext()) {
+                    return null;
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(images, true, true);
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    if ((long) width * height > maxSourcePixels) {
+                        throw new IOException("Image of " + width + "x" + height + " pixels is too large");
+                    }
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    // Keep at least twice the preview size so the final scaling still smooths
+                    int step = Math.max(1, Math.max(width, height) / (maxEdgePx * 2));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    return reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode the first DCTDecode (JPEG) stream of a PDF, or null when it has
+     * none. The file is searched through a memory mapping rather than read
+     * onto the heap.
+     */
+    BufferedImage readFirstEmbeddedJpeg(Path file) throws IOException {
+        long offset;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer pdf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            offset = findJpegStream(pdf);
+        }
+        return offset < 0 ? null : readImage(file, offset);
+    }
+
+    /**
+     * Offset of the data of the first stream whose dictionary names the
+     * DCTDecode filter, or -1
+     */
+    static long findJpegStream(ByteBuffer pdf) {
+        int filter = indexOf(pdf, DCT_DECODE, 0);
+        if (filter < 0) {
+            return -1;
+        }
+        int keyword = indexOf(pdf, STREAM, filter + DCT_DECODE.length);
+        if (keyword < 0) {
+            return -1;
+        }
+        // The keyword is followed by CRLF or LF before the data
+        int data = keyword + STREAM.length;
+        if (data < pdf.limit() && pdf.get(data) == '\r') {
+            data++;
+        }
+        if (data < pdf.limit() && pdf.get(data) == '\n') {
+            data++;
+        }
+        return data;
+    }
+
+    private static int indexOf(ByteBuffer data, byte[] pattern, int from) {
+        int last = data.limit() - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Fit within maxEdgePx on an opaque white background (JPEG has no alpha)
+     */
+    BufferedImage downscale(BufferedImage source) {
+        double scale = Math.min(1.0, (double) maxEdgePx / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = preview.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return preview;
+    }
+}
@@ -0,0 +1,292 @@
+package com.em.expensemanagerbackend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed receipt files on local disk. An upload is streamed
+ * through a fixed-size buffer into a temporary file while its SHA-256 is
+ * computed, then moved to blobs/ab/cd/abcd... (first two byte pairs of the
+ * hash as directories). When that path already exists the upload is a
+ * duplicate and the temporary file is dropped. Heap use per upload is the
+ * buffer, whatever the file size.
+ */
+@Service
+public class ReceiptStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptStorageService.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    @Value("${app.receipts.storageDir:./data/receipts}")
+    private String storageDir;
+
+    @Value("${app.receipts.maxBytes:26214400}")
+    private long maxBytes;
+
+    private Path blobRoot;
+    private Path tmpDir;
+
+    @PostConstruct
+    void init() throws IOException {
+        Path root = Path.of(storageDir).toAbsolutePath();
+        blobRoot = Files.createDirectories(root.resolve("blobs"));
+        tmpDir = Files.createDirectories(root.resolve("tmp"));
+    }
+
+    /**
+     * Store an upload; throws when it is empty, too large or not a PDF or
+     * image receipt
+     */
+    public StoredReceipt store(InputStream upload) throws IOException {
+        MessageDigest digest = sha256();
+        Path tmp = createTempFile("upload-");
+        long size = 0;
+        String contentType = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            try (ReadableByteChannel in = Channels.newChannel(upload);
+                    FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                boolean endOfInput = false;
+                while (!endOfInput) {
+                    // Fill the buffer before writing, so type detection always sees the file's head
+                    while (buffer.hasRemaining()) {
+                        if (in.read(buffer) == -1) {
+                            endOfInput = true;
+                            break;
+                        }
+                    }
+                    buffer.flip();
+                    if (!buffer.hasRemaining()) {
+                        break;
+                    }
+                    if (contentType == null) {
+                        contentType = detectContentType(buffer);
+                    }
+                    size += buffer.remaining();
+                    if (size > maxBytes) {
+                        throw new RuntimeException("Receipt exceeds the maximum size of " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            }
+            if (size == 0) {
+                throw new RuntimeException("Receipt file is empty");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(hash);
+            boolean duplicate = Files.exists(target);
+            if (!duplicate) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // A concurrent upload of the same content got there first (on platforms that do not replace)
+                    duplicate = true;
+                }
+            }
+            if (duplicate) {
+                log.debug("Receipt {} already stored, upload deduplicated", hash);
+            }
+            return new StoredReceipt(hash, size, contentType, duplicate);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Location of a blob by its hash
+     */
+    public Path blobPath(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid receipt hash");
+        }
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Location of a blob's generated preview image, next to the blob
+     */
+    public Path previewPath(String hash) {
+        return blobPath(hash).resolveSibling(hash + ".preview.jpg");
+    }
+
+    /**
+     * Marker recording that no preview can be made of a blob
+     */
+    public Path noPreviewPath(String hash) {
+        return blobPath(hash).resolveSibling(hash + ".preview.none");
+    }
+
+    /**
+     * New empty file in the storage's temporary directory, on the same file
+     * system as the blobs so that it can be moved into place atomically
+     */
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(tmpDir, prefix, ".part");
+    }
+
+    /**
+     * Copy part of a stored file to a channel with FileChannel.transferTo,
+     * which avoids staging the bytes on the heap
+     */
+    public void transfer(Path file, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long sent = in.transferTo(position, end - position, target);
+                if (sent <= 0 && position >= in.size()) {
+                    throw new IOException(file.getFileName() + " is shorter than expected");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * First and last byte (inclusive) requested by a single-range "bytes="
+     * Range header, or null to send the whole file: no header, a header that
+     * does not parse, or several ranges (which are not supported and may be
+     * answered in full). Throws when the range lies outside the file.
+     */
+    public static long[] parseRange(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        if (!spec.matches("\\d{1,18}-\\d{0,18}|-\\d{1,18}")) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        String first = spec.substring(0, dash);
+        String last = spec.substring(dash + 1);
+        long start;
+        long end;
+        if (first.isEmpty()) {
+            // Suffix range: the final N bytes
+            long suffix = Long.parseLong(last);
+            if (suffix == 0) {
+                throw new RuntimeException("Range not satisfiable");
+            }
+            start = Math.max(0, size - suffix);
+            end = size - 1;
+        } else {
+            start = Long.parseLong(first);
+            end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                return null;
+            }
+            end = Math.min(end, size - 1);
+        }
+        if (start >= size) {
+            throw new RuntimeException("Range not satisfiable");
+        }
+        return new long[] { start, end };
+    }
+
+    /**
+     * Receipt type from the file's leading bytes; the client-declared type is
+     * not trusted
+     */
+    static String detectContentType(ByteBuffer head) {
+        byte[] magic = new byte[Math.min(12, head.remaining())];
+        head.duplicate().get(magic);
+        if (startsWith(magic, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (startsWith(magic, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (startsWith(magic, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(magic, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(magic, 'R', 'I', 'F', 'F') && magic.length >= 12
+                && magic[8] == 'W' && magic[9] == 'E' && magic[10] == 'B' && magic[11] == 'P') {
+            return "image/webp";
+        }
+        throw new RuntimeException("Unsupported receipt type: only PDF, PNG, JPEG, GIF and WebP files are accepted");
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Result of storing one upload
+     */
+    public static final class StoredReceipt {
+
+        private final String hash;
+        private final long sizeBytes;
+        private final String contentType;
+        private final boolean duplicate;
+
+        StoredReceipt(String hash, long sizeBytes, String contentType, boolean duplicate) {
+            this.hash = hash;
+            this.sizeBytes = sizeBytes;
+            this.contentType = contentType;
+            this.duplicate = duplicate;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
+    }
+}
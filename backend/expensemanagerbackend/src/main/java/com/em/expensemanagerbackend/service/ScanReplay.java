@@ -0,0 +1,36 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.Map;
+
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+
+/**
+ * Decides which expense changes recorded while an in-memory index was being
+ * rebuilt from a scan must be replayed onto the new index. Recording starts
+ * before the scan's query, so a change may be in the scan, after it, or both
+ * recorded and scanned; the scan's change_seq per expense tells them apart.
+ */
+final class ScanReplay {
+
+    private ScanReplay() {
+    }
+
+    /**
+     * Whether a recorded change is missing from the scan (scanned maps
+     * expense id to change_seq and is updated as changes are replayed). A
+     * scanned expense has every change up to its change_seq. An expense the
+     * scan did not see was created after it, or created and deleted before
+     * it; its creation is replayed and its later changes follow from there.
+     */
+    static boolean missedByScan(Map<Long, Long> scanned, ExpenseChangedEvent event) {
+        Long seen = scanned.get(event.getExpenseId());
+        if (seen == null && event.getPreviousStatus() != null) {
+            return false;
+        }
+        if (seen != null && event.getChangeSeq() != null && event.getChangeSeq() <= seen) {
+            return false;
+        }
+        scanned.put(event.getExpenseId(), event.getChangeSeq() != null ? event.getChangeSeq() : Long.MAX_VALUE);
+        return true;
+    }
+}
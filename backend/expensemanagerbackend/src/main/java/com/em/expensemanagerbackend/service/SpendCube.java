@@ -0,0 +1,195 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.em.expensemanagerbackend.dto.SpendCubeRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+
+/**
+ * Pre-aggregated spend totals by employee, submission month, status and
+ * amount bucket. Each non-empty cell is one map entry keyed by the four
+ * dimension values packed into a long, holding {amount in cents, count}.
+ * Cells are replaced, never mutated, so readers always see a consistent pair.
+ */
+class SpendCube {
+
+    /**
+     * Dimensions a query can group by
+     */
+    enum Dimension {
+        EMPLOYEE, MONTH, STATUS, BUCKET
+    }
+
+    private static final int BUCKET_BITS = 4;
+    private static final int STATUS_BITS = 4;
+    private static final int MONTH_BITS = 16;
+    private static final int STATUS_SHIFT = BUCKET_BITS;
+    private static final int MONTH_SHIFT = STATUS_SHIFT + STATUS_BITS;
+    private static final int EMPLOYEE_SHIFT = MONTH_SHIFT + MONTH_BITS;
+    private static final long BUCKET_MASK = (1L << BUCKET_BITS) - 1;
+    private static final long STATUS_MASK = ((1L << STATUS_BITS) - 1) << STATUS_SHIFT;
+    private static final long MONTH_MASK = ((1L << MONTH_BITS) - 1) << MONTH_SHIFT;
+    private static final long EMPLOYEE_MASK = -1L << EMPLOYEE_SHIFT;
+
+    private final long[] bucketBoundsCents;
+    private final Map<Long, long[]> cells = new ConcurrentHashMap<>();
+
+    /**
+     * @param bucketBounds ascending upper bounds of the amount buckets; an
+     * amount equal to a bound falls into the next bucket
+     */
+    SpendCube(BigDecimal[] bucketBounds) {
+        if (bucketBounds.length >= (1 << BUCKET_BITS)) {
+            throw new IllegalArgumentException("At most " + ((1 << BUCKET_BITS) - 1) + " amount bucket bounds are supported");
+        }
+        this.bucketBoundsCents = Arrays.stream(bucketBounds).mapToLong(SpendCube::toCents).toArray();
+    }
+
+    /**
+     * Add (sign 1) or remove (sign -1) one expense
+     */
+    void add(Long employeeId, LocalDateTime createdAt, ExpenseStatus status, BigDecimal amount, int sign) {
+        long cents = toCents(amount);
+        YearMonth month = YearMonth.from(createdAt != null ? createdAt : LocalDateTime.now());
+        long key = key(employeeId, monthIndex(month), status.ordinal(), bucketOf(cents));
+        cells.compute(key, (k, cell) -> {
+            long newCents = (cell != null ? cell[0] : 0) + sign * cents;
+            long newCount = (cell != null ? cell[1] : 0) + sign;
+            return newCount == 0 ? null : new long[]{newCents, newCount};
+        });
+    }
+
+    /**
+     * Totals of the cells matching every given filter (null means any),
+     * grouped by the given dimensions
+     */
+    List<SpendCubeRowDto> query(Set<Dimension> groupBy, Long employeeId, YearMonth from, YearMonth to,
+            ExpenseStatus status, Integer bucket) {
+        long keepMask = (groupBy.contains(Dimension.EMPLOYEE) ? EMPLOYEE_MASK : 0)
+                | (groupBy.contains(Dimension.MONTH) ? MONTH_MASK : 0)
+                | (groupBy.contains(Dimension.STATUS) ? STATUS_MASK : 0)
+                | (groupBy.contains(Dimension.BUCKET) ? BUCKET_MASK : 0);
+        int fromIndex = from != null ? monthIndex(from) : 0;
+        int toIndex = to != null ? monthIndex(to) : Integer.MAX_VALUE;
+
+        Map<Long, long[]> groups = new TreeMap<>();
+        for (Map.Entry<Long, long[]> entry : cells.entrySet()) {
+            long key = entry.getKey();
+            int monthIndex = (int) ((key & MONTH_MASK) >>> MONTH_SHIFT);
+            if ((employeeId != null && (key >>> EMPLOYEE_SHIFT) != employeeId)
+                    || monthIndex < fromIndex || monthIndex > toIndex
+                    || (status != null && ((key & STATUS_MASK) >>> STATUS_SHIFT) != status.ordinal())
+                    || (bucket != null && (key & BUCKET_MASK) != bucket)) {
+                continue;
+            }
+            long[] cell = entry.getValue();
+            long[] group = groups.computeIfAbsent(key & keepMask, k -> new long[2]);
+            group[0] += cell[0];
+            group[1] += cell[1];
+        }
+
+        List<SpendCubeRowDto> rows = new ArrayList<>(groups.size());
+        for (Map.Entry<Long, long[]> group : groups.entrySet()) {
+            long key = group.getKey();
+            SpendCubeRowDto row = new SpendCubeRowDto();
+            if (groupBy.contains(Dimension.EMPLOYEE)) {
+                row.setEmployeeId(key >>> EMPLOYEE_SHIFT);
+            }
+            if (groupBy.contains(Dimension.MONTH)) {
+                row.setMonth(monthOf((int) ((key & MONTH_MASK) >>> MONTH_SHIFT)).toString());
+            }
+            if (groupBy.contains(Dimension.STATUS)) {
+                row.setStatus(ExpenseStatus.values()[(int) ((key & STATUS_MASK) >>> STATUS_SHIFT)]);
+            }
+            if (groupBy.contains(Dimension.BUCKET)) {
+                row.setAmountBucket(bucketLabel((int) (key & BUCKET_MASK)));
+            }
+            row.setTotalAmount(BigDecimal.valueOf(group.getValue()[0], 2));
+            row.setExpenseCount(group.getValue()[1]);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Number of non-empty cells
+     */
+    int size() {
+        return cells.size();
+    }
+
+    /**
+     * Human-readable label of a bucket, e.g. "100.00-500.00"
+     */
+    String bucketLabel(int bucket) {
+        String lower = bucket == 0 ? null : BigDecimal.valueOf(bucketBoundsCents[bucket - 1], 2).toPlainString();
+        String upper = bucket == bucketBoundsCents.length ? null : BigDecimal.valueOf(bucketBoundsCents[bucket], 2).toPlainString();
+        if (lower == null) {
+            return upper == null ? "all" : "<" + upper;
+        }
+        return upper == null ? ">=" + lower : lower + "-" + upper;
+    }
+
+    /**
+     * Index of a bucket from its label, or null when unknown
+     */
+    Integer bucketIndex(String label) {
+        for (int bucket = 0; bucket <= bucketBoundsCents.length; bucket++) {
+            if (bucketLabel(bucket).equals(label)) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    static Set<Dimension> parseDimensions(String groupBy) {
+        Set<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+        if (groupBy == null || groupBy.isBlank()) {
+            return dimensions;
+        }
+        for (String name : groupBy.split(",")) {
+            try {
+                dimensions.add(Dimension.valueOf(name.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown dimension: " + name.trim());
+            }
+        }
+        return dimensions;
+    }
+
+    private int bucketOf(long cents) {
+        int bucket = 0;
+        while (bucket < bucketBoundsCents.length && cents >= bucketBoundsCents[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static long key(long employeeId, int monthIndex, int status, int bucket) {
+        return (employeeId << EMPLOYEE_SHIFT) | ((long) monthIndex << MONTH_SHIFT) | ((long) status << STATUS_SHIFT) | bucket;
+    }
+
+    // Months since January 2000, which fits the 16 bits reserved for it until 7461
+    private static int monthIndex(YearMonth month) {
+        return Math.max(0, (month.getYear() - 2000) * 12 + month.getMonthValue() - 1);
+    }
+
+    private static YearMonth monthOf(int monthIndex) {
+        return YearMonth.of(2000 + monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
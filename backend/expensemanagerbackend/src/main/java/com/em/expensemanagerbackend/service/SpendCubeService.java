@@ -0,0 +1,181 @@
+package com.em.expensemanagerbackend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.dto.SpendCubeRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.event.ExpensesImportedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Finance spend analytics answered from an in-memory SpendCube. The cube is
+ * built by streaming every expense once at startup and rebuilt on
+ * app.analytics.cubeRebuildIntervalMs; in between, committed expense changes
+ * are applied to it as they happen. Changes recorded while a rebuild is
+ * scanning are replayed onto the new cube before it replaces the old one,
+ * skipping those the scan already saw (by expense id and change_seq).
+ */
+@Service
+public class SpendCubeService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendCubeService.class);
+
+    @Autowired
+    private ExpenseRequestRepository expenseRequestRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.analytics.amountBuckets:50,100,500,1000,5000}")
+    private String amountBuckets;
+
+    private BigDecimal[] bucketBounds;
+    private final Object lock = new Object();
+    private SpendCube cube;
+    private List<ExpenseChangedEvent> replay;
+
+    @PostConstruct
+    void init() {
+        bucketBounds = Arrays.stream(amountBuckets.split(","))
+                .map(String::trim)
+                .filter(bound -> !bound.isEmpty())
+                .map(BigDecimal::new)
+                .sorted()
+                .toArray(BigDecimal[]::new);
+    }
+
+    /**
+     * Apply a committed expense change to the live cube (and to the one
+     * being built, via replay)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        synchronized (lock) {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (cube != null) {
+                apply(cube, event);
+            }
+        }
+    }
+
+    /**
+     * Bulk imports bypass the per-expense events, so reload the cube (in the
+     * background, not on the importing thread)
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the cube from a streaming scan of expense_requests
+     * (serialized: the schedule and bulk imports may both trigger one)
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.cubeRebuildIntervalMs:3600000}", initialDelay = 0)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        SpendCube fresh = new SpendCube(bucketBounds);
+        // change_seq of every scanned expense, to tell which recorded changes the scan already has
+        Map<Long, Long> scanned = new HashMap<>();
+        // Record from before the query starts, so no change can fall between the scan and the replay
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                try (Stream<Object[]> facts = expenseRequestRepository.streamSpendFacts()) {
+                    facts.forEach(fact -> {
+                        scanned.put((Long) fact[0], (Long) fact[5]);
+                        fresh.add((Long) fact[1], (LocalDateTime) fact[2], (ExpenseStatus) fact[3], (BigDecimal) fact[4], 1);
+                    });
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                replay = null;
+            }
+            log.warn("Spend cube rebuild failed: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (lock) {
+            for (ExpenseChangedEvent event : replay) {
+                if (ScanReplay.missedByScan(scanned, event)) {
+                    apply(fresh, event);
+                }
+            }
+            replay = null;
+            cube = fresh;
+        }
+        log.info("Spend cube rebuilt with {} cell(s) in {} ms", fresh.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Slice the cube: filters narrow it down (null means any), groupBy is a
+     * comma-separated list of employee, month, status and bucket. Drill down
+     * by adding a filter for a row and grouping by another dimension.
+     */
+    public List<SpendCubeRowDto> query(String groupBy, Long employeeId, YearMonth from, YearMonth to,
+            ExpenseStatus status, String amountBucket) {
+        User currentUser = currentUserService.getCurrentUser();
+        if (currentUser.getRole() != UserRole.FINANCE) {
+            throw new RuntimeException("Access denied: Only finance staff can view spend analytics");
+        }
+        SpendCube current;
+        synchronized (lock) {
+            current = cube;
+        }
+        if (current == null) {
+            throw new RuntimeException("Spend analytics are still loading");
+        }
+
+        Integer bucket = null;
+        if (amountBucket != null) {
+            bucket = current.bucketIndex(amountBucket);
+            if (bucket == null) {
+                throw new RuntimeException("Unknown amount bucket: " + amountBucket);
+            }
+        }
+        return current.query(SpendCube.parseDimensions(groupBy), employeeId, from, to, status, bucket);
+    }
+
+    private static void apply(SpendCube target, ExpenseChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            target.add(event.getEmployeeId(), event.getCreatedAt(), event.getPreviousStatus(), event.getPreviousAmount(), -1);
+        }
+        if (event.getNewStatus() != null) {
+            target.add(event.getEmployeeId(), event.getCreatedAt(), event.getNewStatus(), event.getNewAmount(), 1);
+        }
+    }
+}
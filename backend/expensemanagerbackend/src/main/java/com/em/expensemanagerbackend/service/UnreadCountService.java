@@ -0,0 +1,142 @@
+package com.em.expensemanagerbackend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.NotificationUnreadCounterRepository;
+
+/**
+ * Unread notification counts backed by the notification_unread_counters table
+ * with a striped in-memory counter (LongAdder) per active user in front of it.
+ * Table updates run in the caller's transaction; in-memory counters are only
+ * adjusted after commit. Cached entries expire after app.notifications.
+ * unreadCacheTtlMs and the reconciliation job resets the cache after fixing
+ * the table, which bounds any drift between the two layers.
+ */
+@Service
+public class UnreadCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadCountService.class);
+
+    @Autowired
+    private NotificationUnreadCounterRepository counterRepository;
+
+    @Value("${app.notifications.unreadCacheTtlMs:60000}")
+    private long cacheTtlMs;
+
+    private final Map<Long, CachedCount> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Count a new notification for one user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onNotificationCreated(User recipient) {
+        counterRepository.addToUser(recipient.getId(), 1);
+        Long userId = recipient.getId();
+        afterCommit(() -> adjustCached(userId, 1));
+    }
+
+    /**
+     * Count a new notification for every user of a role
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onRoleNotificationCreated(UserRole role) {
+        counterRepository.incrementForRole(role.name());
+        afterCommit(() -> cache.values().forEach(entry -> {
+            if (entry.role == role) {
+                entry.count.increment();
+            }
+        }));
+    }
+
+    /**
+     * Remove notifications that were just marked as read from a user's count
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onNotificationsRead(Long userId, int readCount) {
+        if (readCount <= 0) {
+            return;
+        }
+        counterRepository.addToUser(userId, -readCount);
+        afterCommit(() -> adjustCached(userId, -readCount));
+    }
+
+    /**
+     * Unread count for a user, answered from memory when possible
+     */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(User user) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(user.getId());
+        if (cached != null && now - cached.loadedAt < cacheTtlMs) {
+            return Math.max(0, cached.count.sum());
+        }
+
+        long stored = counterRepository.findUnreadCountByUserId(user.getId()).orElse(0L);
+        CachedCount fresh = new CachedCount(user.getRole(), stored, now);
+        cache.put(user.getId(), fresh);
+        return stored;
+    }
+
+    /**
+     * Correct counters that drifted from the notifications table, then drop
+     * the in-memory layer so it reloads from the corrected values
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.unreadReconcileIntervalMs:900000}",
+            initialDelayString = "${app.notifications.unreadReconcileIntervalMs:900000}")
+    @Transactional
+    public void reconcile() {
+        int corrected = counterRepository.reconcileWithNotifications();
+        if (corrected > 0) {
+            log.info("Unread notification counters reconciled, {} row(s) corrected", corrected);
+        }
+        afterCommit(cache::clear);
+    }
+
+    private void adjustCached(Long userId, long delta) {
+        CachedCount cached = cache.get(userId);
+        if (cached != null) {
+            cached.count.add(delta);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class CachedCount {
+
+        private final UserRole role;
+        private final LongAdder count = new LongAdder();
+        private final long loadedAt;
+
+        CachedCount(UserRole role, long initial, long loadedAt) {
+            this.role = role;
+            this.loadedAt = loadedAt;
+            this.count.add(initial);
+        }
+    }
+}
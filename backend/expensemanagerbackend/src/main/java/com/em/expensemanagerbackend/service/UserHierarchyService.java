@@ -0,0 +1,113 @@
+package com.em.expensemanagerbackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.UserHierarchyChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+/**
+ * Reporting lines: users.manager_id plus its closure in user_hierarchy (see
+ * 18-user-hierarchy.sql). Moving a user moves everyone below them with two
+ * set statements, however deep the subtree; moves are serialized by a table
+ * lock, while readers never wait.
+ */
+@Service
+@Transactional
+public class UserHierarchyService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Employees without a manager stay visible to (and approvable by) every manager
+    @Value("${app.hierarchy.unassignedVisibleToAllManagers:true}")
+    private boolean unassignedVisibleToAllManagers;
+
+    /**
+     * Move a user, with everyone below them, under another manager (Finance
+     * only); a null manager detaches them
+     */
+    public void setManagerAsCurrentUser(Long userId, Long managerId) {
+        if (currentUserService.getCurrentUser().getRole() != UserRole.FINANCE) {
+            throw new RuntimeException("Access denied: Only finance staff can change reporting lines");
+        }
+        setManager(userId, managerId);
+    }
+
+    public void setManager(Long userId, Long managerId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        User manager = null;
+        if (managerId != null) {
+            manager = userRepository.findById(managerId)
+                    .orElseThrow(() -> new RuntimeException("Manager not found"));
+            if (manager.getRole() != UserRole.MANAGER) {
+                throw new RuntimeException("User " + managerId + " is not a manager");
+            }
+        }
+
+        jdbcTemplate.execute("LOCK TABLE user_hierarchy IN SHARE ROW EXCLUSIVE MODE");
+        if (managerId != null && isWithin(userId, managerId)) {
+            throw new RuntimeException("A user cannot report to themselves or to someone below them");
+        }
+
+        // Detach the subtree from the user's current ancestors
+        jdbcTemplate.update("DELETE FROM user_hierarchy "
+                + "WHERE descendant_id IN (SELECT descendant_id FROM user_hierarchy WHERE ancestor_id = ?) "
+                + "AND ancestor_id IN (SELECT ancestor_id FROM user_hierarchy WHERE descendant_id = ? AND depth > 0)",
+                userId, userId);
+        // Attach it below the new manager's chain
+        if (managerId != null) {
+            jdbcTemplate.update("INSERT INTO user_hierarchy (ancestor_id, descendant_id, depth) "
+                    + "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 "
+                    + "FROM user_hierarchy a JOIN user_hierarchy d ON d.ancestor_id = ? "
+                    + "WHERE a.descendant_id = ?", userId, managerId);
+        }
+
+        user.setManager(manager);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserHierarchyChangedEvent(userId, managerId));
+    }
+
+    /**
+     * Whether a manager may see and act on an employee's expenses: someone
+     * below them, or anyone else without a manager when unassigned employees
+     * are shared
+     */
+    @Transactional(readOnly = true)
+    public boolean canManage(User manager, User employee) {
+        if (manager.getId().equals(employee.getId())) {
+            return false;
+        }
+        if (unassignedVisibleToAllManagers && employee.getManager() == null) {
+            return true;
+        }
+        return isWithin(manager.getId(), employee.getId());
+    }
+
+    public boolean isUnassignedVisibleToAllManagers() {
+        return unassignedVisibleToAllManagers;
+    }
+
+    // True when descendant is ancestor or below them (one primary-key probe)
+    private boolean isWithin(Long ancestorId, Long descendantId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM user_hierarchy WHERE ancestor_id = ? AND descendant_id = ?)",
+                Boolean.class, ancestorId, descendantId));
+    }
+}
@@ -0,0 +1,100 @@
+package com.em.expensemanagerbackend.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thin HTTP sender for webhook batches. A batch counts as delivered only on a
+ * 2xx response; anything else surfaces as a {@link WebhookDeliveryException}.
+ */
+@Component
+public class WebhookClient {
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    @Value("${app.webhooks.timeoutMs:10000}")
+    private long timeoutMs;
+
+    @Value("${app.webhooks.secret:}")
+    private String secret;
+
+    private volatile HttpClient httpClient;
+
+    /**
+     * POST a JSON body to the given URL, signing it when a secret is configured
+     */
+    public void deliver(String url, String jsonBody) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8));
+
+        if (secret != null && !secret.isEmpty()) {
+            request.header(SIGNATURE_HEADER, "sha256=" + sign(jsonBody));
+        }
+
+        HttpResponse<Void> response;
+        try {
+            response = getHttpClient().send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new WebhookDeliveryException("Webhook " + url + " unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebhookDeliveryException("Webhook delivery to " + url + " interrupted", e);
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new WebhookDeliveryException("Webhook " + url + " responded with HTTP " + response.statusCode(), null);
+        }
+    }
+
+    private HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofMillis(timeoutMs))
+                            .build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private String sign(String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to sign webhook payload", e);
+        }
+    }
+
+    /**
+     * Raised when a webhook endpoint could not be reached or rejected a batch
+     */
+    public static class WebhookDeliveryException extends RuntimeException {
+
+        public WebhookDeliveryException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
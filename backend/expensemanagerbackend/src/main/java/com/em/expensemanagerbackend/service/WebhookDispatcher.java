@@ -0,0 +1,228 @@
+package com.em.expensemanagerbackend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.enums.OutboxStatus;
+import com.em.expensemanagerbackend.model.WebhookOutboxEvent;
+import com.em.expensemanagerbackend.repository.WebhookOutboxRepository;
+import com.em.expensemanagerbackend.service.WebhookClient.WebhookDeliveryException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Background dispatcher for the webhook outbox. Each run claims due rows with
+ * FOR UPDATE SKIP LOCKED and leases them by pushing next_attempt_at out, in a
+ * short transaction of its own (so several instances never deliver the same
+ * row, and no lock is held across network I/O), posts them as one batch to
+ * every configured URL and records the outcome in a second transaction,
+ * rescheduling failures with exponential backoff. Rows whose payload cannot
+ * be serialized are marked FAILED before delivery instead of blocking the
+ * queue. Delivery is at-least-once: receivers should de-duplicate on the
+ * event id.
+ */
+@Component
+public class WebhookDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    @Autowired
+    private WebhookOutboxRepository webhookOutboxRepository;
+
+    @Autowired
+    private WebhookClient webhookClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.webhooks.urls:}")
+    private String urls;
+
+    @Value("${app.webhooks.batchSize:50}")
+    private int batchSize;
+
+    @Value("${app.webhooks.maxBatchesPerRun:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.webhooks.maxAttempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.initialBackoffMs:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.webhooks.maxBackoffMs:3600000}")
+    private long maxBackoffMs;
+
+    // How long a claimed batch stays invisible to other dispatchers; must exceed a delivery round
+    @Value("${app.webhooks.claimLeaseMs:300000}")
+    private long claimLeaseMs;
+
+    private List<String> targetUrls = List.of();
+    private Timer deliverySuccessTimer;
+    private Timer deliveryFailureTimer;
+    private Counter eventsDelivered;
+    private Counter eventsRetried;
+    private Counter eventsFailed;
+
+    @PostConstruct
+    void init() {
+        targetUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        deliverySuccessTimer = meterRegistry.timer("webhook.delivery", "outcome", "success");
+        deliveryFailureTimer = meterRegistry.timer("webhook.delivery", "outcome", "failure");
+        eventsDelivered = meterRegistry.counter("webhook.events", "result", "delivered");
+        eventsRetried = meterRegistry.counter("webhook.events", "result", "retried");
+        eventsFailed = meterRegistry.counter("webhook.events", "result", "failed");
+    }
+
+    /**
+     * Drain due outbox rows, one claimed batch at a time
+     */
+    @Scheduled(fixedDelayString = "${app.webhooks.pollIntervalMs:5000}")
+    public void dispatchPending() {
+        if (targetUrls.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<WebhookOutboxEvent> batch = transactionTemplate.execute(status -> {
+                List<WebhookOutboxEvent> claimed = webhookOutboxRepository.claimDueEvents(batchSize);
+                LocalDateTime leasedUntil = LocalDateTime.now().plusNanos(claimLeaseMs * 1_000_000L);
+                for (WebhookOutboxEvent event : claimed) {
+                    event.setNextAttemptAt(leasedUntil);
+                }
+                return webhookOutboxRepository.saveAll(claimed);
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+
+            List<WebhookOutboxEvent> corrupt = rejectCorrupt(batch);
+            if (!corrupt.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> webhookOutboxRepository.saveAll(corrupt));
+            }
+            List<WebhookOutboxEvent> deliverable = batch.stream().filter(event -> !corrupt.contains(event)).toList();
+            if (!deliverable.isEmpty()) {
+                deliverBatch(deliverable);
+                transactionTemplate.executeWithoutResult(status -> webhookOutboxRepository.saveAll(deliverable));
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Mark events whose payload is not valid JSON as FAILED, since retrying
+     * cannot fix them, and return those
+     */
+    List<WebhookOutboxEvent> rejectCorrupt(List<WebhookOutboxEvent> batch) {
+        List<WebhookOutboxEvent> corrupt = new ArrayList<>();
+        for (WebhookOutboxEvent event : batch) {
+            try {
+                objectMapper.readTree(event.getPayload());
+            } catch (JsonProcessingException e) {
+                log.error("Webhook outbox event {} has a corrupt payload, giving up on it: {}", event.getId(),
+                        e.getMessage());
+                event.setAttempts(event.getAttempts() + 1);
+                event.setStatus(OutboxStatus.FAILED);
+                event.setLastError("Corrupt payload: " + e.getOriginalMessage());
+                eventsFailed.increment();
+                corrupt.add(event);
+            }
+        }
+        return corrupt;
+    }
+
+    /**
+     * Deliver one claimed batch and update each row's delivery state in place
+     */
+    void deliverBatch(List<WebhookOutboxEvent> batch) {
+        String body = buildBatchBody(batch);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            for (String url : targetUrls) {
+                webhookClient.deliver(url, body);
+            }
+            sample.stop(deliverySuccessTimer);
+
+            for (WebhookOutboxEvent event : batch) {
+                event.setStatus(OutboxStatus.DELIVERED);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setDeliveredAt(now);
+                event.setLastError(null);
+            }
+            eventsDelivered.increment(batch.size());
+        } catch (WebhookDeliveryException e) {
+            sample.stop(deliveryFailureTimer);
+            log.warn("Webhook batch of {} event(s) failed: {}", batch.size(), e.getMessage());
+
+            for (WebhookOutboxEvent event : batch) {
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(e.getMessage());
+                if (attempts >= maxAttempts) {
+                    event.setStatus(OutboxStatus.FAILED);
+                    eventsFailed.increment();
+                } else {
+                    event.setNextAttemptAt(now.plusNanos(backoffMillis(attempts) * 1_000_000L));
+                    eventsRetried.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff: initialBackoffMs * 2^(attempts - 1), capped at
+     * maxBackoffMs
+     */
+    long backoffMillis(int attempts) {
+        int exponent = Math.max(0, Math.min(attempts - 1, 30));
+        long delay = initialBackoffMs << exponent;
+        return delay <= 0 || delay > maxBackoffMs ? maxBackoffMs : delay;
+    }
+
+    private String buildBatchBody(List<WebhookOutboxEvent> batch) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode events = root.putArray("events");
+        try {
+            for (WebhookOutboxEvent event : batch) {
+                ObjectNode node = events.addObject();
+                node.put("id", event.getId());
+                node.put("type", event.getEventType());
+                node.put("createdAt", event.getCreatedAt() != null ? event.getCreatedAt().toString() : null);
+                node.set("data", objectMapper.readTree(event.getPayload()));
+            }
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt webhook outbox payload: " + e.getMessage(), e);
+        }
+    }
+}
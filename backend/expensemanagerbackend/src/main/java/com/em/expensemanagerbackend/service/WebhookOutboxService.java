@@ -0,0 +1,56 @@
+package com.em.expensemanagerbackend.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.model.WebhookOutboxEvent;
+import com.em.expensemanagerbackend.repository.WebhookOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+public class WebhookOutboxService {
+
+    public static final String EVENT_EXPENSE_PAID = "expense.paid";
+    public static final String EVENT_EXPENSE_REJECTED_FINANCE = "expense.rejected_finance";
+
+    @Autowired
+    private WebhookOutboxRepository webhookOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Record an outbound expense event. Must run inside the caller's
+     * transaction so the event commits (or rolls back) with the status change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueExpenseEvent(String eventType, ExpenseRequest expense, User actor, String note) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("expenseId", expense.getId());
+        payload.put("title", expense.getTitle());
+        payload.put("amount", expense.getAmount());
+        payload.put("status", expense.getStatus());
+        payload.put("employeeId", expense.getEmployee().getId());
+        payload.put("employeeEmail", expense.getEmployee().getEmail());
+        payload.put("employeeName", expense.getEmployee().getFullName());
+        payload.put("actorEmail", actor != null ? actor.getEmail() : null);
+        payload.put("note", note);
+        payload.put("occurredAt", LocalDateTime.now().toString());
+
+        try {
+            webhookOutboxRepository.save(new WebhookOutboxEvent(eventType, expense.getId(),
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize webhook payload: " + e.getMessage(), e);
+        }
+    }
+}
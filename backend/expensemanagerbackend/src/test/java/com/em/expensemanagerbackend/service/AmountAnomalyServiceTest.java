@@ -0,0 +1,154 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+import com.em.expensemanagerbackend.service.AmountAnomalyService.AmountStats;
+
+class AmountAnomalyServiceTest {
+
+    private static final String[] HISTORY = { "20.00", "25.00", "22.50", "30.00", "18.00", "27.00" };
+
+    private ExpenseRequestRepository repository;
+    private AmountAnomalyService service;
+    private User employee;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ExpenseRequestRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+
+        service = new AmountAnomalyService();
+        ReflectionTestUtils.setField(service, "expenseRequestRepository", repository);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "minSamples", 5);
+        ReflectionTestUtils.setField(service, "recentWindow", 4);
+    }
+
+    @Test
+    void runningStatisticsMatchTheDirectComputation() {
+        AmountStats stats = new AmountStats(10);
+        for (String amount : HISTORY) {
+            stats.add(new BigDecimal(amount));
+        }
+        stats.add(new BigDecimal("500.00"));
+        stats.remove(new BigDecimal("500.00"));
+
+        double mean = 0;
+        for (String amount : HISTORY) {
+            mean += Math.log(Double.parseDouble(amount)) / HISTORY.length;
+        }
+        double squares = 0;
+        for (String amount : HISTORY) {
+            squares += Math.pow(Math.log(Double.parseDouble(amount)) - mean, 2);
+        }
+        assertEquals(HISTORY.length, stats.count());
+        assertEquals(mean, stats.mean(), 1e-9);
+        assertEquals(squares / (HISTORY.length - 1), stats.variance(), 1e-9);
+    }
+
+    @Test
+    void unusualAmountScoresHighAfterRebuild() {
+        when(repository.streamSubmittedAmounts()).thenReturn(historyRows());
+        service.rebuild();
+
+        ExpenseRequest usual = expense("24.00");
+        ExpenseRequest unusual = expense("480.00");
+        service.score(usual);
+        service.score(unusual);
+
+        assertTrue(Math.abs(usual.getAnomalyScore().doubleValue()) < 1, usual.getAnomalyScore().toString());
+        assertTrue(unusual.getAnomalyScore().doubleValue() > 10, unusual.getAnomalyScore().toString());
+        // Window of 4: 22.50, 30.00, 18.00, 27.00
+        assertEquals(50, usual.getAmountPercentile());
+        assertEquals(100, unusual.getAmountPercentile());
+    }
+
+    @Test
+    void newEmployeesAreNotScoredUntilEnoughHistory() {
+        for (int i = 0; i < 4; i++) {
+            service.onExpenseChanged(new ExpenseChangedEvent((long) i, 1L, null, ExpenseStatus.PENDING_MANAGER,
+                    null, new BigDecimal("10.00"), LocalDateTime.now()));
+        }
+        ExpenseRequest expense = expense("5000.00");
+        service.score(expense);
+        assertNull(expense.getAnomalyScore());
+
+        service.onExpenseChanged(new ExpenseChangedEvent(4L, 1L, null, ExpenseStatus.PENDING_MANAGER,
+                null, new BigDecimal("10.00"), LocalDateTime.now()));
+        service.score(expense);
+        // Identical history: ln(5000 / 10) over the 0.05 deviation floor
+        assertEquals(new BigDecimal("124.29"), expense.getAnomalyScore());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyChangeCommittedDuringARebuildIsReplayedUnlessTheScanSawIt() {
+        when(repository.streamSubmittedAmounts()).thenAnswer(invocation -> {
+            // Creation of 6 is already in the scan
+            service.onExpenseChanged(change(6L, null, "27.00", 6L));
+            // A late commit below the highest scanned id, an edit and a deletion the scan missed
+            service.onExpenseChanged(change(0L, null, "40.00", 30L));
+            service.onExpenseChanged(change(1L, "20.00", "21.00", 31L));
+            service.onExpenseChanged(change(2L, "25.00", null, null));
+            return historyRows();
+        });
+
+        service.rebuild();
+
+        AmountStats rebuilt = ((Map<Long, AmountStats>) ReflectionTestUtils.getField(service, "stats")).get(1L);
+        double mean = 0;
+        for (String amount : new String[] { "21.00", "22.50", "30.00", "18.00", "27.00", "40.00" }) {
+            mean += Math.log(Double.parseDouble(amount)) / 6;
+        }
+        assertEquals(6, rebuilt.count());
+        assertEquals(mean, rebuilt.mean(), 1e-9);
+    }
+
+    // HISTORY as expenses 1..n, each with its id as change_seq
+    private static Stream<Object[]> historyRows() {
+        return IntStream.range(0, HISTORY.length)
+                .mapToObj(i -> new Object[] { i + 1L, 1L, new BigDecimal(HISTORY[i]), i + 1L });
+    }
+
+    private static ExpenseChangedEvent change(Long expenseId, String previousAmount, String newAmount, Long changeSeq) {
+        return new ExpenseChangedEvent(expenseId, 1L, previousAmount == null ? null : ExpenseStatus.PENDING_MANAGER,
+                newAmount == null ? null : ExpenseStatus.PENDING_MANAGER,
+                previousAmount == null ? null : new BigDecimal(previousAmount),
+                newAmount == null ? null : new BigDecimal(newAmount), LocalDateTime.now(), changeSeq);
+    }
+
+    private ExpenseRequest expense(String amount) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setEmployee(employee);
+        expense.setAmount(new BigDecimal(amount));
+        return expense;
+    }
+}
@@ -0,0 +1,102 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ApprovalRuleEngineTest {
+
+    private static final String RULES = """
+            { "rules": [
+              { "name": "small-routine",
+                "when": { "amount": { "lte": 50 },
+                          "anomalyScore": { "lt": 2 },
+                          "possibleDuplicate": false,
+                          "not": { "employee": { "in": ["new.hire@example.com", 7] } } } },
+              { "name": "parking",
+                "when": { "all": [ { "title": { "matches": "(?i)parking" } },
+                                   { "amount": { "lte": 20 } } ] } } ] }
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path rulesFile;
+    private SimpleMeterRegistry meterRegistry;
+    private ApprovalRuleEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rulesFile = dir.resolve("rules.json");
+        Files.writeString(rulesFile, RULES);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new ApprovalRuleEngine();
+        ReflectionTestUtils.setField(engine, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(engine, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(engine, "rulesFile", rulesFile.toString());
+        engine.init();
+    }
+
+    @Test
+    void firstMatchingRuleWins() {
+        assertEquals("small-routine", engine.match(expense(1L, "a@example.com", "Lunch", "42.00", "0.30")));
+        assertEquals("parking", engine.match(expense(7L, "b@example.com", "Airport Parking", "18.00", "0.30")));
+        assertEquals(1, meterRegistry.counter("expense.auto_approval.matches", "rule", "parking").count());
+    }
+
+    @Test
+    void unknownScoreOrListedEmployeeNeedsAManager() {
+        assertNull(engine.match(expense(1L, "a@example.com", "Lunch", "42.00", null)));
+        assertNull(engine.match(expense(2L, "New.Hire@example.com", "Lunch", "42.00", "0.30")));
+        ExpenseRequest duplicate = expense(1L, "a@example.com", "Lunch", "42.00", "0.30");
+        duplicate.setPossibleDuplicateOfId(99L);
+        assertNull(engine.match(duplicate));
+    }
+
+    @Test
+    void changedFileIsRecompiledAndBrokenOneKeepsPreviousRules() throws Exception {
+        ExpenseRequest lunch = expense(1L, "a@example.com", "Lunch", "42.00", "0.30");
+
+        Files.writeString(rulesFile, "{ \"rules\": [ { \"name\": \"x\", \"when\": { \"colour\": \"red\" } } ] }");
+        Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.now().plusSeconds(5)));
+        engine.reload();
+        assertEquals("small-routine", engine.match(lunch));
+        assertEquals(1, meterRegistry.counter("expense.auto_approval.reload.failures").count());
+
+        Files.writeString(rulesFile, "{ \"rules\": [ { \"name\": \"tiny\", \"when\": { \"amount\": { \"lt\": 10 } } } ] }");
+        Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.now().plusSeconds(10)));
+        engine.reload();
+        assertNull(engine.match(lunch));
+    }
+
+    private static ExpenseRequest expense(Long employeeId, String email, String title, String amount,
+            String anomalyScore) {
+        User employee = new User();
+        employee.setId(employeeId);
+        employee.setEmail(email);
+        employee.setRole(UserRole.EMPLOYEE);
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setEmployee(employee);
+        expense.setTitle(title);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setAnomalyScore(anomalyScore == null ? null : new BigDecimal(anomalyScore));
+        return expense;
+    }
+}
@@ -0,0 +1,80 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.em.expensemanagerbackend.dto.ExpenseScanRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.service.ColumnarExpenseStore.GroupBy;
+
+class ColumnarExpenseStoreTest {
+
+    private static final LocalDate CREATED = LocalDate.of(2025, 1, 5);
+
+    private ColumnarExpenseStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarExpenseStore();
+        store.upsert(1L, 10L, new BigDecimal("25.00"), ExpenseStatus.PAID, CREATED, LocalDate.of(2025, 1, 20));
+        store.upsert(2L, 10L, new BigDecimal("300.00"), ExpenseStatus.PAID, CREATED, LocalDate.of(2025, 2, 2));
+        store.upsert(3L, 11L, new BigDecimal("75.50"), ExpenseStatus.REJECTED_FINANCE, CREATED, LocalDate.of(2025, 2, 9));
+        store.upsert(4L, 12L, new BigDecimal("1000.00"), ExpenseStatus.PAID, CREATED, LocalDate.of(2025, 3, 1));
+    }
+
+    @Test
+    void filtersEveryColumnAndAggregates() {
+        List<ExpenseScanRowDto> rows = store.query(GroupBy.NONE, ExpenseStatus.PAID, null,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28), new BigDecimal("20"), null);
+
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).getExpenseCount());
+        assertEquals(new BigDecimal("325.00"), rows.get(0).getTotalAmount());
+        assertEquals(new BigDecimal("25.00"), rows.get(0).getMinAmount());
+        assertEquals(new BigDecimal("300.00"), rows.get(0).getMaxAmount());
+        assertEquals(new BigDecimal("162.50"), rows.get(0).getAverageAmount());
+    }
+
+    @Test
+    void groupsByEmployeeAndClosingMonth() {
+        List<ExpenseScanRowDto> byEmployee = store.query(GroupBy.EMPLOYEE, null, null, null, null, null, null);
+        List<ExpenseScanRowDto> byMonth = store.query(GroupBy.MONTH, null, null, null, null, null, null);
+
+        assertEquals(List.of("10", "11", "12"), byEmployee.stream().map(ExpenseScanRowDto::getGroup).toList());
+        assertEquals(new BigDecimal("325.00"), byEmployee.get(0).getTotalAmount());
+        assertEquals(List.of("2025-01", "2025-02", "2025-03"), byMonth.stream().map(ExpenseScanRowDto::getGroup).toList());
+        assertEquals(2, byMonth.get(1).getExpenseCount());
+    }
+
+    @Test
+    void reopenedAndReplacedRowsDropOut() {
+        store.remove(3L);
+        store.upsert(2L, 10L, new BigDecimal("310.00"), ExpenseStatus.PAID, CREATED, LocalDate.of(2025, 2, 3));
+
+        List<ExpenseScanRowDto> rows = store.query(GroupBy.NONE, null, null, null, null, null, null);
+
+        assertEquals(3, rows.get(0).getExpenseCount());
+        assertEquals(new BigDecimal("1335.00"), rows.get(0).getTotalAmount());
+    }
+
+    @Test
+    void compactionKeepsLiveRows() {
+        for (long id = 100; id < 3100; id++) {
+            store.upsert(id, 20L, new BigDecimal("1.00"), ExpenseStatus.PAID, CREATED, CREATED);
+        }
+        for (long id = 100; id < 3100; id++) {
+            store.remove(id);
+        }
+
+        assertEquals(4, store.liveRows());
+        assertEquals(new BigDecimal("1400.50"),
+                store.query(GroupBy.NONE, null, null, null, null, null, null).get(0).getTotalAmount());
+        assertEquals(1, store.query(GroupBy.NONE, null, 12L, null, null, null, null).get(0).getExpenseCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+class CurrentUserServiceTest {
+
+    private UserRepository userRepository;
+    private CurrentUserService currentUserService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        currentUserService = new CurrentUserService();
+        ReflectionTestUtils.setField(currentUserService, "userRepository", userRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void authenticatedUserIsReturnedWithoutALookup() {
+        User finance = user(7L, UserRole.FINANCE);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(finance, null, List.of()));
+
+        assertSame(finance, currentUserService.getCurrentUser());
+        assertEquals(7L, currentUserService.getCurrentUserId());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void developmentHeadersPickTheUser() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Dev-User-Role", "EMPLOYEE");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        User employee = user(1L, UserRole.EMPLOYEE);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(employee));
+
+        assertSame(employee, currentUserService.getCurrentUser());
+        assertEquals(1L, currentUserService.getCurrentUserId());
+
+        request.addHeader("X-Dev-User-Id", "3");
+        assertEquals(3L, currentUserService.getCurrentUserId());
+    }
+
+    @Test
+    void withoutARequestTheDefaultManagerIsUsed() {
+        User manager = user(5L, UserRole.MANAGER);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(manager));
+
+        assertSame(manager, currentUserService.getCurrentUser());
+        assertEquals(5L, currentUserService.getCurrentUserId());
+    }
+
+    private static User user(Long id, UserRole role) {
+        User user = new User("User " + id, "user" + id + "@example.com", "secret", role);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,126 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.em.expensemanagerbackend.dto.DashboardResponseDto;
+import com.em.expensemanagerbackend.enums.UserRole;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DashboardServiceTest {
+
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService();
+        ReflectionTestUtils.setField(dashboardService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dashboardService, "timeoutMs", 300L);
+        ReflectionTestUtils.setField(dashboardService, "connectionPoolSize", 10);
+        dashboardService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void sectionsRunInParallelUnderOneDeadline() {
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            sections.put("section-" + i, () -> {
+                sleep(150);
+                return index;
+            });
+        }
+        DashboardResponseDto dashboard = new DashboardResponseDto(UserRole.MANAGER);
+
+        dashboardService.runAll(sections, dashboard);
+
+        assertEquals(5, dashboard.getSections().size());
+        assertEquals(List.of(), dashboard.getUnavailable());
+    }
+
+    @Test
+    void sectionsRunningAtOnceAreCappedBelowTheConnectionPool() {
+        ReflectionTestUtils.setField(dashboardService, "maxConcurrentSections", 2);
+        ReflectionTestUtils.setField(dashboardService, "timeoutMs", 2000L);
+        dashboardService.init();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            sections.put("section-" + i, () -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(50);
+                running.decrementAndGet();
+                return "ok";
+            });
+        }
+        DashboardResponseDto dashboard = new DashboardResponseDto(UserRole.MANAGER);
+
+        dashboardService.runAll(sections, dashboard);
+
+        assertEquals(6, dashboard.getSections().size());
+        assertEquals(2, mostRunning.get());
+    }
+
+    @Test
+    void slowAndFailingSectionsAreReportedUnavailable() {
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        sections.put("fast", () -> "ok");
+        sections.put("slow", () -> {
+            sleep(5000);
+            return "late";
+        });
+        sections.put("broken", () -> {
+            throw new RuntimeException("boom");
+        });
+        DashboardResponseDto dashboard = new DashboardResponseDto(UserRole.MANAGER);
+
+        dashboardService.runAll(sections, dashboard);
+
+        assertEquals(Map.of("fast", "ok"), dashboard.getSections());
+        assertEquals(List.of("slow", "broken"), dashboard.getUnavailable());
+    }
+
+    @Test
+    void requestHeadersAreVisibleInsideSections() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Dev-User-Role", "FINANCE");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        sections.put("role", () -> ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest().getHeader("X-Dev-User-Role"));
+        DashboardResponseDto dashboard = new DashboardResponseDto(UserRole.FINANCE);
+
+        dashboardService.runAll(sections, dashboard);
+
+        assertEquals("FINANCE", dashboard.getSections().get("role"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
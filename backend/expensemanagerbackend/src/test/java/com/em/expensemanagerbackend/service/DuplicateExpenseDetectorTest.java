@@ -0,0 +1,167 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DuplicateExpenseDetectorTest {
+
+    // A Wednesday; the week bucket runs Thursday to Wednesday
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 12);
+    private static final String RECEIPT = "ab".repeat(32);
+
+    private ExpenseRequestRepository repository;
+    private DuplicateExpenseDetector detector;
+    private User employee;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ExpenseRequestRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+
+        detector = new DuplicateExpenseDetector();
+        ReflectionTestUtils.setField(detector, "expenseRequestRepository", repository);
+        ReflectionTestUtils.setField(detector, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(detector, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(detector, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(detector, "falsePositiveRate", 0.01);
+        detector.init();
+    }
+
+    @Test
+    void fingerprintIgnoresTitleFormattingAndAmountScale() {
+        String fingerprint = DuplicateExpenseDetector.fingerprint(1L, new BigDecimal("12.5"), "Taxi to airport", DAY);
+
+        assertEquals(fingerprint, DuplicateExpenseDetector.fingerprint(1L, new BigDecimal("12.50"),
+                "  TAXI -- to Airport! ", DAY));
+        assertNotEquals(fingerprint, DuplicateExpenseDetector.fingerprint(2L, new BigDecimal("12.50"),
+                "Taxi to airport", DAY));
+        assertNotEquals(fingerprint, DuplicateExpenseDetector.fingerprint(1L, new BigDecimal("12.51"),
+                "Taxi to airport", DAY));
+        assertEquals(64, fingerprint.length());
+    }
+
+    @Test
+    void matchAcrossAWeekBoundaryIsLookedUpExactly() {
+        String earlier = DuplicateExpenseDetector.fingerprint(1L, new BigDecimal("12.50"), "Taxi", DAY);
+        rebuildWith(new Object[] { earlier, null });
+        when(repository.findFirstIdByDupFingerprint(anyList(), eq(Long.MAX_VALUE))).thenReturn(5L);
+
+        ExpenseRequest expense = expense("taxi", "12.5");
+        detector.check(expense, DAY.plusDays(1));
+
+        assertEquals(5L, expense.getPossibleDuplicateOfId());
+        assertNotEquals(earlier, expense.getDupFingerprint());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> candidates = ArgumentCaptor.forClass(List.class);
+        verify(repository).findFirstIdByDupFingerprint(candidates.capture(), eq(Long.MAX_VALUE));
+        assertTrue(candidates.getValue().contains(earlier));
+    }
+
+    @Test
+    void filterAnswersForNewExpensesWithoutQuerying() {
+        rebuildWith(new Object[] { DuplicateExpenseDetector.fingerprint(1L, BigDecimal.TEN, "Hotel", DAY), null });
+
+        ExpenseRequest expense = expense("Dinner with client", "84.20");
+        expense.setReceiptHash(RECEIPT);
+        detector.check(expense, DAY);
+
+        assertNull(expense.getPossibleDuplicateOfId());
+        verify(repository, never()).findFirstIdByDupFingerprint(anyList(), anyLong());
+        verify(repository, never()).findFirstIdByReceiptHash(anyString(), anyLong());
+    }
+
+    @Test
+    void sameReceiptIsFlaggedOnceRecorded() {
+        rebuildWith();
+        ExpenseRequest first = expense("Lunch", "20.00");
+        first.setId(7L);
+        first.setReceiptHash(RECEIPT);
+        detector.check(first, DAY);
+        detector.record(first);
+        when(repository.findFirstIdByReceiptHash(RECEIPT, 8L)).thenReturn(7L);
+
+        ExpenseRequest second = expense("Team lunch", "22.00");
+        second.setId(8L);
+        second.setReceiptHash(RECEIPT);
+        detector.check(second, DAY.plusDays(30));
+
+        assertEquals(7L, second.getPossibleDuplicateOfId());
+    }
+
+    @Test
+    void editedOriginalOnlyLooksAtExpensesSubmittedBeforeIt() {
+        rebuildWith(new Object[] { DuplicateExpenseDetector.fingerprint(1L, new BigDecimal("20.00"), "Lunch", DAY),
+                null });
+        when(repository.findFirstIdByDupFingerprint(anyList(), eq(Long.MAX_VALUE))).thenReturn(7L);
+        when(repository.findFirstIdByDupFingerprint(anyList(), eq(7L))).thenReturn(null);
+
+        ExpenseRequest original = expense("Lunch", "20.00");
+        original.setId(7L);
+        detector.check(original, DAY);
+
+        assertNull(original.getPossibleDuplicateOfId());
+        verify(repository).findFirstIdByDupFingerprint(anyList(), eq(7L));
+    }
+
+    @Test
+    void repeatWithinABatchIsFoundAmongTheEarlierItems() {
+        rebuildWith();
+        ExpenseRequest taxi = expense("Taxi", "12.50");
+        ExpenseRequest hotel = expense("Hotel", "180.00");
+        ExpenseRequest again = expense("taxi!", "12.5");
+        detector.check(taxi, DAY);
+        detector.check(hotel, DAY);
+        detector.check(again, DAY.plusDays(1));
+
+        assertEquals(taxi, detector.findInBatch(again, DAY.plusDays(1), List.of(taxi, hotel)));
+        assertNull(detector.findInBatch(hotel, DAY, List.of(taxi)));
+    }
+
+    private void rebuildWith(Object[]... rows) {
+        when(repository.streamDuplicateKeys()).thenReturn(Stream.of(rows));
+        detector.rebuild();
+    }
+
+    private ExpenseRequest expense(String title, String amount) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setEmployee(employee);
+        expense.setTitle(title);
+        expense.setAmount(new BigDecimal(amount));
+        return expense;
+    }
+}
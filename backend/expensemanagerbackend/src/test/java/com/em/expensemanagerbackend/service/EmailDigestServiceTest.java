@@ -0,0 +1,91 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmailDigestServiceTest {
+
+    private final List<String[]> sent = new ArrayList<>();
+    private final EmailSender fakeSender = (to, subject, body) -> sent.add(new String[]{to, subject, body});
+
+    private UserRepository userRepository;
+    private EmailDigestService digestService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        digestService = new EmailDigestService();
+        ReflectionTestUtils.setField(digestService, "emailSender", fakeSender);
+        ReflectionTestUtils.setField(digestService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(digestService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(digestService, "enabled", true);
+        ReflectionTestUtils.setField(digestService, "maxLinesPerDigest", 50);
+    }
+
+    @Test
+    void manyEventsForOneEmployeeProduceOneDigest() {
+        User employee = user(1L, "john.smith@company.com", UserRole.EMPLOYEE);
+        for (int i = 0; i < 200; i++) {
+            digestService.enqueueForUser(employee, "Expense #" + i + " approved");
+        }
+
+        digestService.flush();
+
+        assertEquals(1, sent.size());
+        assertEquals("john.smith@company.com", sent.get(0)[0]);
+        assertEquals("Expense Manager: 200 new updates", sent.get(0)[1]);
+        assertTrue(sent.get(0)[2].contains("... and 150 more"));
+    }
+
+    @Test
+    void roleEventsResolveMembersOncePerWindow() {
+        when(userRepository.findByRole(UserRole.FINANCE)).thenReturn(List.of(
+                user(7L, "david.brown@company.com", UserRole.FINANCE),
+                user(8L, "jennifer.martinez@company.com", UserRole.FINANCE)));
+        for (int i = 0; i < 100; i++) {
+            digestService.enqueueForRole(UserRole.FINANCE, "Expense #" + i + " awaits review");
+        }
+
+        digestService.flush();
+        digestService.flush();
+
+        assertEquals(2, sent.size());
+        verify(userRepository, times(1)).findByRole(UserRole.FINANCE);
+    }
+
+    @Test
+    void userAndRoleLinesForSameRecipientAreMerged() {
+        User finance = user(7L, "david.brown@company.com", UserRole.FINANCE);
+        when(userRepository.findByRole(UserRole.FINANCE)).thenReturn(List.of(finance));
+        digestService.enqueueForUser(finance, "Your own expense was paid");
+        digestService.enqueueForRole(UserRole.FINANCE, "Expense awaits review");
+
+        digestService.flush();
+
+        assertEquals(1, sent.size());
+        assertEquals("Expense Manager: 2 new updates", sent.get(0)[1]);
+    }
+
+    private User user(Long id, String email, UserRole role) {
+        User user = new User("Test User", email, "secret", role);
+        user.setId(id);
+        return user;
+    }
+}
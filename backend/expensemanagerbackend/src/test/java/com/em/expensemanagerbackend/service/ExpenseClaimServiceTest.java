@@ -0,0 +1,81 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExpenseClaimServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ExpenseClaimService claims;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        claims = new ExpenseClaimService();
+        ReflectionTestUtils.setField(claims, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(claims, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(claims, "leaseSeconds", 900L);
+        ReflectionTestUtils.setField(claims, "maxBatch", 5);
+        ReflectionTestUtils.setField(claims, "ageWeightPerHour", 1.0);
+        ReflectionTestUtils.setField(claims, "amountWeight", 0.01);
+    }
+
+    @Test
+    void claimSkipsLockedRowsCapsTheBatchAndReturnsHeldItemsInPriorityOrder() {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE OF e SKIP LOCKED"), eq(Long.class), eq(1.0), eq(0.01),
+                eq(5), eq(7L), eq(900.0))).thenReturn(List.of(12L, 11L));
+        LocalDateTime renewed = LocalDateTime.of(2025, 1, 1, 10, 15);
+        when(jdbcTemplate.queryForList(startsWith("SELECT c.expense_id"), eq(7L), eq(1.0), eq(0.01))).thenReturn(List.of(
+                Map.of("expense_id", 12L, "expires_at", Timestamp.valueOf(renewed)),
+                Map.of("expense_id", 3L, "expires_at", Timestamp.valueOf(renewed.minusSeconds(1))),
+                Map.of("expense_id", 11L, "expires_at", Timestamp.valueOf(renewed))));
+
+        ExpenseClaimService.ClaimedExpenses held = claims.claim(7L, 100);
+
+        assertEquals(List.of(12L, 3L, 11L), held.getExpenseIds());
+        assertEquals(renewed.minusSeconds(1), held.getExpiresAt());
+        verify(jdbcTemplate).update(startsWith("UPDATE expense_claims SET expires_at"), eq(900.0), eq(7L));
+        assertEquals(2, meterRegistry.counter("expense.claims", "outcome", "claimed").count());
+    }
+
+    @Test
+    void actingOnAnExpenseLeasedByAnotherClerkIsRefused() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(12L), eq(7L))).thenReturn(List.of(8L));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> claims.completeClaim(12L, 7L));
+
+        assertEquals("Expense is claimed by another finance clerk", e.getMessage());
+        verify(jdbcTemplate, never()).update(anyString(), eq(12L));
+    }
+
+    @Test
+    void actingOnAnUnclaimedOrOwnExpenseDropsTheClaim() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(12L), eq(7L))).thenReturn(List.of());
+
+        claims.completeClaim(12L, 7L);
+
+        verify(jdbcTemplate).update("DELETE FROM expense_claims WHERE expense_id = ?", 12L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+class ExpenseCountServiceTest {
+
+    private ExpenseRequestRepository expenseRequestRepository;
+    private CurrentUserService currentUserService;
+    private ExpenseVersionService versionService;
+    private UserHierarchyService userHierarchyService;
+    private ExpenseCountService countService;
+
+    @BeforeEach
+    void setUp() {
+        expenseRequestRepository = mock(ExpenseRequestRepository.class);
+        currentUserService = mock(CurrentUserService.class);
+        userHierarchyService = mock(UserHierarchyService.class);
+        versionService = new ExpenseVersionService();
+        ReflectionTestUtils.setField(versionService, "currentUserService", currentUserService);
+
+        countService = new ExpenseCountService();
+        ReflectionTestUtils.setField(countService, "expenseRequestRepository", expenseRequestRepository);
+        ReflectionTestUtils.setField(countService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(countService, "expenseVersionService", versionService);
+        ReflectionTestUtils.setField(countService, "userHierarchyService", userHierarchyService);
+        ReflectionTestUtils.setField(countService, "maxCachedEmployees", 10000);
+    }
+
+    @Test
+    void employeesGetTheirOwnCountsWithEveryStatusPresent() {
+        when(currentUserService.getCurrentUser()).thenReturn(user(1L, UserRole.EMPLOYEE));
+        when(expenseRequestRepository.countByStatusForEmployee(1L)).thenReturn(rows(
+                new Object[] { ExpenseStatus.PENDING_MANAGER, 2L }, new Object[] { ExpenseStatus.PAID, 5L }));
+
+        Map<ExpenseStatus, Long> counts = countService.getCurrentUserStatusCounts();
+
+        assertEquals(ExpenseStatus.values().length, counts.size());
+        assertEquals(2L, counts.get(ExpenseStatus.PENDING_MANAGER));
+        assertEquals(5L, counts.get(ExpenseStatus.PAID));
+        assertEquals(0L, counts.get(ExpenseStatus.REJECTED_FINANCE));
+        verify(expenseRequestRepository, never()).countByStatus();
+    }
+
+    @Test
+    void countsAreQueriedOnceUntilAnExpenseOfTheScopeChanges() {
+        when(currentUserService.getCurrentUser()).thenReturn(user(7L, UserRole.FINANCE));
+        when(expenseRequestRepository.countByStatus()).thenReturn(rows(new Object[] { ExpenseStatus.PENDING_MANAGER, 3L }));
+        when(expenseRequestRepository.countByStatusForEmployee(1L)).thenReturn(rows());
+
+        countService.getCurrentUserStatusCounts();
+        countService.getCurrentUserStatusCounts();
+        countService.getEmployeeStatusCounts(1L);
+        verify(expenseRequestRepository, times(1)).countByStatus();
+
+        // A change of someone else's expense reloads the global counts but not employee 1's
+        when(expenseRequestRepository.countByStatus()).thenReturn(rows(new Object[] { ExpenseStatus.PENDING_MANAGER, 4L }));
+        versionService.onExpenseChanged(new ExpenseChangedEvent(42L, 2L, null, ExpenseStatus.PENDING_MANAGER,
+                null, BigDecimal.TEN, LocalDateTime.now()));
+
+        assertEquals(4L, countService.getCurrentUserStatusCounts().get(ExpenseStatus.PENDING_MANAGER));
+        countService.getEmployeeStatusCounts(1L);
+        verify(expenseRequestRepository, times(2)).countByStatus();
+        verify(expenseRequestRepository, times(1)).countByStatusForEmployee(anyLong());
+    }
+
+    @Test
+    void managersCountTheirTeamAndTheSharedUnassignedEmployees() {
+        when(currentUserService.getCurrentUser()).thenReturn(user(5L, UserRole.MANAGER));
+        when(userHierarchyService.isUnassignedVisibleToAllManagers()).thenReturn(true);
+        when(expenseRequestRepository.countByStatusInManagerTeam(5L)).thenReturn(rows(
+                new Object[] { "PENDING_MANAGER", 2L }, new Object[] { "PAID", 1L }));
+        when(expenseRequestRepository.countByStatusOfUnassignedEmployees(5L)).thenReturn(rows(
+                new Object[] { "PENDING_MANAGER", 3L }));
+
+        Map<ExpenseStatus, Long> counts = countService.getCurrentUserStatusCounts();
+        countService.getCurrentUserStatusCounts();
+
+        assertEquals(5L, counts.get(ExpenseStatus.PENDING_MANAGER));
+        assertEquals(1L, counts.get(ExpenseStatus.PAID));
+        verify(expenseRequestRepository, times(1)).countByStatusInManagerTeam(5L);
+        verify(expenseRequestRepository, never()).countByStatus();
+
+        // Moving an employee between teams changes the counts without any expense changing
+        versionService.onUserHierarchyChanged(null);
+        countService.getCurrentUserStatusCounts();
+        verify(expenseRequestRepository, times(2)).countByStatusInManagerTeam(5L);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static User user(Long id, UserRole role) {
+        User user = new User("User " + id, "user" + id + "@example.com", "secret", role);
+        user.setId(id);
+        return user;
+    }
+}
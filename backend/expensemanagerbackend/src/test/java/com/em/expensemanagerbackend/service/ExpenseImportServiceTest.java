@@ -0,0 +1,81 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.em.expensemanagerbackend.service.ExpenseImportService.RowConverter;
+
+class ExpenseImportServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final Map<String, Long> USERS = Map.of("john@example.com", 1L);
+    private static final List<String> HEADER = List.of("employee_email", "title", "amount", "description",
+            "status", "created_at");
+
+    @Test
+    void readerHandlesQuotesEmbeddedNewlinesAndBlankLines() throws Exception {
+        ExpenseCsvReader reader = new ExpenseCsvReader(new StringReader(
+                "a,b\r\n\"x, \"\"quoted\"\"\",\"two\nlines\"\n\nlast,\n"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("x, \"quoted\"", "two\nlines"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("last", ""), reader.next());
+        assertEquals(5, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        ExpenseCsvReader reader = new ExpenseCsvReader(new StringReader("\"never closed\n"));
+
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void validRowBecomesCopyRow() {
+        RowConverter converter = new RowConverter(HEADER, USERS, NOW);
+        StringBuilder out = new StringBuilder();
+
+        converter.appendCopyRow(7, List.of("John@Example.com", "Taxi \"airport\"", "42.50", "", "paid", "2023-02-03"),
+                out);
+
+        assertEquals("7,1,\"Taxi \"\"airport\"\"\",,42.50,,PAID,2023-02-03T00:00\n", out.toString());
+    }
+
+    @Test
+    void invalidRowsAreRejectedWithReason() {
+        RowConverter converter = new RowConverter(HEADER, USERS, NOW);
+
+        assertReject(converter, List.of("nobody@example.com", "Taxi", "10", "", "", ""), "Unknown employee email");
+        assertReject(converter, List.of("john@example.com", "", "10", "", "", ""), "title is required");
+        assertReject(converter, List.of("john@example.com", "Taxi", "-1", "", "", ""), "greater than 0");
+        assertReject(converter, List.of("john@example.com", "Taxi", "1.234", "", "", ""), "2 decimals");
+        assertReject(converter, List.of("john@example.com", "Taxi", "10", "", "LOST", ""), "Unknown status");
+        assertReject(converter, List.of("john@example.com", "Taxi", "10", "", "", "2030-01-01"), "future");
+        assertReject(converter, List.of("john@example.com", "Taxi"), "Expected 6 fields");
+    }
+
+    @Test
+    void missingRequiredColumnFailsTheImport() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> new RowConverter(List.of("\uFEFFemployee_email", "title"), USERS, NOW));
+
+        assertEquals("Missing column: amount", e.getMessage());
+    }
+
+    private static void assertReject(RowConverter converter, List<String> record, String reason) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> converter.appendCopyRow(1, record, new StringBuilder()));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+}
@@ -0,0 +1,84 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.dto.CreateExpenseRequestDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+class ExpenseServiceAutoApprovalTest {
+
+    private ExpenseRequestRepository expenseRequestRepository;
+    private NotificationService notificationService;
+    private ApprovalRuleEngine approvalRuleEngine;
+    private ExpenseService expenseService;
+
+    @BeforeEach
+    void setUp() {
+        expenseRequestRepository = mock(ExpenseRequestRepository.class);
+        notificationService = mock(NotificationService.class);
+        approvalRuleEngine = mock(ApprovalRuleEngine.class);
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        User employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+        when(currentUserService.getCurrentUser()).thenReturn(employee);
+        when(expenseRequestRepository.save(any(ExpenseRequest.class))).thenAnswer(invocation -> {
+            ExpenseRequest expense = invocation.getArgument(0);
+            expense.setId(40L);
+            return expense;
+        });
+        when(approvalRuleEngine.match(any(ExpenseRequest.class))).thenReturn("routine");
+
+        ExpenseWorkflow workflow = new ExpenseWorkflow();
+        ReflectionTestUtils.setField(workflow, "approvalChain", "MANAGER,MANAGER>1000,FINANCE");
+        workflow.init();
+
+        expenseService = new ExpenseService();
+        ReflectionTestUtils.setField(expenseService, "expenseRequestRepository", expenseRequestRepository);
+        ReflectionTestUtils.setField(expenseService, "notificationService", notificationService);
+        ReflectionTestUtils.setField(expenseService, "approvalRuleEngine", approvalRuleEngine);
+        ReflectionTestUtils.setField(expenseService, "expenseWorkflow", workflow);
+        ReflectionTestUtils.setField(expenseService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(expenseService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(expenseService, "duplicateExpenseDetector", mock(DuplicateExpenseDetector.class));
+        ReflectionTestUtils.setField(expenseService, "amountAnomalyService", mock(AmountAnomalyService.class));
+    }
+
+    @Test
+    void ruleMatchBelowTheSecondApprovalAmountGoesToFinance() {
+        assertEquals(ExpenseStatus.PENDING_FINANCE, expenseService.createExpenseRequest(dto("1000.00")).getStatus());
+
+        verify(notificationService).notifyExpenseAutoApproved(any(ExpenseRequest.class), eq("routine"));
+    }
+
+    @Test
+    void ruleMatchAboveTheSecondApprovalAmountStillNeedsAManager() {
+        assertEquals(ExpenseStatus.APPROVED_MANAGER, expenseService.createExpenseRequest(dto("1000.01")).getStatus());
+
+        verify(notificationService).notifyManagersOfNewExpense(any(ExpenseRequest.class));
+        verify(notificationService, never()).notifyExpenseAutoApproved(any(ExpenseRequest.class), eq("routine"));
+    }
+
+    private static CreateExpenseRequestDto dto(String amount) {
+        CreateExpenseRequestDto dto = new CreateExpenseRequestDto();
+        dto.setTitle("Hotel");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+}
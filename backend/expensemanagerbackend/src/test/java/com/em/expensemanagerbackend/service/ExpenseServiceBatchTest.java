@@ -0,0 +1,211 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.dto.BatchExpenseResponseDto;
+import com.em.expensemanagerbackend.dto.CreateExpenseRequestDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+
+import jakarta.validation.Validation;
+
+class ExpenseServiceBatchTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationService notificationService;
+    private ApplicationEventPublisher eventPublisher;
+    private ApprovalRuleEngine approvalRuleEngine;
+    private ExpenseService expenseService;
+    private User employee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        notificationService = mock(NotificationService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        approvalRuleEngine = mock(ApprovalRuleEngine.class);
+        ExpenseWorkflow workflow = new ExpenseWorkflow();
+        ReflectionTestUtils.setField(workflow, "approvalChain", "MANAGER,FINANCE");
+        workflow.init();
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+        when(currentUserService.getCurrentUser()).thenReturn(employee);
+
+        expenseService = new ExpenseService();
+        ReflectionTestUtils.setField(expenseService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(expenseService, "notificationService", notificationService);
+        ReflectionTestUtils.setField(expenseService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(expenseService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(expenseService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(expenseService, "batchMaxSize", 3);
+        ReflectionTestUtils.setField(expenseService, "duplicateExpenseDetector", mock(DuplicateExpenseDetector.class));
+        ReflectionTestUtils.setField(expenseService, "amountAnomalyService", mock(AmountAnomalyService.class));
+        ReflectionTestUtils.setField(expenseService, "approvalRuleEngine", approvalRuleEngine);
+        ReflectionTestUtils.setField(expenseService, "expenseWorkflow", workflow);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void validItemsAreInsertedWithOneStatementAndInvalidOnesReported() throws Exception {
+        // The database returns the inserted rows out of order; ids restore the input order
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<ExpenseRequest> mapper = invocation.getArgument(1);
+            return new ArrayList<>(List.of(mapper.mapRow(row(11L), 0), mapper.mapRow(row(10L), 1)));
+        });
+
+        BatchExpenseResponseDto response = expenseService.createExpenseRequests(Arrays.asList(
+                expense("Taxi", "12.50"), expense("", "5.00"), expense("Hotel", "180.00")));
+
+        assertEquals(2, response.getCreatedCount());
+        assertEquals(1, response.getFailedCount());
+        assertEquals(10L, response.getResults().get(0).getExpense().getId());
+        assertEquals("Taxi", response.getResults().get(0).getExpense().getTitle());
+        assertFalse(response.getResults().get(1).isCreated());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("title"));
+        assertEquals(11L, response.getResults().get(2).getExpense().getId());
+        assertEquals("Hotel", response.getResults().get(2).getExpense().getTitle());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertTrue(sql.getValue().contains("VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?), (?, ?"));
+        verify(eventPublisher, times(2)).publishEvent(any(ExpenseChangedEvent.class));
+        verify(notificationService).notifyManagersOfNewExpenses(eq(employee), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatOfAnEarlierItemInTheBatchIsLinkedToIt() throws Exception {
+        DuplicateExpenseDetector detector = mock(DuplicateExpenseDetector.class);
+        ReflectionTestUtils.setField(expenseService, "duplicateExpenseDetector", detector);
+        when(detector.findInBatch(any(), any(), any())).thenAnswer(invocation -> {
+            List<ExpenseRequest> earlier = invocation.getArgument(2);
+            return earlier.isEmpty() ? null : earlier.get(0);
+        });
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<ExpenseRequest> mapper = invocation.getArgument(1);
+            return new ArrayList<>(List.of(mapper.mapRow(row(10L), 0), mapper.mapRow(row(11L), 1)));
+        });
+        ResultSet updated = row(11L);
+        when(updated.getLong("change_seq")).thenReturn(112L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(updated);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("UPDATE"), any(RowCallbackHandler.class), any(Object[].class));
+
+        BatchExpenseResponseDto response = expenseService.createExpenseRequests(List.of(
+                expense("Taxi", "12.50"), expense("Taxi", "12.50")));
+
+        assertNull(response.getResults().get(0).getExpense().getPossibleDuplicateOfId());
+        assertEquals(10L, response.getResults().get(1).getExpense().getPossibleDuplicateOfId());
+        // The link update bumped change_seq past the inserted 111; the event carries the new value
+        assertEquals(112L, response.getResults().get(1).getExpense().getChangeSeq());
+        assertEquals(110L, response.getResults().get(0).getExpense().getChangeSeq());
+        verify(jdbcTemplate).query(eq("UPDATE expense_requests e SET possible_duplicate_of = l.original_id FROM "
+                + "(VALUES (?, ?)) AS l(id, original_id) WHERE e.id = l.id RETURNING e.id, e.change_seq"),
+                any(RowCallbackHandler.class), eq(11L), eq(10L));
+        ArgumentCaptor<ExpenseChangedEvent> events = ArgumentCaptor.forClass(ExpenseChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(112L, events.getAllValues().get(1).getChangeSeq());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void autoApprovedItemsSkipTheManagerQueueAndAreAnnouncedSeparately() throws Exception {
+        when(approvalRuleEngine.match(any())).thenAnswer(invocation -> {
+            ExpenseRequest expense = invocation.getArgument(0);
+            return expense.getTitle().equals("Taxi") ? "routine" : null;
+        });
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<ExpenseRequest> mapper = invocation.getArgument(1);
+            return new ArrayList<>(List.of(mapper.mapRow(row(10L), 0), mapper.mapRow(row(11L), 1)));
+        });
+
+        BatchExpenseResponseDto response = expenseService.createExpenseRequests(List.of(
+                expense("Taxi", "12.50"), expense("Hotel", "180.00")));
+
+        assertEquals(ExpenseStatus.PENDING_FINANCE, response.getResults().get(0).getExpense().getStatus());
+        assertEquals(ExpenseStatus.PENDING_MANAGER, response.getResults().get(1).getExpense().getStatus());
+        ArgumentCaptor<List<Object[]>> approvals = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO manager_actions (expense_id, manager_id, \"action\", "
+                + "comment) VALUES (?, NULL, ?, ?)"), approvals.capture());
+        assertEquals(1, approvals.getValue().size());
+        assertEquals(List.of(10L, "APPROVED", "Auto-approved by rule 'routine'"),
+                Arrays.asList(approvals.getValue().get(0)));
+
+        ArgumentCaptor<List<ExpenseRequest>> managerQueue = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<ExpenseRequest>> autoApproved = ArgumentCaptor.forClass(List.class);
+        verify(notificationService).notifyManagersOfNewExpenses(eq(employee), managerQueue.capture());
+        verify(notificationService).notifyExpensesAutoApproved(eq(employee), autoApproved.capture(),
+                eq(List.of("routine")));
+        assertEquals(11L, managerQueue.getValue().get(0).getId());
+        assertEquals(10L, autoApproved.getValue().get(0).getId());
+    }
+
+    @Test
+    void batchWithOnlyInvalidItemsInsertsNothing() {
+        BatchExpenseResponseDto response = expenseService.createExpenseRequests(List.of(expense("Taxi", "0")));
+
+        assertEquals(0, response.getCreatedCount());
+        assertEquals(1, response.getFailedCount());
+        verifyNoInteractions(jdbcTemplate, notificationService);
+    }
+
+    @Test
+    void oversizedBatchIsRejected() {
+        List<CreateExpenseRequestDto> batch = List.of(expense("A", "1"), expense("B", "1"), expense("C", "1"),
+                expense("D", "1"));
+
+        assertThrows(RuntimeException.class, () -> expenseService.createExpenseRequests(batch));
+    }
+
+    private static CreateExpenseRequestDto expense(String title, String amount) {
+        return new CreateExpenseRequestDto(title, null, new BigDecimal(amount), null);
+    }
+
+    private static ResultSet row(long id) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.of(2025, 3, 14, 9, 30));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getTimestamp("created_at")).thenReturn(now);
+        when(rs.getTimestamp("updated_at")).thenReturn(now);
+        when(rs.getLong("change_seq")).thenReturn(100 + id);
+        when(rs.getLong("version")).thenReturn(0L);
+        return rs;
+    }
+}
@@ -0,0 +1,122 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.dto.ExpenseChangesResponseDto;
+import com.em.expensemanagerbackend.dto.ExpenseRequestResponseDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+import com.em.expensemanagerbackend.repository.ExpenseTombstoneRepository;
+
+class ExpenseServiceChangeFeedTest {
+
+    private ExpenseRequestRepository expenseRequestRepository;
+    private ExpenseTombstoneRepository expenseTombstoneRepository;
+    private ExpenseService expenseService;
+    private User finance;
+
+    @BeforeEach
+    void setUp() {
+        expenseRequestRepository = mock(ExpenseRequestRepository.class);
+        expenseTombstoneRepository = mock(ExpenseTombstoneRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        finance = new User("Emily Davis", "emily@example.com", "secret", UserRole.FINANCE);
+        finance.setId(9L);
+        when(currentUserService.getCurrentUser()).thenReturn(finance);
+        // Oldest transaction still running
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class))).thenReturn("120");
+
+        expenseService = new ExpenseService();
+        ReflectionTestUtils.setField(expenseService, "expenseRequestRepository", expenseRequestRepository);
+        ReflectionTestUtils.setField(expenseService, "expenseTombstoneRepository", expenseTombstoneRepository);
+        ReflectionTestUtils.setField(expenseService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(expenseService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(expenseService, "changeFeedPageSize", 500);
+    }
+
+    @Test
+    void changesAndDeletionsAreMergedInTransactionOrderAndCutAtThePageSize() {
+        // Transaction 101 took seq 7 before 100 took seq 8; 100's change still comes first
+        when(expenseRequestRepository.findChangePositionsSince("100", 3L, "120", 4)).thenReturn(rows(
+                position(21L, "100", 8L), position(22L, "101", 7L), position(23L, "104", 12L)));
+        when(expenseTombstoneRepository.findChangePositionsSince("100", 3L, "120", 4)).thenReturn(rows(
+                position(30L, "100", 5L), position(31L, "104", 11L)));
+        when(expenseRequestRepository.findWithEmployeeByIdIn(List.of(21L, 22L)))
+                .thenReturn(List.of(expense(22L), expense(21L)));
+
+        ExpenseChangesResponseDto page = expenseService.getChangesSince("100:3", 3);
+
+        assertEquals(List.of(21L, 22L), page.getChanged().stream().map(ExpenseRequestResponseDto::getId).toList());
+        assertEquals(List.of(30L), page.getDeleted());
+        assertEquals("101:7", page.getCursor());
+        assertTrue(page.isHasMore());
+    }
+
+    @Test
+    void employeesOnlyGetTheirOwnChangesAndAnEmptyPageKeepsTheCursor() {
+        User employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        when(currentUserService.getCurrentUser()).thenReturn(employee);
+        ReflectionTestUtils.setField(expenseService, "currentUserService", currentUserService);
+        when(expenseRequestRepository.findChangePositionsSinceForEmployee(1L, "118", 40L, "120", 501))
+                .thenReturn(List.of());
+        when(expenseTombstoneRepository.findChangePositionsSinceForEmployee(1L, "118", 40L, "120", 501))
+                .thenReturn(List.of());
+
+        ExpenseChangesResponseDto page = expenseService.getChangesSince("118:40", null);
+
+        assertEquals("118:40", page.getCursor());
+        assertFalse(page.isHasMore());
+        assertTrue(page.getChanged().isEmpty());
+    }
+
+    @Test
+    void cursorsAreParsedAndOldNumericOnesRestartTheSync() {
+        assertArrayEquals(new long[] { 0, 0 }, ExpenseService.parseChangeCursor("0"));
+        assertArrayEquals(new long[] { 0, 0 }, ExpenseService.parseChangeCursor("1532"));
+        assertArrayEquals(new long[] { 905, 12 }, ExpenseService.parseChangeCursor("905:12"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ExpenseService.parseChangeCursor("905:x"));
+        assertEquals("Invalid change-feed cursor: 905:x", e.getMessage());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static Object[] position(Long id, String xid, Long seq) {
+        return new Object[] { id, xid, seq };
+    }
+
+    private ExpenseRequest expense(Long id) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setId(id);
+        expense.setTitle("Taxi");
+        expense.setAmount(new BigDecimal("20.00"));
+        expense.setStatus(ExpenseStatus.PENDING_MANAGER);
+        expense.setEmployee(finance);
+        return expense;
+    }
+}
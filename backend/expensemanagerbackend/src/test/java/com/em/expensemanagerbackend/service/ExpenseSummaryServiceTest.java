@@ -0,0 +1,132 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.dto.ExpenseSummaryDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.EmployeeExpenseSummaryRepository;
+
+class ExpenseSummaryServiceTest {
+
+    private static final LocalDateTime SUBMITTED = LocalDateTime.of(2025, 3, 14, 9, 30);
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+
+    private EmployeeExpenseSummaryRepository summaryRepository;
+    private ExpenseSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryRepository = mock(EmployeeExpenseSummaryRepository.class);
+        summaryService = new ExpenseSummaryService();
+        ReflectionTestUtils.setField(summaryService, "summaryRepository", summaryRepository);
+    }
+
+    @Test
+    void transitionMovesAmountBetweenStatusCells() {
+        BigDecimal amount = new BigDecimal("120.50");
+
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, ExpenseStatus.PENDING_FINANCE,
+                ExpenseStatus.PAID, amount, amount, SUBMITTED));
+
+        verify(summaryRepository).addDelta(1L, "PENDING_FINANCE", MARCH, new BigDecimal("-120.50"), -1);
+        verify(summaryRepository).addDelta(1L, "PAID", MARCH, amount, 1);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void cellsAreLockedInStatusNameOrderWhicheverWayTheExpenseMoves() {
+        BigDecimal amount = new BigDecimal("75.00");
+
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, ExpenseStatus.REJECTED_MANAGER,
+                ExpenseStatus.PENDING_MANAGER, amount, amount, SUBMITTED));
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(10L, 1L, ExpenseStatus.PENDING_MANAGER,
+                ExpenseStatus.REJECTED_MANAGER, amount, amount, SUBMITTED));
+
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).addDelta(1L, "PENDING_MANAGER", MARCH, amount, 1);
+        inOrder.verify(summaryRepository).addDelta(1L, "REJECTED_MANAGER", MARCH, new BigDecimal("-75.00"), -1);
+        inOrder.verify(summaryRepository).addDelta(1L, "PENDING_MANAGER", MARCH, new BigDecimal("-75.00"), -1);
+        inOrder.verify(summaryRepository).addDelta(1L, "REJECTED_MANAGER", MARCH, amount, 1);
+    }
+
+    @Test
+    void amountEditInTheSameStatusIsOneDelta() {
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, ExpenseStatus.PENDING_MANAGER,
+                ExpenseStatus.PENDING_MANAGER, new BigDecimal("40.00"), new BigDecimal("55.50"), SUBMITTED));
+
+        verify(summaryRepository).addDelta(1L, "PENDING_MANAGER", MARCH, new BigDecimal("15.50"), 0);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void teamSummaryIsScopedToTheManagersHierarchy() {
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        UserHierarchyService userHierarchyService = mock(UserHierarchyService.class);
+        User manager = new User("Robert Taylor", "robert@example.com", "secret", UserRole.MANAGER);
+        manager.setId(5L);
+        when(currentUserService.getCurrentUser()).thenReturn(manager);
+        when(userHierarchyService.isUnassignedVisibleToAllManagers()).thenReturn(false);
+        ReflectionTestUtils.setField(summaryService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(summaryService, "userHierarchyService", userHierarchyService);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { 1L, "John Smith", "PAID", Date.valueOf(MARCH), new BigDecimal("120.50"), 2L });
+        when(summaryRepository.findForManagerTeam(5L, false, LocalDate.of(2025, 1, 1), MARCH)).thenReturn(rows);
+
+        List<ExpenseSummaryDto> summary = summaryService.getTeamSummary(YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+
+        assertEquals(1, summary.size());
+        assertEquals("John Smith", summary.get(0).getEmployeeName());
+        assertEquals(ExpenseStatus.PAID, summary.get(0).getStatus());
+        assertEquals(MARCH, summary.get(0).getMonth());
+        assertEquals(2L, summary.get(0).getExpenseCount());
+    }
+
+    @Test
+    void createAndDeleteTouchOneCellEach() {
+        BigDecimal amount = new BigDecimal("40.00");
+
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, null, ExpenseStatus.PENDING_MANAGER,
+                null, amount, SUBMITTED));
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, ExpenseStatus.PENDING_MANAGER, null,
+                amount, null, SUBMITTED));
+
+        verify(summaryRepository).addDelta(1L, "PENDING_MANAGER", MARCH, amount, 1);
+        verify(summaryRepository).addDelta(1L, "PENDING_MANAGER", MARCH, new BigDecimal("-40.00"), -1);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void editWithoutStatusOrAmountChangeIsIgnored() {
+        BigDecimal amount = new BigDecimal("40.00");
+
+        summaryService.onExpenseChanged(new ExpenseChangedEvent(9L, 1L, ExpenseStatus.PENDING_MANAGER,
+                ExpenseStatus.PENDING_MANAGER, amount, amount, SUBMITTED));
+
+        verify(summaryRepository, never()).addDelta(any(), anyString(), any(), any(), anyLong());
+    }
+}
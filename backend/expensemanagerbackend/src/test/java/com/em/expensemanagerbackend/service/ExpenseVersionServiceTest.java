@@ -0,0 +1,57 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+
+class ExpenseVersionServiceTest {
+
+    private CurrentUserService currentUserService;
+    private ExpenseVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        currentUserService = mock(CurrentUserService.class);
+        versionService = new ExpenseVersionService();
+        ReflectionTestUtils.setField(versionService, "currentUserService", currentUserService);
+    }
+
+    @Test
+    void transitionChangesOnlyAffectedScopes() {
+        when(currentUserService.getCurrentUserId()).thenReturn(1L);
+        String ownList = versionService.etagForOwnList("my-expenses");
+        String expense = versionService.etagForExpense(42L);
+        when(currentUserService.getCurrentUserId()).thenReturn(7L);
+        String financeQueue = versionService.etagForStatusList("pending-finance-approval", ExpenseStatus.PENDING_FINANCE);
+        String paidList = versionService.etagForStatusList("approved-by-finance", ExpenseStatus.PAID);
+
+        versionService.onExpenseChanged(new ExpenseChangedEvent(42L, 1L, ExpenseStatus.PENDING_MANAGER,
+                ExpenseStatus.REJECTED_MANAGER, BigDecimal.TEN, BigDecimal.TEN, LocalDateTime.now()));
+
+        assertEquals(financeQueue, versionService.etagForStatusList("pending-finance-approval", ExpenseStatus.PENDING_FINANCE));
+        assertEquals(paidList, versionService.etagForStatusList("approved-by-finance", ExpenseStatus.PAID));
+        when(currentUserService.getCurrentUserId()).thenReturn(1L);
+        assertNotEquals(ownList, versionService.etagForOwnList("my-expenses"));
+        assertNotEquals(expense, versionService.etagForExpense(42L));
+    }
+
+    @Test
+    void tagsAreScopedToTheCurrentUser() {
+        when(currentUserService.getCurrentUserId()).thenReturn(5L);
+        String managerTag = versionService.etagForExpense(42L);
+        when(currentUserService.getCurrentUserId()).thenReturn(1L);
+
+        assertNotEquals(managerTag, versionService.etagForExpense(42L));
+    }
+}
@@ -0,0 +1,173 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.FinanceActionType;
+import com.em.expensemanagerbackend.enums.ManagerActionType;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.enums.WorkflowAction;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.FinanceAction;
+import com.em.expensemanagerbackend.model.ManagerAction;
+
+class ExpenseWorkflowTest {
+
+    @Test
+    void singleManagerChainGoesStraightToFinance() {
+        ExpenseWorkflow workflow = workflow("MANAGER,FINANCE");
+
+        ExpenseWorkflow.Transition approve = workflow.resolve(expense(ExpenseStatus.PENDING_MANAGER, "5000.00"),
+                UserRole.MANAGER, WorkflowAction.APPROVE);
+
+        assertEquals(ExpenseStatus.PENDING_FINANCE, approve.targetFor(expense(ExpenseStatus.PENDING_MANAGER, "5000.00")));
+        assertNull(workflow.find(ExpenseStatus.APPROVED_MANAGER, UserRole.MANAGER, WorkflowAction.APPROVE));
+        assertEquals(List.of(ExpenseStatus.PENDING_MANAGER), workflow.actionableStatuses(UserRole.MANAGER));
+        assertEquals(List.of(), workflow.actionableStatuses(UserRole.EMPLOYEE));
+    }
+
+    @Test
+    void amountAboveThresholdNeedsASecondManager() {
+        ExpenseWorkflow workflow = workflow("MANAGER,MANAGER>1000,FINANCE");
+        ExpenseWorkflow.Transition first = workflow.find(ExpenseStatus.PENDING_MANAGER, UserRole.MANAGER,
+                WorkflowAction.APPROVE);
+        ExpenseWorkflow.Transition second = workflow.find(ExpenseStatus.APPROVED_MANAGER, UserRole.MANAGER,
+                WorkflowAction.APPROVE);
+
+        assertEquals(ExpenseStatus.PENDING_FINANCE, first.targetFor(expense(ExpenseStatus.PENDING_MANAGER, "1000.00")));
+        assertEquals(ExpenseStatus.APPROVED_MANAGER, first.targetFor(expense(ExpenseStatus.PENDING_MANAGER, "1000.01")));
+        assertFalse(first.isDistinctApprover());
+        ExpenseRequest approvedOnce = expense(ExpenseStatus.APPROVED_MANAGER, "1000.01");
+        managerAction(approvedOnce, ManagerActionType.APPROVED, null);
+        assertEquals(ExpenseStatus.PENDING_FINANCE, second.targetFor(approvedOnce));
+        assertTrue(second.isDistinctApprover());
+        assertEquals(List.of(ExpenseStatus.PENDING_MANAGER, ExpenseStatus.APPROVED_MANAGER),
+                workflow.actionableStatuses(UserRole.MANAGER));
+    }
+
+    @Test
+    void eachManagerStepThatAppliesToTheAmountTakesAnotherApproval() {
+        ExpenseWorkflow workflow = workflow("MANAGER, MANAGER>1000, MANAGER>10000, FINANCE");
+        ExpenseWorkflow.Transition next = workflow.find(ExpenseStatus.APPROVED_MANAGER, UserRole.MANAGER,
+                WorkflowAction.APPROVE);
+        ExpenseRequest large = expense(ExpenseStatus.PENDING_MANAGER, "20000.00");
+        ExpenseRequest medium = expense(ExpenseStatus.PENDING_MANAGER, "5000.00");
+
+        assertEquals(ExpenseStatus.APPROVED_MANAGER, next.targetFor(large));
+        assertEquals(ExpenseStatus.APPROVED_MANAGER, next.targetFor(medium));
+        managerAction(large, ManagerActionType.APPROVED, null);
+        managerAction(medium, ManagerActionType.APPROVED, null);
+        assertEquals(ExpenseStatus.APPROVED_MANAGER, next.targetFor(large));
+        assertEquals(ExpenseStatus.PENDING_FINANCE, next.targetFor(medium));
+        managerAction(large, ManagerActionType.APPROVED, null);
+        assertEquals(ExpenseStatus.PENDING_FINANCE, next.targetFor(large));
+    }
+
+    @Test
+    void chainsTheStatusesCannotExpressAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> workflow("MANAGER,FINANCE,MANAGER"));
+        assertThrows(IllegalArgumentException.class, () -> workflow("MANAGER,FINANCE>500"));
+        assertThrows(IllegalArgumentException.class, () -> workflow("MANAGER>100,FINANCE"));
+        assertThrows(IllegalArgumentException.class, () -> workflow("FINANCE"));
+    }
+
+    @Test
+    void missingTransitionNamesTheStatusesItIsAllowedFrom() {
+        ExpenseWorkflow workflow = workflow("MANAGER,MANAGER>1000,FINANCE");
+
+        RuntimeException finance = assertThrows(RuntimeException.class, () -> workflow.resolve(
+                expense(ExpenseStatus.PENDING_MANAGER, "10.00"), UserRole.FINANCE, WorkflowAction.APPROVE));
+        RuntimeException manager = assertThrows(RuntimeException.class, () -> workflow.resolve(
+                expense(ExpenseStatus.PAID, "10.00"), UserRole.MANAGER, WorkflowAction.REJECT));
+
+        assertEquals("Only expenses with PENDING_FINANCE status can be approved by finance", finance.getMessage());
+        assertEquals("Only expenses with PENDING_MANAGER or APPROVED_MANAGER status can be rejected",
+                manager.getMessage());
+    }
+
+    @Test
+    void onlyApprovalsAfterTheLastRejectionCount() {
+        ExpenseRequest expense = expense(ExpenseStatus.PENDING_MANAGER, "5000.00");
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 9, 0);
+        managerAction(expense, ManagerActionType.APPROVED, start);
+        managerAction(expense, ManagerActionType.APPROVED, start.plusHours(1));
+        FinanceAction rejection = new FinanceAction(FinanceActionType.REJECTED, null, "Wrong project", expense, null);
+        rejection.setActionAt(start.plusHours(2));
+        expense.addFinanceAction(rejection);
+        ManagerAction resubmittedApproval = managerAction(expense, ManagerActionType.APPROVED, start.plusHours(3));
+
+        List<ManagerAction> approvals = ExpenseWorkflow.currentCycleApprovals(expense);
+        assertEquals(1, approvals.size());
+        assertSame(resubmittedApproval, approvals.get(0));
+
+        managerAction(expense, ManagerActionType.REJECTED, start.plusHours(4));
+        assertTrue(ExpenseWorkflow.currentCycleApprovals(expense).isEmpty());
+    }
+
+    /**
+     * Transition throughput; run with -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTransitionThroughput() {
+        ExpenseWorkflow workflow = workflow("MANAGER,MANAGER>1000,FINANCE");
+        ExpenseStatus[] statuses = ExpenseStatus.values();
+        UserRole[] roles = UserRole.values();
+        WorkflowAction[] actions = WorkflowAction.values();
+        ExpenseRequest[] expenses = new ExpenseRequest[1024];
+        for (int i = 0; i < expenses.length; i++) {
+            expenses[i] = expense(statuses[i % statuses.length], (i % 2000) + ".00");
+        }
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            int operations = 20_000_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                ExpenseRequest expense = expenses[i & 1023];
+                ExpenseWorkflow.Transition transition = workflow.find(expense.getStatus(),
+                        roles[i % roles.length], actions[i & 1]);
+                if (transition != null) {
+                    sink += transition.targetFor(expense).ordinal();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Workflow round %d: %.1f M transitions/s (%.1f ns each)%n", round,
+                    operations * 1e3 / elapsed, (double) elapsed / operations);
+        }
+        assertTrue(sink > 0);
+    }
+
+    private static ExpenseWorkflow workflow(String approvalChain) {
+        ExpenseWorkflow workflow = new ExpenseWorkflow();
+        ReflectionTestUtils.setField(workflow, "approvalChain", approvalChain);
+        workflow.init();
+        return workflow;
+    }
+
+    private static ManagerAction managerAction(ExpenseRequest expense, ManagerActionType type, LocalDateTime at) {
+        ManagerAction managerAction = new ManagerAction(type, null, expense, null);
+        managerAction.setActionAt(at);
+        expense.addManagerAction(managerAction);
+        return managerAction;
+    }
+
+    private static ExpenseRequest expense(ExpenseStatus status, String amount) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setStatus(status);
+        expense.setAmount(new BigDecimal(amount));
+        return expense;
+    }
+}
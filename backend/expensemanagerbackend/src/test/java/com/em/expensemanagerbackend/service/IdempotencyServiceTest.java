@@ -0,0 +1,90 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.service.IdempotencyService.StoredResponse;
+
+class IdempotencyServiceTest {
+
+    private static final byte[] KEY = IdempotencyService.keyHash(1L, "POST", "/api/expenses", "abc-123");
+    private static final byte[] REQUEST = IdempotencyService.sha256("{\"title\":\"Taxi\"}".getBytes(StandardCharsets.UTF_8));
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 2);
+        idempotencyService.init();
+    }
+
+    @Test
+    void firstRequestWinsTheClaim() {
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class))).thenReturn(1);
+
+        assertNull(idempotencyService.claim(KEY, REQUEST));
+    }
+
+    @Test
+    void completedResponseIsReplayedFromMemory() {
+        byte[] body = "{\"id\":42}".getBytes(StandardCharsets.UTF_8);
+        assertTrue(idempotencyService.complete(KEY, REQUEST, 201, body));
+        verify(jdbcTemplate).update(startsWith("UPDATE"), any(Object[].class));
+
+        StoredResponse replay = idempotencyService.claim(KEY, REQUEST);
+
+        assertNotNull(replay);
+        assertTrue(replay.isCompleted());
+        assertEquals(201, replay.getStatus());
+        assertArrayEquals(body, replay.getBody());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void differentBodyDoesNotMatch() {
+        idempotencyService.complete(KEY, REQUEST, 201, new byte[0]);
+
+        StoredResponse replay = idempotencyService.claim(KEY, REQUEST);
+
+        assertFalse(replay.matches(IdempotencyService.sha256(new byte[]{1})));
+    }
+
+    @Test
+    void keysAreScopedToUserAndPath() {
+        assertFalse(Arrays.equals(KEY, IdempotencyService.keyHash(2L, "POST", "/api/expenses", "abc-123")));
+        assertFalse(Arrays.equals(KEY,
+                IdempotencyService.keyHash(1L, "POST", "/api/expenses/7/approve", "abc-123")));
+    }
+
+    @Test
+    void releaseOnlyRemovesUnfinishedClaims() {
+        idempotencyService.release(KEY);
+
+        verify(jdbcTemplate).update(contains("status_code IS NULL"), any(Object[].class));
+    }
+}
@@ -0,0 +1,167 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.repository.NotificationRepository;
+
+class NotificationMaintenanceServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationRepository notificationRepository;
+    private UnreadCountService unreadCountService;
+    private NotificationMaintenanceService maintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        notificationRepository = mock(NotificationRepository.class);
+        unreadCountService = mock(UnreadCountService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(eq("SELECT pg_try_advisory_xact_lock(?)"), eq(Boolean.class), any()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any()))
+                .thenReturn(true);
+
+        maintenanceService = new NotificationMaintenanceService();
+        ReflectionTestUtils.setField(maintenanceService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(maintenanceService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(maintenanceService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(maintenanceService, "unreadCountService", unreadCountService);
+        ReflectionTestUtils.setField(maintenanceService, "partitionsAhead", 0);
+        ReflectionTestUtils.setField(maintenanceService, "retentionMonths", 12);
+        ReflectionTestUtils.setField(maintenanceService, "compactionWindowDays", 31);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("notifications_default", "notifications_p200001"));
+    }
+
+    @Test
+    void onlyMonthlyPartitionsBeforeRetentionWindowExpire() {
+        List<String> partitions = List.of("notifications_p202512", "notifications_default", "notifications_p202409",
+                "notifications_p202410", "notifications_p202411", "notifications_p202610", "notifications_old");
+
+        List<String> expired = NotificationMaintenanceService.expiredPartitions(partitions, YearMonth.of(2025, 11), 12);
+
+        assertEquals(List.of("notifications_p202409", "notifications_p202410"), expired);
+    }
+
+    @Test
+    void partitionNamesUseYearAndMonth() {
+        assertEquals("notifications_p202603", NotificationMaintenanceService.partitionName(YearMonth.of(2026, 3)));
+    }
+
+    @Test
+    void aNewPartitionTakesOverTheDefaultPartitionsRowsBeforeItIsAttached() {
+        when(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, "notifications_p202603"))
+                .thenReturn(false);
+        when(jdbcTemplate.update(anyString())).thenReturn(2);
+
+        maintenanceService.ensurePartition(YearMonth.of(2026, 3));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("CREATE TABLE notifications_p202603 (LIKE notifications INCLUDING DEFAULTS)");
+        order.verify(jdbcTemplate).execute("LOCK TABLE notifications_default IN ACCESS EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).update("WITH moved AS (DELETE FROM notifications_default WHERE created_at >= "
+                + "'2026-03-01' AND created_at < '2026-04-01' RETURNING *) INSERT INTO notifications_p202603 "
+                + "SELECT * FROM moved");
+        order.verify(jdbcTemplate).execute("ALTER TABLE notifications ATTACH PARTITION notifications_p202603 "
+                + "FOR VALUES FROM ('2026-03-01') TO ('2026-04-01')");
+    }
+
+    @Test
+    void anExistingPartitionIsLeftAlone() {
+        maintenanceService.ensurePartition(YearMonth.of(2026, 3));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    void anotherInstanceHoldingTheLockSkipsEveryStep() {
+        when(jdbcTemplate.queryForObject(eq("SELECT pg_try_advisory_xact_lock(?)"), eq(Boolean.class), any()))
+                .thenReturn(false);
+
+        maintenanceService.runMaintenance();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(notificationRepository, never()).deleteSupersededSince(any());
+        verify(unreadCountService, never()).reconcile();
+    }
+
+    @Test
+    void expiredPartitionsAreDroppedAndTheCountsReconciled() {
+        maintenanceService.runMaintenance();
+
+        verify(jdbcTemplate).execute("ALTER TABLE notifications DETACH PARTITION notifications_p200001");
+        verify(jdbcTemplate).execute("DROP TABLE notifications_p200001");
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE notifications DETACH PARTITION notifications_default"));
+        verify(unreadCountService).reconcile();
+    }
+
+    @Test
+    void expiredPartitionsAreArchivedWithoutTheirForeignKeys() {
+        ReflectionTestUtils.setField(maintenanceService, "archiveExpiredPartitions", true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("notifications_p200001")))
+                .thenReturn(List.of("notifications_recipient_id_fkey"));
+
+        maintenanceService.runMaintenance();
+
+        verify(jdbcTemplate).execute(
+                "ALTER TABLE notifications_p200001 DROP CONSTRAINT \"notifications_recipient_id_fkey\"");
+        verify(jdbcTemplate).execute("ALTER TABLE notifications_p200001 SET SCHEMA notifications_archive");
+        verify(jdbcTemplate, never()).execute("DROP TABLE notifications_p200001");
+    }
+
+    @Test
+    void compactionAloneReconcilesOnlyWhenItRemovedSomething() {
+        ReflectionTestUtils.setField(maintenanceService, "retentionMonths", 0);
+        when(notificationRepository.deleteSupersededSince(any(LocalDateTime.class))).thenReturn(0);
+
+        maintenanceService.runMaintenance();
+        verify(unreadCountService, never()).reconcile();
+
+        when(notificationRepository.deleteSupersededSince(any(LocalDateTime.class))).thenReturn(3);
+        maintenanceService.runMaintenance();
+        verify(unreadCountService).reconcile();
+    }
+
+    @Test
+    void aFailingStepDoesNotStopTheOthers() {
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any()))
+                .thenReturn(false);
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE"));
+        doThrow(new DataAccessResourceFailureException("lock timeout"))
+                .when(jdbcTemplate).execute("ALTER TABLE notifications DETACH PARTITION notifications_p200001");
+        when(notificationRepository.deleteSupersededSince(any(LocalDateTime.class))).thenReturn(1);
+
+        maintenanceService.runMaintenance();
+
+        verify(notificationRepository).deleteSupersededSince(any(LocalDateTime.class));
+        verify(unreadCountService).reconcile();
+    }
+}
@@ -0,0 +1,89 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+import com.em.expensemanagerbackend.model.Notification;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.NotificationRepository;
+
+class NotificationServiceTest {
+
+    private NotificationRepository notificationRepository;
+    private UnreadCountService unreadCountService;
+    private NotificationService notificationService;
+    private User employee;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        unreadCountService = mock(UnreadCountService.class);
+        employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+
+        notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(notificationService, "unreadCountService", unreadCountService);
+        ReflectionTestUtils.setField(notificationService, "emailDigestService", mock(EmailDigestService.class));
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        when(currentUserService.getCurrentUser()).thenReturn(employee);
+        ReflectionTestUtils.setField(notificationService, "currentUserService", currentUserService);
+    }
+
+    @Test
+    void roleNotificationsAreFannedOutWithOneInsertAndCountedForTheRole() {
+        notificationService.notifyManagersOfNewExpense(expense(40L, "Hotel", "180.00"));
+
+        verify(notificationRepository).insertForRole("MANAGER", "New Expense Submitted",
+                "John Smith submitted a new expense: Hotel", "NEW_EXPENSE_SUBMITTED", 40L, 1L);
+        verify(unreadCountService).onRoleNotificationCreated(UserRole.MANAGER);
+        verify(notificationRepository, never()).save(any(Notification.class));
+    }
+
+    @Test
+    void batchNotificationsAreNotTiedToAnExpense() {
+        notificationService.notifyManagersOfNewExpenses(employee,
+                List.of(expense(41L, "Taxi", "20.00"), expense(42L, "Lunch", "15.50")));
+
+        verify(notificationRepository).insertForRole(eq("MANAGER"), eq("New Expenses Submitted"),
+                eq("John Smith submitted 2 new expenses totalling $35.50"), eq("NEW_EXPENSE_SUBMITTED"),
+                isNull(), eq(1L));
+        verify(unreadCountService).onRoleNotificationCreated(UserRole.MANAGER);
+    }
+
+    @Test
+    void readAndReadAllTakeWhatWasActuallyMarkedOffTheCount() {
+        when(notificationRepository.markAsRead(12L, 1L)).thenReturn(0);
+        when(notificationRepository.markAllAsReadByRecipientId(1L)).thenReturn(4);
+
+        notificationService.markAsRead(12L);
+        assertEquals(4, notificationService.markAllAsRead());
+
+        verify(unreadCountService).onNotificationsRead(1L, 0);
+        verify(unreadCountService).onNotificationsRead(1L, 4);
+    }
+
+    private ExpenseRequest expense(Long id, String title, String amount) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setId(id);
+        expense.setTitle(title);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setEmployee(employee);
+        return expense;
+    }
+}
@@ -0,0 +1,116 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.model.ExpenseRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OptimisticRetryServiceTest {
+
+    private OptimisticRetryService retryService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        retryService = new OptimisticRetryService();
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(retryService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(retryService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryService, "backoffMs", 0L);
+    }
+
+    @Test
+    void retriesUntilTheTransitionSucceeds() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryService.retry("manager_approve", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(ExpenseRequest.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, meterRegistry.counter("expense.writes", "operation", "manager_approve").count());
+        assertEquals(2.0, meterRegistry.counter("expense.conflicts", "operation", "manager_approve",
+                "outcome", "retried").count());
+    }
+
+    @Test
+    void rethrowsOnceAttemptsRunOut() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryService.retry("finance_reject", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(ExpenseRequest.class, 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.counter("expense.conflicts", "operation", "finance_reject",
+                "outcome", "rejected").count());
+    }
+
+    @Test
+    void onceNeverRetries() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryService.once("update", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(ExpenseRequest.class, 1L);
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.counter("expense.conflicts", "operation", "update",
+                "outcome", "rejected").count());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(RuntimeException.class, () -> retryService.retry("manager_reject", () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Only expenses with PENDING_MANAGER status can be rejected");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void aRetryOnlyProceedsWhileWhatTheActorViewedIsUnchanged() {
+        ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(3L);
+        viewed.check(expense(3L, "50.00", "Taxi"));
+        // A concurrent write that only touched, say, the description
+        viewed.check(expense(4L, "50.0", "Taxi"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> viewed.check(expense(5L, "5000.00", "Taxi")));
+        assertEquals("Expense was changed after you viewed it", e.getMessage());
+    }
+
+    @Test
+    void aStaleViewedVersionIsAConflictRightAway() {
+        ExpenseService.ViewedExpense viewed = new ExpenseService.ViewedExpense(3L);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> viewed.check(expense(4L, "50.00", "Taxi")));
+        assertEquals("Expense was changed after you viewed it", e.getMessage());
+    }
+
+    private static ExpenseRequest expense(Long version, String amount, String title) {
+        ExpenseRequest expense = new ExpenseRequest();
+        expense.setVersion(version);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setTitle(title);
+        return expense;
+    }
+}
@@ -0,0 +1,130 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReceiptPreviewServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private ReceiptStorageService storage;
+    private SimpleMeterRegistry meterRegistry;
+    private ReceiptPreviewService previews;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new ReceiptStorageService();
+        ReflectionTestUtils.setField(storage, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(storage, "maxBytes", 10_000_000L);
+        storage.init();
+
+        meterRegistry = new SimpleMeterRegistry();
+        previews = new ReceiptPreviewService();
+        ReflectionTestUtils.setField(previews, "receiptStorageService", storage);
+        ReflectionTestUtils.setField(previews, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(previews, "workers", 1);
+        ReflectionTestUtils.setField(previews, "queueCapacity", 1);
+        ReflectionTestUtils.setField(previews, "maxEdgePx", 100);
+        ReflectionTestUtils.setField(previews, "maxSourcePixels", 100_000_000L);
+        previews.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        previews.shutdown();
+    }
+
+    @Test
+    void imageIsDownscaledNextToTheBlob() throws Exception {
+        String hash = storage.store(new ByteArrayInputStream(encode(1600, 800, "png"))).getHash();
+
+        previews.generate(hash, "image/png");
+
+        BufferedImage preview = ImageIO.read(storage.previewPath(hash).toFile());
+        assertEquals(100, preview.getWidth());
+        assertEquals(50, preview.getHeight());
+        assertEquals(storage.blobPath(hash).getParent(), storage.previewPath(hash).getParent());
+    }
+
+    @Test
+    void pdfPreviewIsItsFirstEmbeddedJpeg() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        pdf.write(("%PDF-1.4\n1 0 obj\n<< /Type /XObject /Subtype /Image /Width 400 /Height 600 "
+                + "/Filter /DCTDecode /Length 0 >>\nstream\r\n").getBytes(StandardCharsets.US_ASCII));
+        pdf.write(encode(400, 600, "jpg"));
+        pdf.write("\nendstream\nendobj\n%%EOF\n".getBytes(StandardCharsets.US_ASCII));
+        String hash = storage.store(new ByteArrayInputStream(pdf.toByteArray())).getHash();
+
+        previews.generate(hash, "application/pdf");
+
+        BufferedImage preview = ImageIO.read(storage.previewPath(hash).toFile());
+        assertEquals(67, preview.getWidth());
+        assertEquals(100, preview.getHeight());
+    }
+
+    @Test
+    void pdfWithoutImagesIsMarkedAsHavingNoPreview() throws Exception {
+        byte[] pdf = "%PDF-1.4\n1 0 obj\n<< /Length 5 >>\nstream\nBT ET\nendstream\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        String hash = storage.store(new ByteArrayInputStream(pdf)).getHash();
+
+        previews.generate(hash, "application/pdf");
+
+        assertFalse(Files.exists(storage.previewPath(hash)));
+        assertTrue(Files.exists(storage.noPreviewPath(hash)));
+        assertEquals(1, meterRegistry.counter("receipt.previews", "result", "unsupported").count());
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfBlocking() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(previews, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        executor.execute(() -> { });
+
+        boolean queued = previews.request("a".repeat(64), "image/png");
+        double queueDepth = meterRegistry.get("receipt.previews.queue.depth").gauge().value();
+        release.countDown();
+
+        assertFalse(queued);
+        assertEquals(1, queueDepth);
+        assertEquals(1, meterRegistry.counter("receipt.previews", "result", "rejected").count());
+    }
+
+    private static byte[] encode(int width, int height, String format) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,116 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ReceiptStorageServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private ReceiptStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new ReceiptStorageService();
+        ReflectionTestUtils.setField(storage, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(storage, "maxBytes", 200_000L);
+        storage.init();
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws Exception {
+        byte[] pdf = pdf(150_000);
+
+        ReceiptStorageService.StoredReceipt first = storage.store(new ByteArrayInputStream(pdf));
+        ReceiptStorageService.StoredReceipt second = storage.store(new ByteArrayInputStream(pdf));
+
+        assertEquals("application/pdf", first.getContentType());
+        assertEquals(pdf.length, first.getSizeBytes());
+        assertFalse(first.isDuplicate());
+        assertTrue(second.isDuplicate());
+        assertEquals(first.getHash(), second.getHash());
+        assertArrayEquals(pdf, Files.readAllBytes(storage.blobPath(first.getHash())));
+        assertTemporaryFilesRemoved();
+    }
+
+    @Test
+    void imageTypeIsDetectedFromContent() throws Exception {
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0 };
+
+        assertEquals("image/png", storage.store(new ByteArrayInputStream(png)).getContentType());
+    }
+
+    @Test
+    void unsupportedAndOversizedUploadsAreRejected() throws Exception {
+        byte[] text = "not a receipt".getBytes(StandardCharsets.UTF_8);
+
+        RuntimeException unsupported = assertThrows(RuntimeException.class,
+                () -> storage.store(new ByteArrayInputStream(text)));
+        RuntimeException oversized = assertThrows(RuntimeException.class,
+                () -> storage.store(new ByteArrayInputStream(pdf(250_000))));
+
+        assertTrue(unsupported.getMessage().startsWith("Unsupported receipt type"));
+        assertTrue(oversized.getMessage().startsWith("Receipt exceeds"));
+        assertTemporaryFilesRemoved();
+    }
+
+    @Test
+    void transferCopiesTheRequestedSlice() throws Exception {
+        byte[] pdf = pdf(150_000);
+        String hash = storage.store(new ByteArrayInputStream(pdf)).getHash();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        storage.transfer(storage.blobPath(hash), 100_000, 50_000, Channels.newChannel(out));
+
+        assertArrayEquals(Arrays.copyOfRange(pdf, 100_000, 150_000), out.toByteArray());
+    }
+
+    @Test
+    void rangeHeaderIsParsed() {
+        assertArrayEquals(new long[] { 0, 99 }, ReceiptStorageService.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[] { 900, 999 }, ReceiptStorageService.parseRange("bytes=900-", 1000));
+        assertArrayEquals(new long[] { 500, 999 }, ReceiptStorageService.parseRange("bytes=500-5000", 1000));
+        assertArrayEquals(new long[] { 990, 999 }, ReceiptStorageService.parseRange("bytes=-10", 1000));
+        assertArrayEquals(new long[] { 0, 999 }, ReceiptStorageService.parseRange("bytes=-5000", 1000));
+
+        // Absent, malformed or multi-range headers get the whole file
+        assertNull(ReceiptStorageService.parseRange(null, 1000));
+        assertNull(ReceiptStorageService.parseRange("bytes=0-1,5-6", 1000));
+        assertNull(ReceiptStorageService.parseRange("bytes=9-3", 1000));
+        assertNull(ReceiptStorageService.parseRange("items=0-1", 1000));
+
+        assertThrows(RuntimeException.class, () -> ReceiptStorageService.parseRange("bytes=1000-", 1000));
+        assertThrows(RuntimeException.class, () -> ReceiptStorageService.parseRange("bytes=-0", 1000));
+    }
+
+    private void assertTemporaryFilesRemoved() throws Exception {
+        try (var files = Files.list(storageDir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static byte[] pdf(int size) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) 'x');
+        System.arraycopy("%PDF-1.4".getBytes(StandardCharsets.US_ASCII), 0, data, 0, 8);
+        return data;
+    }
+}
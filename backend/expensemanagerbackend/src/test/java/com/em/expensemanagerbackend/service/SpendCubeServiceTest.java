@@ -0,0 +1,73 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.dto.SpendCubeRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.ExpenseChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.ExpenseRequestRepository;
+
+class SpendCubeServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 4, 9, 0);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changesRecordedDuringARebuildAreReplayedUnlessTheScanSawThem() {
+        ExpenseRequestRepository repository = mock(ExpenseRequestRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        User finance = new User("Emily Davis", "emily@example.com", "secret", UserRole.FINANCE);
+        when(currentUserService.getCurrentUser()).thenReturn(finance);
+
+        SpendCubeService service = new SpendCubeService();
+        ReflectionTestUtils.setField(service, "expenseRequestRepository", repository);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(service, "amountBuckets", "100");
+        service.init();
+
+        when(repository.streamSpendFacts()).thenAnswer(invocation -> {
+            // Committed before the scan's snapshot: 1 is in the scan, 3 was created and deleted, 4 deleted
+            service.onExpenseChanged(change(1L, null, "100.00", 10L));
+            service.onExpenseChanged(change(3L, null, "70.00", 12L));
+            service.onExpenseChanged(change(3L, "70.00", null, null));
+            service.onExpenseChanged(change(4L, "40.00", null, null));
+            // Committed after it
+            service.onExpenseChanged(change(2L, "100.00", "300.00", 20L));
+            return Stream.of(
+                    new Object[] { 1L, 5L, CREATED, ExpenseStatus.PAID, new BigDecimal("100.00"), 10L },
+                    new Object[] { 2L, 5L, CREATED, ExpenseStatus.PAID, new BigDecimal("100.00"), 11L });
+        });
+
+        service.rebuild();
+
+        List<SpendCubeRowDto> rows = service.query("status", null, null, null, null, null);
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).getExpenseCount());
+        assertEquals(new BigDecimal("400.00"), rows.get(0).getTotalAmount());
+    }
+
+    private static ExpenseChangedEvent change(Long expenseId, String previousAmount, String newAmount, Long changeSeq) {
+        return new ExpenseChangedEvent(expenseId, 5L, previousAmount == null ? null : ExpenseStatus.PAID,
+                newAmount == null ? null : ExpenseStatus.PAID, previousAmount == null ? null : new BigDecimal(previousAmount),
+                newAmount == null ? null : new BigDecimal(newAmount), CREATED, changeSeq);
+    }
+}
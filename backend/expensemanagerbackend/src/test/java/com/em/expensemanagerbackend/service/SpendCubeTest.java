@@ -0,0 +1,71 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.em.expensemanagerbackend.dto.SpendCubeRowDto;
+import com.em.expensemanagerbackend.enums.ExpenseStatus;
+import com.em.expensemanagerbackend.service.SpendCube.Dimension;
+
+class SpendCubeTest {
+
+    private SpendCube cube;
+
+    @BeforeEach
+    void setUp() {
+        cube = new SpendCube(new BigDecimal[]{new BigDecimal("100"), new BigDecimal("1000")});
+        cube.add(1L, LocalDateTime.of(2025, 1, 10, 9, 0), ExpenseStatus.PAID, new BigDecimal("80.00"), 1);
+        cube.add(1L, LocalDateTime.of(2025, 2, 3, 9, 0), ExpenseStatus.PAID, new BigDecimal("250.00"), 1);
+        cube.add(2L, LocalDateTime.of(2025, 2, 20, 9, 0), ExpenseStatus.PENDING_FINANCE, new BigDecimal("1200.50"), 1);
+        cube.add(2L, LocalDateTime.of(2025, 2, 21, 9, 0), ExpenseStatus.PAID, new BigDecimal("100.00"), 1);
+    }
+
+    @Test
+    void groupsByMonthAndDrillsDownToEmployees() {
+        List<SpendCubeRowDto> byMonth = cube.query(EnumSet.of(Dimension.MONTH), null, null, null, null, null);
+
+        assertEquals(2, byMonth.size());
+        assertEquals("2025-02", byMonth.get(1).getMonth());
+        assertEquals(new BigDecimal("1550.50"), byMonth.get(1).getTotalAmount());
+        assertEquals(3, byMonth.get(1).getExpenseCount());
+        assertNull(byMonth.get(1).getStatus());
+
+        List<SpendCubeRowDto> february = cube.query(EnumSet.of(Dimension.EMPLOYEE), null,
+                YearMonth.of(2025, 2), YearMonth.of(2025, 2), ExpenseStatus.PAID, null);
+
+        assertEquals(2, february.size());
+        assertEquals(1L, february.get(0).getEmployeeId());
+        assertEquals(new BigDecimal("250.00"), february.get(0).getTotalAmount());
+        assertEquals(new BigDecimal("100.00"), february.get(1).getTotalAmount());
+    }
+
+    @Test
+    void amountsFallIntoLabelledBuckets() {
+        List<SpendCubeRowDto> byBucket = cube.query(EnumSet.of(Dimension.BUCKET), null, null, null, null, null);
+
+        assertEquals(List.of("<100.00", "100.00-1000.00", ">=1000.00"),
+                byBucket.stream().map(SpendCubeRowDto::getAmountBucket).toList());
+        assertEquals(2, byBucket.get(1).getExpenseCount());
+        assertEquals(Integer.valueOf(2), cube.bucketIndex(">=1000.00"));
+    }
+
+    @Test
+    void removingAnExpenseEmptiesItsCell() {
+        int cells = cube.size();
+
+        cube.add(1L, LocalDateTime.of(2025, 1, 10, 9, 0), ExpenseStatus.PAID, new BigDecimal("80.00"), -1);
+
+        assertEquals(cells - 1, cube.size());
+        assertEquals(new BigDecimal("1550.50"),
+                cube.query(EnumSet.noneOf(Dimension.class), null, null, null, null, null).get(0).getTotalAmount());
+    }
+}
@@ -0,0 +1,88 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.NotificationUnreadCounterRepository;
+
+class UnreadCountServiceTest {
+
+    private NotificationUnreadCounterRepository counterRepository;
+    private UnreadCountService unreadCountService;
+    private User employee;
+    private User manager;
+
+    @BeforeEach
+    void setUp() {
+        counterRepository = mock(NotificationUnreadCounterRepository.class);
+        unreadCountService = new UnreadCountService();
+        ReflectionTestUtils.setField(unreadCountService, "counterRepository", counterRepository);
+        ReflectionTestUtils.setField(unreadCountService, "cacheTtlMs", 60000L);
+        employee = user(1L, UserRole.EMPLOYEE);
+        manager = user(5L, UserRole.MANAGER);
+        when(counterRepository.findUnreadCountByUserId(1L)).thenReturn(Optional.of(3L));
+        when(counterRepository.findUnreadCountByUserId(5L)).thenReturn(Optional.of(10L));
+    }
+
+    @Test
+    void newNotificationsAreCountedInTheTableAndTheCachedCount() {
+        assertEquals(3, unreadCountService.getUnreadCount(employee));
+        assertEquals(10, unreadCountService.getUnreadCount(manager));
+
+        unreadCountService.onNotificationCreated(employee);
+        unreadCountService.onRoleNotificationCreated(UserRole.MANAGER);
+
+        verify(counterRepository).addToUser(1L, 1);
+        verify(counterRepository).incrementForRole("MANAGER");
+        assertEquals(4, unreadCountService.getUnreadCount(employee));
+        assertEquals(11, unreadCountService.getUnreadCount(manager));
+        verify(counterRepository, times(1)).findUnreadCountByUserId(1L);
+    }
+
+    @Test
+    void readNotificationsAreSubtractedAndNothingReadChangesNothing() {
+        unreadCountService.getUnreadCount(employee);
+
+        unreadCountService.onNotificationsRead(1L, 2);
+        unreadCountService.onNotificationsRead(1L, 0);
+
+        verify(counterRepository).addToUser(1L, -2);
+        verify(counterRepository, never()).addToUser(1L, 0);
+        assertEquals(1, unreadCountService.getUnreadCount(employee));
+    }
+
+    @Test
+    void cachedCountsOnlyMoveWhenTheTransactionCommits() {
+        unreadCountService.getUnreadCount(employee);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            unreadCountService.onNotificationCreated(employee);
+            assertEquals(3, unreadCountService.getUnreadCount(employee));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+            assertEquals(4, unreadCountService.getUnreadCount(employee));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static User user(Long id, UserRole role) {
+        User user = new User("User " + id, "user" + id + "@example.com", "secret", role);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,103 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.em.expensemanagerbackend.enums.UserRole;
+import com.em.expensemanagerbackend.event.UserHierarchyChangedEvent;
+import com.em.expensemanagerbackend.model.User;
+import com.em.expensemanagerbackend.repository.UserRepository;
+
+class UserHierarchyServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private UserHierarchyService hierarchy;
+    private User manager;
+    private User employee;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        hierarchy = new UserHierarchyService();
+        ReflectionTestUtils.setField(hierarchy, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(hierarchy, "userRepository", userRepository);
+        ReflectionTestUtils.setField(hierarchy, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(hierarchy, "unassignedVisibleToAllManagers", true);
+
+        manager = new User("Robert Taylor", "robert@example.com", "secret", UserRole.MANAGER);
+        manager.setId(5L);
+        employee = new User("John Smith", "john@example.com", "secret", UserRole.EMPLOYEE);
+        employee.setId(1L);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(manager));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(employee));
+    }
+
+    @Test
+    void unassignedEmployeesAreSharedButNotOwnExpenses() {
+        assertTrue(hierarchy.canManage(manager, employee));
+        assertFalse(hierarchy.canManage(manager, manager));
+        verifyNoInteractions(jdbcTemplate);
+
+        ReflectionTestUtils.setField(hierarchy, "unassignedVisibleToAllManagers", false);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(5L), eq(1L))).thenReturn(false);
+        assertFalse(hierarchy.canManage(manager, employee));
+    }
+
+    @Test
+    void assignedEmployeeIsManagedOnlyFromAboveInTheClosure() {
+        User otherManager = new User("Lisa Anderson", "lisa@example.com", "secret", UserRole.MANAGER);
+        otherManager.setId(6L);
+        employee.setManager(manager);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(5L), eq(1L))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(6L), eq(1L))).thenReturn(false);
+
+        assertTrue(hierarchy.canManage(manager, employee));
+        assertFalse(hierarchy.canManage(otherManager, employee));
+    }
+
+    @Test
+    void movingUnderSomeoneBelowIsRejectedBeforeTouchingTheClosure() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(5L), eq(5L))).thenReturn(true);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> hierarchy.setManager(5L, 5L));
+
+        assertEquals("A user cannot report to themselves or to someone below them", e.getMessage());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(eventPublisher, never()).publishEvent(any(UserHierarchyChangedEvent.class));
+    }
+
+    @Test
+    void moveDetachesThenAttachesTheSubtree() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(1L), eq(5L))).thenReturn(false);
+
+        hierarchy.setManager(1L, 5L);
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM user_hierarchy"), eq(1L), eq(1L));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO user_hierarchy"), eq(1L), eq(5L));
+        assertEquals(manager, employee.getManager());
+        verify(eventPublisher).publishEvent(any(UserHierarchyChangedEvent.class));
+    }
+}
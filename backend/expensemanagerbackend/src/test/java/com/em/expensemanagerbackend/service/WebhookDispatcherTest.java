@@ -0,0 +1,167 @@
+package com.em.expensemanagerbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.em.expensemanagerbackend.enums.OutboxStatus;
+import com.em.expensemanagerbackend.model.WebhookOutboxEvent;
+import com.em.expensemanagerbackend.repository.WebhookOutboxRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebhookDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> receivedBodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+
+    private HttpServer stubServer;
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/erp/hooks", exchange -> {
+            receivedBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(responseStatus.get(), -1);
+            exchange.close();
+        });
+        stubServer.start();
+
+        WebhookClient client = new WebhookClient();
+        ReflectionTestUtils.setField(client, "timeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "secret", "");
+
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new WebhookDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "webhookClient", client);
+        ReflectionTestUtils.setField(dispatcher, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "urls",
+                "http://127.0.0.1:" + stubServer.getAddress().getPort() + "/erp/hooks");
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", 60000L);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        stubServer.stop(0);
+    }
+
+    @Test
+    void deliversWholeBatchInOneRequest() throws IOException {
+        List<WebhookOutboxEvent> batch = List.of(event(1L, "expense.paid"), event(2L, "expense.rejected_finance"));
+
+        dispatcher.deliverBatch(batch);
+
+        assertEquals(1, receivedBodies.size());
+        JsonNode events = objectMapper.readTree(receivedBodies.get(0)).get("events");
+        assertEquals(2, events.size());
+        assertEquals("expense.paid", events.get(0).get("type").asText());
+        assertEquals(42, events.get(1).get("data").get("expenseId").asInt());
+        for (WebhookOutboxEvent event : batch) {
+            assertEquals(OutboxStatus.DELIVERED, event.getStatus());
+            assertNotNull(event.getDeliveredAt());
+        }
+        assertEquals(2.0, meterRegistry.counter("webhook.events", "result", "delivered").count());
+    }
+
+    @Test
+    void failedBatchIsRescheduledWithBackoffThenGivenUp() {
+        responseStatus.set(503);
+        WebhookOutboxEvent event = event(7L, "expense.paid");
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.deliverBatch(List.of(event));
+
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getNextAttemptAt().isAfter(before.plusNanos(900_000_000L)));
+        assertTrue(event.getLastError().contains("503"));
+
+        dispatcher.deliverBatch(List.of(event));
+        dispatcher.deliverBatch(List.of(event));
+
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("webhook.events", "result", "failed").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void corruptPayloadIsFailedWithoutBlockingTheRestOfTheBatch() throws IOException {
+        WebhookOutboxRepository repository = mock(WebhookOutboxRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        WebhookOutboxEvent good = event(1L, "expense.paid");
+        WebhookOutboxEvent corrupt = new WebhookOutboxEvent("expense.paid", 43L, "{\"expenseId\":");
+        corrupt.setId(2L);
+        when(repository.claimDueEvents(50)).thenReturn(List.of(good, corrupt));
+        ReflectionTestUtils.setField(dispatcher, "webhookOutboxRepository", repository);
+        ReflectionTestUtils.setField(dispatcher, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchesPerRun", 10);
+        ReflectionTestUtils.setField(dispatcher, "claimLeaseMs", 300000L);
+
+        dispatcher.dispatchPending();
+
+        assertEquals(OutboxStatus.FAILED, corrupt.getStatus());
+        assertTrue(corrupt.getLastError().startsWith("Corrupt payload"));
+        assertEquals(OutboxStatus.DELIVERED, good.getStatus());
+        assertEquals(1, objectMapper.readTree(receivedBodies.get(0)).get("events").size());
+        verify(repository).saveAll(List.of(corrupt));
+        verify(repository).saveAll(List.of(good));
+    }
+
+    @Test
+    void backoffDoublesAndIsCapped() {
+        assertEquals(1000L, dispatcher.backoffMillis(1));
+        assertEquals(2000L, dispatcher.backoffMillis(2));
+        assertEquals(32000L, dispatcher.backoffMillis(6));
+        assertEquals(60000L, dispatcher.backoffMillis(7));
+        assertEquals(60000L, dispatcher.backoffMillis(64));
+    }
+
+    private WebhookOutboxEvent event(Long id, String type) {
+        WebhookOutboxEvent event = new WebhookOutboxEvent(type, 42L, "{\"expenseId\":42,\"status\":\"PAID\"}");
+        event.setId(id);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,20 @@
+-- Transactional outbox for outbound webhooks (ERP integration)
+-- Rows are written in the same transaction as the expense status change and
+-- delivered asynchronously by the webhook dispatcher.
+
+CREATE TABLE webhook_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  event_type VARCHAR(100) NOT NULL,
+  expense_request_id BIGINT,
+  payload TEXT NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  last_error TEXT,
+  created_at TIMESTAMPTZ DEFAULT now(),
+  delivered_at TIMESTAMPTZ
+);
+
+-- Partial index so the dispatcher's claim query only walks undelivered rows
+CREATE INDEX idx_webhook_outbox_pending ON webhook_outbox(next_attempt_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_webhook_outbox_expense_request_id ON webhook_outbox(expense_request_id);
@@ -0,0 +1,8 @@
+-- Store notification types as VARCHAR (same approach as 03-enum-fix.sql) so
+-- Hibernate @Enumerated(EnumType.STRING) and set-based INSERT ... SELECT fanout
+-- can write the column without casts
+ALTER TABLE notifications ALTER COLUMN "type" TYPE VARCHAR(50) USING "type"::text;
+DROP TYPE notification_type;
+
+-- Role fanout selects recipients by role
+CREATE INDEX idx_users_role ON users("role");
@@ -0,0 +1,16 @@
+-- Per-user unread notification counters, maintained alongside notification
+-- writes so /api/notifications/unread/count is a primary-key lookup instead of
+-- a COUNT(*) per poll. A reconciliation job corrects any drift.
+
+CREATE TABLE notification_unread_counters (
+  user_id BIGINT PRIMARY KEY REFERENCES users(id),
+  unread_count BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ DEFAULT now()
+);
+
+-- Seed counters for every existing user
+INSERT INTO notification_unread_counters (user_id, unread_count)
+SELECT u.id, COUNT(n.id)
+FROM users u
+LEFT JOIN notifications n ON n.recipient_id = u.id AND n.is_read = false
+GROUP BY u.id;
@@ -0,0 +1,58 @@
+-- Rebuild notifications as a table range-partitioned by month on created_at.
+-- Retention then becomes DETACH/DROP (or archive) of whole partitions instead
+-- of row-by-row deletes, and time-bounded queries only touch recent partitions.
+-- Partitions ahead of the current month are created by the application's
+-- partition maintenance job; notifications_default catches anything outside them.
+
+ALTER TABLE notifications RENAME TO notifications_legacy;
+ALTER SEQUENCE notifications_id_seq OWNED BY NONE;
+
+DROP INDEX IF EXISTS idx_notifications_recipient_id;
+DROP INDEX IF EXISTS idx_notifications_created_at;
+DROP INDEX IF EXISTS idx_notifications_is_read;
+DROP INDEX IF EXISTS idx_notifications_type;
+DROP INDEX IF EXISTS idx_notifications_expense_request_id;
+DROP INDEX IF EXISTS idx_notifications_recipient_unread;
+
+CREATE TABLE notifications (
+  id BIGINT NOT NULL DEFAULT nextval('notifications_id_seq'),
+  recipient_id BIGINT NOT NULL REFERENCES users(id),
+  triggered_by_id BIGINT REFERENCES users(id),
+  expense_request_id BIGINT REFERENCES expense_requests(id),
+  title VARCHAR(255) NOT NULL,
+  message TEXT,
+  "type" VARCHAR(50) NOT NULL,
+  is_read BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  -- The partition key has to be part of the primary key
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE notifications_id_seq OWNED BY notifications.id;
+
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+-- Monthly partitions from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+  month_start DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM notifications_legacy), now()))::date;
+  last_month DATE := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+  WHILE month_start <= last_month LOOP
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+      'notifications_p' || to_char(month_start, 'YYYYMM'), month_start, (month_start + interval '1 month')::date);
+    month_start := (month_start + interval '1 month')::date;
+  END LOOP;
+END $$;
+
+INSERT INTO notifications (id, recipient_id, triggered_by_id, expense_request_id, title, message, "type", is_read, created_at)
+SELECT id, recipient_id, triggered_by_id, expense_request_id, title, message, "type", is_read, COALESCE(created_at, now())
+FROM notifications_legacy;
+
+DROP TABLE notifications_legacy;
+
+-- Indexes are created on the parent and propagate to every partition
+CREATE INDEX idx_notifications_recipient_created ON notifications(recipient_id, created_at DESC);
+CREATE INDEX idx_notifications_recipient_unread ON notifications(recipient_id, is_read, created_at DESC);
+-- Supports compaction of repeated notifications for the same expense and unlinking on delete
+CREATE INDEX idx_notifications_expense_recipient ON notifications(expense_request_id, recipient_id, created_at DESC);
@@ -0,0 +1,40 @@
+-- Change feed for client-side incremental sync (GET /api/expenses/changes).
+-- Every insert or update of an expense takes the next value of one global
+-- sequence; deleted expenses leave a tombstone that takes a value from the
+-- same sequence, so one cursor orders both.
+
+CREATE SEQUENCE expense_change_seq;
+
+ALTER TABLE expense_requests ADD COLUMN change_seq BIGINT;
+
+UPDATE expense_requests e
+SET change_seq = s.seq
+FROM (SELECT id, nextval('expense_change_seq') AS seq FROM (SELECT id FROM expense_requests ORDER BY id) ordered) s
+WHERE e.id = s.id;
+
+ALTER TABLE expense_requests ALTER COLUMN change_seq SET DEFAULT nextval('expense_change_seq');
+ALTER TABLE expense_requests ALTER COLUMN change_seq SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION expense_requests_bump_change_seq() RETURNS trigger AS $$
+BEGIN
+  NEW.change_seq := nextval('expense_change_seq');
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_expense_requests_change_seq
+  BEFORE UPDATE ON expense_requests
+  FOR EACH ROW EXECUTE FUNCTION expense_requests_bump_change_seq();
+
+CREATE INDEX idx_expense_requests_change_seq ON expense_requests(change_seq);
+CREATE INDEX idx_expense_requests_employee_change_seq ON expense_requests(employee_id, change_seq);
+
+CREATE TABLE expense_tombstones (
+  expense_id BIGINT PRIMARY KEY,
+  employee_id BIGINT NOT NULL REFERENCES users(id),
+  change_seq BIGINT NOT NULL DEFAULT nextval('expense_change_seq'),
+  deleted_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_expense_tombstones_change_seq ON expense_tombstones(change_seq);
+CREATE INDEX idx_expense_tombstones_employee_change_seq ON expense_tombstones(employee_id, change_seq);
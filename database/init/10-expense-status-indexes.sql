@@ -0,0 +1,3 @@
+-- Status lookups: badge counts (GROUP BY status), queues and per-employee tabs
+CREATE INDEX idx_expense_requests_status ON expense_requests(status);
+CREATE INDEX idx_expense_requests_employee_status ON expense_requests(employee_id, status);
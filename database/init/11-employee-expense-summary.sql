@@ -0,0 +1,20 @@
+-- Read model for spend totals: amount and count per employee, status and
+-- month (of submission). Maintained by the application with signed deltas in
+-- the same transaction as each expense change; never recomputed.
+CREATE TABLE employee_expense_summary (
+  employee_id BIGINT NOT NULL REFERENCES users(id),
+  status VARCHAR(30) NOT NULL,
+  month DATE NOT NULL,
+  total_amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+  expense_count BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (employee_id, status, month)
+);
+
+CREATE INDEX idx_employee_expense_summary_month ON employee_expense_summary(month);
+
+-- One-off backfill from existing expenses
+INSERT INTO employee_expense_summary (employee_id, status, month, total_amount, expense_count)
+SELECT employee_id, status::text, date_trunc('month', created_at)::date, SUM(amount), COUNT(*)
+FROM expense_requests
+GROUP BY employee_id, status, date_trunc('month', created_at)::date;
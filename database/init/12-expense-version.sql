@@ -0,0 +1,4 @@
+-- Optimistic locking for expense requests: every JPA update checks and bumps
+-- version, so a concurrent edit and approval can no longer overwrite each
+-- other silently; the losing write fails and is retried or reported as 409.
+ALTER TABLE expense_requests ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Responses of POST /api/expenses/** calls sent with an Idempotency-Key header,
+-- replayed verbatim when a client retries. Keys are SHA-256 hashes of
+-- (user, method, path, header value) and bodies are gzipped to keep rows small.
+-- A row without status_code is a claim held by a request still in progress.
+CREATE TABLE idempotency_keys (
+  key_hash BYTEA PRIMARY KEY,
+  request_hash BYTEA NOT NULL,
+  status_code SMALLINT,
+  response_body BYTEA,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys(created_at);
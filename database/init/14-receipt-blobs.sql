@@ -0,0 +1,13 @@
+-- Uploaded receipts, stored on local disk under their SHA-256 (hex) so the
+-- same file uploaded twice is kept once. An expense points at its receipt by
+-- hash; receipt_url then holds the download path of the API.
+CREATE TABLE receipt_blobs (
+  content_hash VARCHAR(64) PRIMARY KEY,
+  size_bytes BIGINT NOT NULL,
+  content_type VARCHAR(100) NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+ALTER TABLE expense_requests ADD COLUMN receipt_hash VARCHAR(64) REFERENCES receipt_blobs(content_hash);
+
+CREATE INDEX idx_expense_requests_receipt_hash ON expense_requests(receipt_hash);
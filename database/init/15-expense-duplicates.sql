@@ -0,0 +1,18 @@
+-- Duplicate expense detection. dup_fingerprint is the SHA-256 (hex) of
+-- "employee_id|amount|normalized title|week bucket", where the title is
+-- lower-cased with every run of other characters than a-z and 0-9 replaced
+-- by one space, and the bucket counts 7-day periods since 1970-01-01 of the
+-- creation date. DuplicateExpenseDetector computes the same value in Java;
+-- the two must stay identical. possible_duplicate_of points at an earlier
+-- expense with the same fingerprint (nearby week) or the same receipt file.
+ALTER TABLE expense_requests
+  ADD COLUMN dup_fingerprint VARCHAR(64),
+  ADD COLUMN possible_duplicate_of BIGINT REFERENCES expense_requests(id) ON DELETE SET NULL;
+
+UPDATE expense_requests SET dup_fingerprint = encode(sha256(convert_to(
+    employee_id || '|' || amount::text || '|'
+      || btrim(regexp_replace(lower(title), '[^a-z0-9]+', ' ', 'g')) || '|'
+      || ((created_at::date - DATE '1970-01-01') / 7),
+    'UTF8')), 'hex');
+
+CREATE INDEX idx_expense_requests_dup_fingerprint ON expense_requests(dup_fingerprint);
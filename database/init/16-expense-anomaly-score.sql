@@ -0,0 +1,8 @@
+-- Amount anomaly signal for managers, computed in memory when an expense is
+-- submitted (see AmountAnomalyService). anomaly_score is how many standard
+-- deviations the log of the amount lies above the employee's mean;
+-- amount_percentile is its rank (0-100) among the employee's recent amounts.
+-- Both are NULL while the employee has too little history.
+ALTER TABLE expense_requests
+  ADD COLUMN anomaly_score NUMERIC(6, 2),
+  ADD COLUMN amount_percentile INTEGER;
@@ -0,0 +1,6 @@
+-- Manager actions taken by the system rather than a person: expenses that
+-- match an auto-approval rule (see ApprovalRuleEngine) are moved straight to
+-- PENDING_FINANCE with an APPROVED action whose manager_id is NULL and whose
+-- comment names the rule.
+ALTER TABLE manager_actions
+  ALTER COLUMN manager_id DROP NOT NULL;
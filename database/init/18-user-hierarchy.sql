@@ -0,0 +1,51 @@
+-- Reporting lines. users.manager_id is the direct manager; user_hierarchy is
+-- its transitive closure (one row per ancestor/descendant pair, including
+-- each user with itself at depth 0), so "everyone below manager M" is an
+-- index range on the primary key. Manager queues join it to
+-- idx_expense_requests_employee_status, costing the size of the team rather
+-- than of the company. Moves are done by UserHierarchyService.
+ALTER TABLE users ADD COLUMN manager_id BIGINT REFERENCES users(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_users_manager_id ON users(manager_id);
+-- Employees without a manager form a pool every manager can see (app.hierarchy.unassignedVisibleToAllManagers)
+CREATE INDEX idx_users_unassigned ON users(id) WHERE manager_id IS NULL;
+
+CREATE TABLE user_hierarchy (
+  ancestor_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  descendant_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  depth INTEGER NOT NULL,
+  PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+-- Finding a subtree's current ancestors when it moves
+CREATE INDEX idx_user_hierarchy_descendant ON user_hierarchy(descendant_id, ancestor_id);
+
+-- Every user is its own ancestor; kept for users created later by a trigger
+CREATE OR REPLACE FUNCTION users_insert_hierarchy_self() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO user_hierarchy (ancestor_id, descendant_id, depth) VALUES (NEW.id, NEW.id, 0);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_hierarchy_self
+  AFTER INSERT ON users
+  FOR EACH ROW EXECUTE FUNCTION users_insert_hierarchy_self();
+
+-- Development seed: two teams
+UPDATE users SET manager_id = (SELECT id FROM users WHERE email = 'robert.taylor@company.com')
+WHERE email IN ('john.smith@company.com', 'sarah.johnson@company.com');
+UPDATE users SET manager_id = (SELECT id FROM users WHERE email = 'lisa.anderson@company.com')
+WHERE email IN ('michael.davis@company.com', 'emily.wilson@company.com');
+
+-- Backfill the closure from manager_id
+INSERT INTO user_hierarchy (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+  SELECT id, id, 0 FROM users
+  UNION ALL
+  SELECT u.manager_id, c.descendant_id, c.depth + 1
+  FROM chain c
+  JOIN users u ON u.id = c.ancestor_id
+  WHERE u.manager_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth FROM chain;
@@ -0,0 +1,13 @@
+-- Leases on PENDING_FINANCE expenses (see ExpenseClaimService): a clerk
+-- claims the next items and holds them until expires_at, unless renewed.
+-- A row whose expires_at has passed is free to be claimed again; such rows
+-- and those of expenses that left PENDING_FINANCE are swept periodically.
+CREATE TABLE expense_claims (
+  expense_id BIGINT PRIMARY KEY REFERENCES expense_requests(id) ON DELETE CASCADE,
+  claimed_by BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  claimed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_expense_claims_claimed_by ON expense_claims(claimed_by, expires_at);
+CREATE INDEX idx_expense_claims_expires_at ON expense_claims(expires_at);
@@ -0,0 +1,30 @@
+-- Snapshot-safe change feed. change_seq is taken when a row is written but
+-- the row only becomes visible when its transaction commits, and
+-- transactions commit out of order: a reader could pass seq N+1 while the
+-- row with seq N was still in flight and never see it. Every change now
+-- also records the id of the transaction that wrote it, the feed is ordered
+-- by (change_xid, change_seq), and a read only hands out rows of
+-- transactions older than the oldest one still running
+-- (pg_snapshot_xmin(pg_current_snapshot())). Every later commit has a
+-- higher transaction id than that bound, so it lands after the cursor.
+
+ALTER TABLE expense_requests ADD COLUMN change_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+ALTER TABLE expense_tombstones ADD COLUMN change_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE OR REPLACE FUNCTION expense_requests_bump_change_seq() RETURNS trigger AS $$
+BEGIN
+  NEW.change_seq := nextval('expense_change_seq');
+  NEW.change_xid := pg_current_xact_id();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP INDEX idx_expense_requests_change_seq;
+DROP INDEX idx_expense_requests_employee_change_seq;
+DROP INDEX idx_expense_tombstones_change_seq;
+DROP INDEX idx_expense_tombstones_employee_change_seq;
+
+CREATE INDEX idx_expense_requests_change_position ON expense_requests(change_xid, change_seq);
+CREATE INDEX idx_expense_requests_employee_change_position ON expense_requests(employee_id, change_xid, change_seq);
+CREATE INDEX idx_expense_tombstones_change_position ON expense_tombstones(change_xid, change_seq);
+CREATE INDEX idx_expense_tombstones_employee_change_position ON expense_tombstones(employee_id, change_xid, change_seq);